@@ -0,0 +1,84 @@
+package com.ecommerce.order_service.api.controller;
+
+import com.ecommerce.order_service.api.dto.ApiResponse;
+import com.ecommerce.order_service.api.dto.DlqReplayJobResponse;
+import com.ecommerce.order_service.api.dto.DlqReplayRequest;
+import com.ecommerce.order_service.api.mapper.DlqReplayMapper;
+import com.ecommerce.order_service.replay.DlqReplayService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Admin REST controller for replaying dead-lettered payment events.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/admin/dlq-replays")
+@RequiredArgsConstructor
+public class DlqReplayController {
+
+    private final DlqReplayService replayService;
+    private final DlqReplayMapper replayMapper;
+
+    /**
+     * Start a replay job; it runs in the background and its progress is available under its job id.
+     */
+    @PostMapping
+    public ResponseEntity<ApiResponse<DlqReplayJobResponse>> startReplay(
+            @Valid @RequestBody(required = false) DlqReplayRequest request) {
+
+        log.info("Starting DLQ replay: {}", request);
+        DlqReplayJobResponse job = replayMapper.toResponse(
+                replayService.start(request == null ? new DlqReplayRequest() : request));
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success(job, "Replay started", UUID.randomUUID().toString()));
+    }
+
+    /**
+     * List replay jobs, newest first.
+     */
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<DlqReplayJobResponse>>> getReplays() {
+        List<DlqReplayJobResponse> jobs = replayMapper.toResponseList(replayService.getJobs());
+        return ResponseEntity.ok(ApiResponse.success(jobs, "Replays retrieved successfully", UUID.randomUUID().toString()));
+    }
+
+    /**
+     * Get the progress and checkpoint of a replay job.
+     */
+    @GetMapping("/{jobId}")
+    public ResponseEntity<ApiResponse<DlqReplayJobResponse>> getReplay(@PathVariable String jobId) {
+        DlqReplayJobResponse job = replayMapper.toResponse(replayService.getJob(jobId));
+        return ResponseEntity.ok(ApiResponse.success(job, "Replay retrieved successfully", UUID.randomUUID().toString()));
+    }
+
+    /**
+     * Pause a running replay job at its next record.
+     */
+    @PostMapping("/{jobId}/pause")
+    public ResponseEntity<ApiResponse<DlqReplayJobResponse>> pauseReplay(@PathVariable String jobId) {
+        log.info("Pausing DLQ replay: {}", jobId);
+        DlqReplayJobResponse job = replayMapper.toResponse(replayService.pause(jobId));
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success(job, "Replay pausing", UUID.randomUUID().toString()));
+    }
+
+    /**
+     * Resume a paused or interrupted replay job from its last checkpoint.
+     */
+    @PostMapping("/{jobId}/resume")
+    public ResponseEntity<ApiResponse<DlqReplayJobResponse>> resumeReplay(@PathVariable String jobId) {
+        log.info("Resuming DLQ replay: {}", jobId);
+        DlqReplayJobResponse job = replayMapper.toResponse(replayService.resume(jobId));
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success(job, "Replay resumed", UUID.randomUUID().toString()));
+    }
+}
@@ -1,6 +1,7 @@
 package com.ecommerce.order_service.api.controller;
 
 import com.ecommerce.order_service.api.dto.ApiResponse;
+import com.ecommerce.order_service.replay.DlqReplayService;
 import com.ecommerce.order_service.service.OrderService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -62,6 +63,56 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
     }
 
+    /**
+     * Handle malformed pagination cursors and field selections.
+     */
+    @ExceptionHandler({OrderService.InvalidCursorException.class, OrderService.InvalidFieldsException.class})
+    public ResponseEntity<ApiResponse<Void>> handleInvalidQueryParameterException(RuntimeException ex) {
+
+        log.warn("Invalid query parameter: {}", ex.getMessage());
+
+        ApiResponse<Void> response = ApiResponse.error(
+                ex.getMessage(),
+                UUID.randomUUID().toString()
+        );
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+    }
+
+    /**
+     * Handle replay job not found exception.
+     */
+    @ExceptionHandler(DlqReplayService.ReplayJobNotFoundException.class)
+    public ResponseEntity<ApiResponse<Void>> handleReplayJobNotFoundException(
+            DlqReplayService.ReplayJobNotFoundException ex) {
+
+        log.error("Replay job not found: {}", ex.getMessage());
+
+        ApiResponse<Void> response = ApiResponse.error(
+                ex.getMessage(),
+                UUID.randomUUID().toString()
+        );
+
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+    }
+
+    /**
+     * Handle replay job state conflicts, e.g. resuming a job that is already running.
+     */
+    @ExceptionHandler(DlqReplayService.ReplayJobStateException.class)
+    public ResponseEntity<ApiResponse<Void>> handleReplayJobStateException(
+            DlqReplayService.ReplayJobStateException ex) {
+
+        log.warn("Replay job state conflict: {}", ex.getMessage());
+
+        ApiResponse<Void> response = ApiResponse.error(
+                ex.getMessage(),
+                UUID.randomUUID().toString()
+        );
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+    }
+
     /**
      * Handle general exceptions.
      */
@@ -1,19 +1,25 @@
 package com.ecommerce.order_service.api.controller;
 
 import com.ecommerce.order_service.api.dto.ApiResponse;
+import com.ecommerce.order_service.api.dto.BatchCreateOrderRequest;
+import com.ecommerce.order_service.api.dto.BatchCreateOrderResponse;
 import com.ecommerce.order_service.api.dto.CreateOrderRequest;
+import com.ecommerce.order_service.api.dto.CursorPage;
 import com.ecommerce.order_service.api.dto.OrderResponse;
-import com.ecommerce.order_service.saga.OrderSagaOrchestrator;
+import com.ecommerce.order_service.service.OrderBatchService;
 import com.ecommerce.order_service.service.OrderService;
+import com.ecommerce.order_service.stream.OrderStatusStreams;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.MDC;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.util.List;
 import java.util.UUID;
 
 /**
@@ -26,7 +32,8 @@ import java.util.UUID;
 public class OrderController {
 
     private final OrderService orderService;
-    private final OrderSagaOrchestrator sagaOrchestrator;
+    private final OrderBatchService orderBatchService;
+    private final OrderStatusStreams orderStatusStreams;
 
     /**
      * Create a new order.
@@ -47,16 +54,8 @@ public class OrderController {
         try {
             log.info("Creating order for user: {}", request.getUserId());
 
-            OrderResponse orderResponse = orderService.createOrder(request, idempotencyKey, correlationId);
-
-            // Trigger saga to request payment
-            sagaOrchestrator.startPaymentRequest(
-                    orderResponse.getSagaId(), // use the persisted sagaId returned by the service
-                    orderResponse.getOrderId(),
-                    orderResponse.getUserId(),
-                    orderResponse.getTotalAmount(),
-                    correlationId
-            );
+            // Creates the order and starts the saga (payment request) in one transaction
+            OrderResponse orderResponse = orderService.placeOrder(request, idempotencyKey, correlationId);
 
             ApiResponse<OrderResponse> response = ApiResponse.success(
                     orderResponse,
@@ -70,12 +69,46 @@ public class OrderController {
         }
     }
 
+    /**
+     * Create many orders in one call, each with its own idempotency key.
+     * Orders are placed in chunked transactions; the response holds one result per order, in request
+     * order, so orders that failed can be resent on their own.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<ApiResponse<BatchCreateOrderResponse>> createOrders(
+            @Valid @RequestBody BatchCreateOrderRequest request,
+            @RequestHeader(value = "X-Correlation-Id", required = false) String correlationId) {
+
+        if (correlationId == null || correlationId.isBlank()) {
+            correlationId = UUID.randomUUID().toString();
+        }
+        MDC.put("correlationId", correlationId);
+
+        try {
+            BatchCreateOrderResponse batchResponse = orderBatchService.placeOrders(request.getOrders(), correlationId);
+
+            ApiResponse<BatchCreateOrderResponse> response = ApiResponse.success(
+                    batchResponse,
+                    "Batch processed: " + batchResponse.getCreated() + " created, "
+                            + batchResponse.getDuplicates() + " duplicates, " + batchResponse.getFailed() + " failed",
+                    correlationId
+            );
+
+            return ResponseEntity.ok(response);
+        } finally {
+            MDC.clear();
+        }
+    }
+
     /**
      * Get order by ID.
+     * Responses carry a strong ETag derived from the order ID and version; a request whose If-None-Match
+     * still matches the current version gets 304 Not Modified without the order being loaded.
      */
     @GetMapping("/{orderId}")
     public ResponseEntity<ApiResponse<OrderResponse>> getOrder(
             @PathVariable String orderId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
             @RequestHeader(value = "X-Correlation-Id", required = false) String correlationId) {
 
         if (correlationId == null || correlationId.isBlank()) {
@@ -84,6 +117,14 @@ public class OrderController {
         MDC.put("correlationId", correlationId);
 
         try {
+            if (ifNoneMatch != null) {
+                String currentETag = eTag(orderId, orderService.getOrderVersion(orderId));
+                if (matchesAny(ifNoneMatch, currentETag)) {
+                    log.debug("Order {} not modified", orderId);
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(currentETag).build();
+                }
+            }
+
             log.info("Fetching order: {}", orderId);
             OrderResponse orderResponse = orderService.getOrderById(orderId);
 
@@ -93,18 +134,39 @@ public class OrderController {
                     correlationId
             );
 
-            return ResponseEntity.ok(response);
+            ResponseEntity.BodyBuilder ok = ResponseEntity.ok();
+            if (orderResponse.getVersion() != null) {
+                ok.eTag(eTag(orderId, orderResponse.getVersion()));
+            }
+            return ok.body(response);
         } finally {
             MDC.clear();
         }
     }
 
     /**
-     * Get all orders for a user.
+     * Stream an order's status changes as Server-Sent Events.
+     * The first {@code status} event carries the current status, read from the database after the stream is
+     * registered so no change falls in between; one follows for each change as it commits, and the stream ends
+     * once the order is confirmed, cancelled or failed.
+     */
+    @GetMapping(value = "/{orderId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamOrderEvents(@PathVariable String orderId) {
+        log.info("Opening status stream for order: {}", orderId);
+        return orderStatusStreams.subscribe(orderId, () -> orderService.getOrderStatus(orderId));
+    }
+
+    /**
+     * Get a user's orders, newest first, one page at a time.
+     * Pass the previous page's {@code nextCursor} as {@code cursor} to get the following page.
+     * With {@code fields}, e.g. {@code fields=orderId,status,totalAmount}, only those fields are read and returned.
      */
     @GetMapping("/user/{userId}")
-    public ResponseEntity<ApiResponse<List<OrderResponse>>> getUserOrders(
+    public ResponseEntity<ApiResponse<CursorPage<?>>> getUserOrders(
             @PathVariable String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String fields,
             @RequestHeader(value = "X-Correlation-Id", required = false) String correlationId) {
 
         if (correlationId == null || correlationId.isBlank()) {
@@ -114,9 +176,11 @@ public class OrderController {
 
         try {
             log.info("Fetching orders for user: {}", userId);
-            List<OrderResponse> orders = orderService.getOrdersByUserId(userId);
+            CursorPage<?> orders = fields == null
+                    ? orderService.getOrdersByUserId(userId, cursor, limit)
+                    : orderService.getOrderProjectionsByUserId(userId, cursor, limit, fields);
 
-            ApiResponse<List<OrderResponse>> response = ApiResponse.success(
+            ApiResponse<CursorPage<?>> response = ApiResponse.success(
                     orders,
                     "Orders retrieved successfully",
                     correlationId
@@ -127,4 +191,27 @@ public class OrderController {
             MDC.clear();
         }
     }
+
+    private static String eTag(String orderId, Long version) {
+        return "\"" + orderId + "-" + version + "\"";
+    }
+
+    /**
+     * Whether an If-None-Match header matches an ETag, using the weak comparison RFC 9110 requires for it.
+     */
+    private static boolean matchesAny(String ifNoneMatch, String eTag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
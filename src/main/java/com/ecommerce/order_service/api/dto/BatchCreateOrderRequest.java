@@ -0,0 +1,28 @@
+package com.ecommerce.order_service.api.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Request DTO for creating many orders in one call.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchCreateOrderRequest {
+
+    public static final int MAX_ORDERS = 1000;
+
+    @NotEmpty(message = "Batch must contain at least one order")
+    @Size(max = MAX_ORDERS, message = "Batch must not contain more than " + MAX_ORDERS + " orders")
+    @Valid
+    private List<BatchOrderRequest> orders;
+}
@@ -0,0 +1,23 @@
+package com.ecommerce.order_service.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Response DTO for a bulk create request: one result per requested order, in request order.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchCreateOrderResponse {
+
+    private int created;
+    private int duplicates;
+    private int failed;
+    private List<BatchOrderResult> results;
+}
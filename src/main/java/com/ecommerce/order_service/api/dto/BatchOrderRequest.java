@@ -0,0 +1,24 @@
+package com.ecommerce.order_service.api.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One order of a bulk create request, with its own idempotency key.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchOrderRequest {
+
+    private String idempotencyKey;
+
+    @NotNull(message = "Order is required")
+    @Valid
+    private CreateOrderRequest order;
+}
@@ -0,0 +1,31 @@
+package com.ecommerce.order_service.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one order of a bulk create request, at the same index as in the request.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchOrderResult {
+
+    public enum Status {
+        CREATED,
+        // The idempotency key was already used; order holds the response stored for it
+        DUPLICATE,
+        FAILED
+    }
+
+    private int index;
+    private String idempotencyKey;
+    private Status status;
+    private OrderResponse order;
+    private String error;
+}
@@ -0,0 +1,39 @@
+package com.ecommerce.order_service.api.dto;
+
+import com.ecommerce.order_service.domain.entity.DlqReplayStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Response DTO describing a DLQ replay job and its progress.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DlqReplayJobResponse {
+
+    private String jobId;
+    private String topic;
+    private String eventType;
+    private LocalDateTime fromTime;
+    private LocalDateTime toTime;
+    private int ratePerSecond;
+    private DlqReplayStatus status;
+    private long totalRecords;
+    private long scannedRecords;
+    private long replayedRecords;
+    private long skippedRecords;
+    private long failedRecords;
+    private double progressPercent;
+    private Map<Integer, Long> positions;
+    private String lastError;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,49 @@
+package com.ecommerce.order_service.api.dto;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Request DTO for starting a DLQ replay.
+ * All filters are optional: without them every record currently in the DLQ is replayed.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DlqReplayRequest {
+
+    /**
+     * Dead-letter topic to replay; defaults to the payment events DLQ.
+     */
+    private String topic;
+
+    /**
+     * Only replay records with this eventType header, e.g. PaymentSucceeded.
+     */
+    private String eventType;
+
+    /**
+     * Only replay records dead-lettered at or after this time.
+     */
+    private LocalDateTime from;
+
+    /**
+     * Only replay records dead-lettered before this time.
+     */
+    private LocalDateTime to;
+
+    @Positive(message = "Rate must be positive")
+    private Integer ratePerSecond;
+
+    @AssertTrue(message = "from must be before to")
+    public boolean isValidRange() {
+        return from == null || to == null || from.isBefore(to);
+    }
+}
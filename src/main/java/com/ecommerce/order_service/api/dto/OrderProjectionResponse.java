@@ -0,0 +1,34 @@
+package com.ecommerce.order_service.api.dto;
+
+import com.ecommerce.order_service.domain.entity.OrderStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Response DTO for order reads with a {@code fields} selection.
+ * Only the requested fields are set; the others are left out of the JSON.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class OrderProjectionResponse {
+
+    private String orderId;
+    private String userId;
+    private OrderStatus status;
+    private BigDecimal totalAmount;
+    private String paymentId;
+    private String shippingAddress;
+    private List<OrderItemResponse> items;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -30,4 +30,6 @@ public class OrderResponse {
     private List<OrderItemResponse> items;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    // Order.version this response was read at
+    private Long version;
 }
@@ -0,0 +1,23 @@
+package com.ecommerce.order_service.api.dto;
+
+import com.ecommerce.order_service.domain.entity.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Order status change pushed to clients of the order event stream.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusEvent {
+
+    private String orderId;
+    private OrderStatus status;
+    private LocalDateTime timestamp;
+}
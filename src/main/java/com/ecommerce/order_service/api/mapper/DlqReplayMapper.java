@@ -0,0 +1,36 @@
+package com.ecommerce.order_service.api.mapper;
+
+import com.ecommerce.order_service.api.dto.DlqReplayJobResponse;
+import com.ecommerce.order_service.domain.entity.DlqReplayJob;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+import java.util.List;
+
+/**
+ * MapStruct mapper for DLQ replay jobs.
+ */
+@Mapper(componentModel = "spring")
+public interface DlqReplayMapper {
+
+    /**
+     * Map DlqReplayJob entity to DlqReplayJobResponse DTO.
+     */
+    @Mapping(target = "progressPercent", expression = "java(progressPercent(job))")
+    DlqReplayJobResponse toResponse(DlqReplayJob job);
+
+    /**
+     * Map list of DlqReplayJob entities to list of DlqReplayJobResponse DTOs.
+     */
+    List<DlqReplayJobResponse> toResponseList(List<DlqReplayJob> jobs);
+
+    /**
+     * Share of the records in range that have been scanned.
+     */
+    default double progressPercent(DlqReplayJob job) {
+        if (job.getTotalRecords() == 0) {
+            return job.getCompletedAt() != null ? 100.0 : 0.0;
+        }
+        return Math.min(100.0, 100.0 * job.getScannedRecords() / job.getTotalRecords());
+    }
+}
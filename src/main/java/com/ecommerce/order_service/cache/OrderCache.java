@@ -0,0 +1,221 @@
+package com.ecommerce.order_service.cache;
+
+import com.ecommerce.order_service.api.dto.OrderResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Two-tier read-through cache of order responses, keyed by orderId.
+ * L1 is an in-process Caffeine cache (size- and TTL-bounded, W-TinyLFU eviction) that serves hot orders
+ * without a network hop; L2 is Redis, shared by all nodes.
+ * Each L2 entry is a hash holding the response JSON and the {@code Order.version} it was read at. An entry is
+ * only written if no entry or one with a lower version is cached, so a reader holding an older snapshot
+ * cannot replace a newer one; L1 keeps the higher version in the same way.
+ * Writers evict the order once their transaction commits: from the local L1, from L2, and from the L1 of
+ * the other nodes through a message on the invalidation channel. The eviction leaves a no-fill marker in both
+ * tiers for {@code orders.cache.no-fill-ms}, so a reader that loaded the previous version just before the
+ * commit cannot put it back afterwards. The short L1 TTL bounds staleness if an invalidation message is lost.
+ * Redis errors are logged and treated as misses, so reads fall back to the database.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderCache {
+
+    static final String CACHE_NAME = "orders";
+
+    private static final String KEY_PREFIX = "order:";
+    private static final String PAYLOAD = "payload";
+
+    private static final RedisScript<Long> PUT_IF_NEWER = new DefaultRedisScript<>("""
+            if redis.call('HEXISTS', KEYS[1], 'evicted') == 1 then
+                return 0
+            end
+            local cached = redis.call('HGET', KEYS[1], 'version')
+            if cached and tonumber(cached) >= tonumber(ARGV[1]) then
+                return 0
+            end
+            redis.call('HSET', KEYS[1], 'version', ARGV[1], 'payload', ARGV[2])
+            redis.call('PEXPIRE', KEYS[1], ARGV[3])
+            return 1
+            """, Long.class);
+
+    private static final RedisScript<Long> EVICT = new DefaultRedisScript<>("""
+            redis.call('DEL', KEYS[1])
+            redis.call('HSET', KEYS[1], 'evicted', '1')
+            redis.call('PEXPIRE', KEYS[1], ARGV[1])
+            return 1
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${orders.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${orders.cache.ttl-ms:300000}")
+    private long ttlMs;
+
+    @Value("${orders.cache.local.maximum-size:10000}")
+    private long localMaximumSize;
+
+    @Value("${orders.cache.local.ttl-ms:5000}")
+    private long localTtlMs;
+
+    @Value("${orders.cache.invalidation-channel:orders.cache.invalidation}")
+    private String invalidationChannel;
+
+    @Value("${orders.cache.no-fill-ms:2000}")
+    private long noFillMs;
+
+    private Cache<String, OrderResponse> local;
+    // Orders evicted within the last no-fill-ms; L1 does not take puts for them
+    private Cache<String, Boolean> recentlyEvicted;
+    private Counter remoteHits;
+    private Counter remoteMisses;
+    private Counter remoteEvictions;
+
+    @PostConstruct
+    void init() {
+        local = Caffeine.newBuilder()
+                .maximumSize(localMaximumSize)
+                .expireAfterWrite(Duration.ofMillis(localTtlMs))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, local, CACHE_NAME, Tags.of("tier", "l1"));
+        recentlyEvicted = Caffeine.newBuilder()
+                .maximumSize(localMaximumSize)
+                .expireAfterWrite(Duration.ofMillis(noFillMs))
+                .build();
+
+        remoteHits = tierCounter("cache.gets", "hit");
+        remoteMisses = tierCounter("cache.gets", "miss");
+        remoteEvictions = Counter.builder("cache.evictions")
+                .tags("cache", CACHE_NAME, "tier", "l2")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Cached response of an order, from L1 or else from L2, if any.
+     */
+    public Optional<OrderResponse> get(String orderId) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        OrderResponse cached = local.getIfPresent(orderId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        try {
+            Object payload = redisTemplate.opsForHash().get(key(orderId), PAYLOAD);
+            if (payload == null) {
+                remoteMisses.increment();
+                return Optional.empty();
+            }
+            remoteHits.increment();
+            OrderResponse order = objectMapper.readValue((String) payload, OrderResponse.class);
+            putLocal(order);
+            return Optional.of(order);
+        } catch (Exception e) {
+            log.warn("Order cache read failed for {}; reading from the database", orderId, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Cache a response in both tiers unless an equal or newer version of the order is already cached,
+     * or the order was evicted within the no-fill period.
+     */
+    public void put(OrderResponse order) {
+        if (!enabled || order.getVersion() == null) {
+            return;
+        }
+        putLocal(order);
+        try {
+            redisTemplate.execute(PUT_IF_NEWER, List.of(key(order.getOrderId())),
+                    order.getVersion().toString(), objectMapper.writeValueAsString(order), Long.toString(ttlMs));
+        } catch (Exception e) {
+            log.warn("Order cache write failed for {}", order.getOrderId(), e);
+        }
+    }
+
+    /**
+     * Evict an order once the current transaction commits, or right away outside a transaction.
+     */
+    public void evictAfterCommit(String orderId) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(orderId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(orderId);
+            }
+        });
+    }
+
+    /**
+     * Evict an order from L1, from L2 and from the L1 of the other nodes, leaving no-fill markers behind.
+     */
+    public void evict(String orderId) {
+        evictLocal(orderId);
+        try {
+            redisTemplate.execute(EVICT, List.of(key(orderId)), Long.toString(noFillMs));
+            remoteEvictions.increment();
+            redisTemplate.convertAndSend(invalidationChannel, orderId);
+        } catch (Exception e) {
+            log.warn("Order cache eviction failed for {}; other nodes drop it within {} ms and Redis within {} ms",
+                    orderId, localTtlMs, ttlMs, e);
+        }
+    }
+
+    /**
+     * Drop an order from this node's L1 on an invalidation message from another node.
+     */
+    public void evictLocal(String orderId) {
+        recentlyEvicted.put(orderId, Boolean.TRUE);
+        local.invalidate(orderId);
+    }
+
+    private void putLocal(OrderResponse order) {
+        if (recentlyEvicted.getIfPresent(order.getOrderId()) != null) {
+            return;
+        }
+        local.asMap().merge(order.getOrderId(), order, (cached, loaded) ->
+                cached.getVersion() != null && cached.getVersion() >= loaded.getVersion() ? cached : loaded);
+    }
+
+    private Counter tierCounter(String name, String result) {
+        return Counter.builder(name)
+                .tags("cache", CACHE_NAME, "tier", "l2", "result", result)
+                .register(meterRegistry);
+    }
+
+    private static String key(String orderId) {
+        return KEY_PREFIX + orderId;
+    }
+}
@@ -1,9 +1,14 @@
 package com.ecommerce.order_service.config;
 
+import com.ecommerce.order_service.kafka.consumer.RetryTierMetrics;
+import com.ecommerce.order_service.outbox.OutboxShardLeaseManager;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -13,6 +18,7 @@ import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
 import org.springframework.kafka.listener.DefaultErrorHandler;
 import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
 import org.springframework.util.backoff.FixedBackOff;
@@ -25,6 +31,18 @@ public class KafkaConfig {
 
     private final KafkaProperties kafkaProperties;
 
+    @Value("${outbox.relay.transactional.enabled:false}")
+    private boolean outboxTransactional;
+
+    @Value("${outbox.relay.transactional.id-prefix:order-outbox-}")
+    private String outboxTransactionIdPrefix;
+
+    @Value("${kafka.consumer.payments.batch-max-poll-records:500}")
+    private int batchMaxPollRecords;
+
+    @Value("${kafka.consumer.concurrency:1}")
+    private int listenerConcurrency;
+
     public KafkaConfig(KafkaProperties kafkaProperties) {
         this.kafkaProperties = kafkaProperties;
     }
@@ -38,7 +56,7 @@ public class KafkaConfig {
         props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
         props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
         // additional producer props from properties if set
-        kafkaProperties.getProducer().forEach((k, v) -> props.putIfAbsent(k, v));
+        kafkaProperties.buildProducerProperties(null).forEach(props::putIfAbsent);
         return new DefaultKafkaProducerFactory<>(props);
     }
 
@@ -47,34 +65,132 @@ public class KafkaConfig {
         return new KafkaTemplate<>(producerFactory());
     }
 
+    /**
+     * Producer for the outbox relay, which forwards stored JSON payloads as raw bytes.
+     * In transactional mode the transactional id is derived from the relay node id, so a restarted
+     * node fences producers of its previous incarnation.
+     * The producer is idempotent with at most 5 in-flight requests, so retried sends keep the
+     * per-aggregate (per-key) order the relay relies on.
+     */
     @Bean
-    public ConsumerFactory<String, String> consumerFactory() {
+    public ProducerFactory<String, byte[]> outboxProducerFactory(OutboxShardLeaseManager shardLeaseManager) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG,
+                String.join(",", kafkaProperties.getBootstrapServers()));
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        props.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+        kafkaProperties.buildProducerProperties(null).forEach(props::putIfAbsent);
+        DefaultKafkaProducerFactory<String, byte[]> factory = new DefaultKafkaProducerFactory<>(props);
+        if (outboxTransactional) {
+            factory.setTransactionIdPrefix(outboxTransactionIdPrefix + shardLeaseManager.getNodeId() + "-");
+        }
+        return factory;
+    }
+
+    @Bean
+    public KafkaTemplate<String, byte[]> outboxKafkaTemplate(ProducerFactory<String, byte[]> outboxProducerFactory) {
+        return new KafkaTemplate<>(outboxProducerFactory);
+    }
+
+    /**
+     * Consumer factory handing record values over as raw bytes, so listeners deserialize JSON
+     * straight into typed events without an intermediate String.
+     */
+    @Bean
+    public ConsumerFactory<String, byte[]> consumerFactory() {
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG,
                 String.join(",", kafkaProperties.getBootstrapServers()));
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
         // include other consumer props if defined
-        kafkaProperties.getConsumer().forEach((k, v) -> props.putIfAbsent(k, v));
+        kafkaProperties.buildConsumerProperties(null).forEach(props::putIfAbsent);
         return new DefaultKafkaConsumerFactory<>(props);
     }
 
+    /**
+     * Record listener factory. Failed records are retried in place and then dead-lettered, unless
+     * payment retry topics are enabled ({@link PaymentRetryTopicConfig}), which replace that error handler.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, byte[]> kafkaListenerContainerFactory(
+            DeadLetterPublishingRecoverer deadLetterRecoverer, RetryTierMetrics retryTierMetrics) {
+        ConcurrentKafkaListenerContainerFactory<String, byte[]> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory());
+        factory.setConcurrency(listenerConcurrency);
+        factory.setRecordInterceptor(retryTierMetrics);
+        factory.setCommonErrorHandler(deadLetterErrorHandler(deadLetterRecoverer));
+        return factory;
+    }
+
+    /**
+     * Batch listener factory: the listener receives a whole poll and offsets are committed per batch.
+     * A BatchListenerFailedException commits the records before the failed one, retries the failed
+     * record and sends it to the DLQ once retries are exhausted; the rest of the poll is redelivered.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, byte[]> batchKafkaListenerContainerFactory(
+            DeadLetterPublishingRecoverer deadLetterRecoverer) {
+        ConcurrentKafkaListenerContainerFactory<String, byte[]> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory());
+        factory.setConcurrency(listenerConcurrency);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        factory.getContainerProperties().getKafkaConsumerProperties()
+                .setProperty(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(batchMaxPollRecords));
+        factory.setCommonErrorHandler(deadLetterErrorHandler(deadLetterRecoverer));
+        return factory;
+    }
+
+    /**
+     * Listener factory for parallel processing: records are acknowledged manually from worker threads.
+     * With async acks the container commits an offset only once all earlier records are acknowledged.
+     */
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, String> kafkaListenerContainerFactory(KafkaTemplate<String, String> kafkaTemplate) {
-        ConcurrentKafkaListenerContainerFactory<String, String> factory = new ConcurrentKafkaListenerContainerFactory<>();
+    public ConcurrentKafkaListenerContainerFactory<String, byte[]> parallelKafkaListenerContainerFactory(
+            DeadLetterPublishingRecoverer deadLetterRecoverer) {
+        ConcurrentKafkaListenerContainerFactory<String, byte[]> factory = new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
+        factory.setConcurrency(listenerConcurrency);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.getContainerProperties().setAsyncAcks(true);
+        factory.setCommonErrorHandler(deadLetterErrorHandler(deadLetterRecoverer));
+        return factory;
+    }
 
-        // Dead-letter recoverer: will publish failing records to a DLQ topic
-        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(kafkaTemplate,
+    /**
+     * Dead-letter recoverer: will publish failing records to a DLQ topic
+     */
+    @Bean
+    public DeadLetterPublishingRecoverer deadLetterRecoverer(KafkaTemplate<String, byte[]> deadLetterKafkaTemplate) {
+        return new DeadLetterPublishingRecoverer(deadLetterKafkaTemplate,
                 (r, e) -> {
                     String original = r.topic();
                     return new org.apache.kafka.common.TopicPartition(original + ".DLQ", r.partition());
                 });
+    }
 
-        // Retry twice with 1s interval
-        DefaultErrorHandler errorHandler = new DefaultErrorHandler(recoverer, new FixedBackOff(1000L, 2L));
-        factory.setCommonErrorHandler(errorHandler);
+    /**
+     * Template republishing consumed records unchanged to retry topics and the DLQ, so it serializes
+     * values as raw bytes. Kept separate from the outbox template, which may be transactional.
+     */
+    @Bean
+    public KafkaTemplate<String, byte[]> deadLetterKafkaTemplate(RetryTierMetrics retryTierMetrics) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG,
+                String.join(",", kafkaProperties.getBootstrapServers()));
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        kafkaProperties.buildProducerProperties(null).forEach(props::putIfAbsent);
+        KafkaTemplate<String, byte[]> template = new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(props));
+        template.setProducerListener(retryTierMetrics);
+        return template;
+    }
 
-        return factory;
+    private DefaultErrorHandler deadLetterErrorHandler(DeadLetterPublishingRecoverer recoverer) {
+        // Retry twice with 1s interval
+        return new DefaultErrorHandler(recoverer, new FixedBackOff(1000L, 2L));
     }
 }
@@ -28,10 +28,16 @@ public class KafkaTopicConfig {
     @Value("${kafka.topics.notifications-commands}")
     private String notificationsCommandsTopic;
 
+    @Value("${kafka.topics.outbox-checkpoints}")
+    private String outboxCheckpointsTopic;
+
+    @Value("${kafka.topics.partitions:3}")
+    private int partitions;
+
     @Bean
     public NewTopic ordersEventsTopic() {
         return TopicBuilder.name(ordersEventsTopic)
-                .partitions(3)
+                .partitions(partitions)
                 .replicas(1)
                 .build();
     }
@@ -39,7 +45,7 @@ public class KafkaTopicConfig {
     @Bean
     public NewTopic ordersCommandsTopic() {
         return TopicBuilder.name(ordersCommandsTopic)
-                .partitions(3)
+                .partitions(partitions)
                 .replicas(1)
                 .build();
     }
@@ -47,7 +53,7 @@ public class KafkaTopicConfig {
     @Bean
     public NewTopic paymentsCommandsTopic() {
         return TopicBuilder.name(paymentsCommandsTopic)
-                .partitions(3)
+                .partitions(partitions)
                 .replicas(1)
                 .build();
     }
@@ -55,7 +61,7 @@ public class KafkaTopicConfig {
     @Bean
     public NewTopic paymentsEventsTopic() {
         return TopicBuilder.name(paymentsEventsTopic)
-                .partitions(3)
+                .partitions(partitions)
                 .replicas(1)
                 .build();
     }
@@ -63,8 +69,20 @@ public class KafkaTopicConfig {
     @Bean
     public NewTopic notificationsCommandsTopic() {
         return TopicBuilder.name(notificationsCommandsTopic)
-                .partitions(3)
+                .partitions(partitions)
+                .replicas(1)
+                .build();
+    }
+
+    /**
+     * Relay checkpoints keyed by relay id; compaction keeps only the latest checkpoint per relay.
+     */
+    @Bean
+    public NewTopic outboxCheckpointsTopic() {
+        return TopicBuilder.name(outboxCheckpointsTopic)
+                .partitions(1)
                 .replicas(1)
+                .compact()
                 .build();
     }
 }
@@ -0,0 +1,35 @@
+package com.ecommerce.order_service.config;
+
+import com.ecommerce.order_service.cache.OrderCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Subscribes to the order cache invalidation channel, so orders updated on another node are dropped
+ * from this node's in-process cache.
+ */
+@Configuration
+@ConditionalOnProperty(name = "orders.cache.enabled", havingValue = "true", matchIfMissing = true)
+public class OrderCacheConfig {
+
+    @Value("${orders.cache.invalidation-channel:orders.cache.invalidation}")
+    private String invalidationChannel;
+
+    @Bean
+    public RedisMessageListenerContainer orderCacheInvalidationListenerContainer(
+            RedisConnectionFactory connectionFactory, OrderCache orderCache) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(
+                (message, pattern) -> orderCache.evictLocal(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(invalidationChannel));
+        return container;
+    }
+}
@@ -0,0 +1,33 @@
+package com.ecommerce.order_service.config;
+
+import com.ecommerce.order_service.stream.OrderStatusStreams;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Subscribes to the order status channel, so status changes committed on any node reach the
+ * order event streams held by this node.
+ */
+@Configuration
+public class OrderStatusStreamConfig {
+
+    @Value("${orders.events.channel:orders.status}")
+    private String channel;
+
+    @Bean
+    public RedisMessageListenerContainer orderStatusListenerContainer(
+            RedisConnectionFactory connectionFactory, OrderStatusStreams orderStatusStreams) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(
+                (message, pattern) -> orderStatusStreams.onMessage(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(channel));
+        return container;
+    }
+}
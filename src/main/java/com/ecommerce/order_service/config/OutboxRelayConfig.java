@@ -0,0 +1,35 @@
+package com.ecommerce.order_service.config;
+
+import com.ecommerce.order_service.outbox.OutboxPublisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Subscribes the sharded outbox relay to the wake-up channel, so rows committed on another node
+ * in buckets this node leases are published without waiting for the idle poll.
+ */
+@Configuration
+@ConditionalOnProperty(name = "outbox.relay.sharding.enabled", havingValue = "true")
+public class OutboxRelayConfig {
+
+    @Value("${outbox.relay.sharding.wake-up-channel:outbox.relay.wake-up}")
+    private String wakeUpChannel;
+
+    @Bean
+    public RedisMessageListenerContainer outboxRelayWakeUpListenerContainer(
+            RedisConnectionFactory connectionFactory, OutboxPublisher outboxPublisher) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(
+                (message, pattern) -> outboxPublisher.onWakeUpMessage(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(wakeUpChannel));
+        return container;
+    }
+}
@@ -0,0 +1,86 @@
+package com.ecommerce.order_service.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.retrytopic.RetryTopicComponentFactory;
+import org.springframework.kafka.retrytopic.RetryTopicConfiguration;
+import org.springframework.kafka.retrytopic.RetryTopicConfigurationBuilder;
+import org.springframework.kafka.retrytopic.RetryTopicNamesProviderFactory;
+import org.springframework.kafka.retrytopic.SuffixingRetryTopicNamesProviderFactory;
+
+/**
+ * Non-blocking retries for payment events, enabled with {@code kafka.consumer.payments.retry=topics}
+ * in the record consumer mode.
+ * A failing record is forwarded at once to {@code payments.events.retry-1s}, then {@code -10s} and
+ * {@code -60s}, and finally to {@code payments.events.DLQ}, so it no longer holds back its partition.
+ * Retry topic consumers pause a partition until the head record's due time instead of sleeping,
+ * so delivery from each tier waits exactly as long as needed. Unreadable payloads skip the retries.
+ * The DLQ consumer is not started; dead-lettered records are left for inspection and replay.
+ */
+@Configuration
+@ConditionalOnExpression("'${kafka.consumer.payments.retry:blocking}' == 'topics' "
+        + "and '${kafka.consumer.payments.mode:record}' == 'record'")
+public class PaymentRetryTopicConfig {
+
+    private static final String RETRY_SUFFIX = ".retry";
+
+    @Value("${kafka.topics.payments-events}")
+    private String paymentsEventsTopic;
+
+    @Value("${kafka.topics.partitions:3}")
+    private int partitions;
+
+    @Value("${kafka.consumer.payments.retry-topics.initial-delay-ms:1000}")
+    private long initialDelayMs;
+
+    @Value("${kafka.consumer.payments.retry-topics.multiplier:10}")
+    private double multiplier;
+
+    @Value("${kafka.consumer.payments.retry-topics.max-delay-ms:60000}")
+    private long maxDelayMs;
+
+    @Value("${kafka.consumer.payments.retry-topics.attempts:4}")
+    private int attempts;
+
+    @Bean
+    public RetryTopicConfiguration paymentEventsRetryTopicConfiguration(KafkaTemplate<String, byte[]> deadLetterKafkaTemplate) {
+        return RetryTopicConfigurationBuilder.newInstance()
+                .includeTopic(paymentsEventsTopic)
+                .maxAttempts(attempts)
+                .exponentialBackoff(initialDelayMs, multiplier, maxDelayMs)
+                .retryTopicSuffix(RETRY_SUFFIX)
+                .dltSuffix(".DLQ")
+                .notRetryOn(JsonProcessingException.class)
+                .traversingCauses()
+                .autoCreateTopicsWith(partitions, (short) 1)
+                .autoStartDltHandler(false)
+                .create(deadLetterKafkaTemplate);
+    }
+
+    /**
+     * Names retry topics after their delay, e.g. {@code payments.events.retry-10s}.
+     */
+    @Bean
+    public RetryTopicComponentFactory retryTopicComponentFactory() {
+        return new RetryTopicComponentFactory() {
+            @Override
+            public RetryTopicNamesProviderFactory retryTopicNamesProviderFactory() {
+                return properties -> new SuffixingRetryTopicNamesProviderFactory.SuffixingRetryTopicNamesProvider(properties) {
+                    @Override
+                    public String getTopicName(String topic) {
+                        return properties.isRetryTopic() ? retryTopicName(topic, properties.delay()) : super.getTopicName(topic);
+                    }
+                };
+            }
+        };
+    }
+
+    static String retryTopicName(String topic, long delayMs) {
+        String delay = delayMs % 1000 == 0 ? delayMs / 1000 + "s" : delayMs + "ms";
+        return topic + RETRY_SUFFIX + "-" + delay;
+    }
+}
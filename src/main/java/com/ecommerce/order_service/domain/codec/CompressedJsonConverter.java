@@ -0,0 +1,28 @@
+package com.ecommerce.order_service.domain.codec;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA converter storing JSON string attributes in binary columns through {@link PayloadCodec}.
+ * Registered as a Spring bean so Hibernate picks up the configured codec.
+ */
+@Component
+@Converter
+@RequiredArgsConstructor
+public class CompressedJsonConverter implements AttributeConverter<String, byte[]> {
+
+    private final PayloadCodec payloadCodec;
+
+    @Override
+    public byte[] convertToDatabaseColumn(String json) {
+        return json == null ? null : payloadCodec.encode(json);
+    }
+
+    @Override
+    public String convertToEntityAttribute(byte[] stored) {
+        return stored == null ? null : payloadCodec.decodeToString(stored);
+    }
+}
@@ -0,0 +1,158 @@
+package com.ecommerce.order_service.domain.codec;
+
+import com.github.luben.zstd.Zstd;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Codec for JSON payloads stored in binary columns.
+ * Layout: one codec header byte, then either the raw JSON bytes (JSON) or the original length as a
+ * 4-byte big-endian int followed by the compressed bytes (LZ4, ZSTD). Payloads smaller than
+ * {@code min-compress-bytes} are always stored raw because compression would not pay off.
+ */
+@Component
+public class PayloadCodec {
+
+    /**
+     * Storage codecs and their header bytes.
+     */
+    public enum Codec {
+        JSON((byte) 0),
+        LZ4((byte) 1),
+        ZSTD((byte) 2);
+
+        private final byte header;
+
+        Codec(byte header) {
+            this.header = header;
+        }
+
+        static Codec fromHeader(byte header) {
+            for (Codec codec : values()) {
+                if (codec.header == header) {
+                    return codec;
+                }
+            }
+            throw new IllegalArgumentException("Unknown payload codec header: " + header);
+        }
+    }
+
+    private static final int LENGTH_PREFIX = 4;
+    private static final LZ4Factory LZ4_FACTORY = LZ4Factory.fastestInstance();
+
+    private final Codec codec;
+    private final int minCompressBytes;
+    private final int zstdLevel;
+
+    public PayloadCodec(@Value("${payload.storage.codec:lz4}") String codec,
+                        @Value("${payload.storage.min-compress-bytes:256}") int minCompressBytes,
+                        @Value("${payload.storage.zstd-level:3}") int zstdLevel) {
+        this.codec = Codec.valueOf(codec.toUpperCase(Locale.ROOT));
+        this.minCompressBytes = minCompressBytes;
+        this.zstdLevel = zstdLevel;
+    }
+
+    /**
+     * Encode JSON bytes with the configured codec.
+     */
+    public byte[] encode(byte[] json) {
+        Codec target = json.length < minCompressBytes ? Codec.JSON : codec;
+        return switch (target) {
+            case JSON -> withHeader(json);
+            case LZ4 -> compressLz4(json);
+            case ZSTD -> compressZstd(json);
+        };
+    }
+
+    /**
+     * Encode a JSON string with the configured codec.
+     */
+    public byte[] encode(String json) {
+        return encode(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a stored payload back to JSON bytes.
+     * Rows written before the binary format (starting with '{' or '[') are returned unchanged.
+     */
+    public byte[] decode(byte[] stored) {
+        if (stored.length == 0) {
+            throw new IllegalArgumentException("Empty payload");
+        }
+        if (stored[0] == '{' || stored[0] == '[') {
+            return stored;
+        }
+
+        return switch (Codec.fromHeader(stored[0])) {
+            case JSON -> Arrays.copyOfRange(stored, 1, stored.length);
+            case LZ4 -> decompressLz4(stored);
+            case ZSTD -> decompressZstd(stored);
+        };
+    }
+
+    /**
+     * Decode a stored payload to a JSON string.
+     */
+    public String decodeToString(byte[] stored) {
+        return new String(decode(stored), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] withHeader(byte[] json) {
+        byte[] out = new byte[json.length + 1];
+        out[0] = Codec.JSON.header;
+        System.arraycopy(json, 0, out, 1, json.length);
+        return out;
+    }
+
+    private static byte[] compressLz4(byte[] json) {
+        LZ4Compressor compressor = LZ4_FACTORY.fastCompressor();
+        int maxLength = compressor.maxCompressedLength(json.length);
+        byte[] out = new byte[1 + LENGTH_PREFIX + maxLength];
+        writeHeader(out, Codec.LZ4, json.length);
+        int compressed = compressor.compress(json, 0, json.length, out, 1 + LENGTH_PREFIX, maxLength);
+        return Arrays.copyOf(out, 1 + LENGTH_PREFIX + compressed);
+    }
+
+    private static byte[] decompressLz4(byte[] stored) {
+        byte[] out = new byte[originalLength(stored)];
+        LZ4_FACTORY.fastDecompressor().decompress(stored, 1 + LENGTH_PREFIX, out, 0, out.length);
+        return out;
+    }
+
+    private byte[] compressZstd(byte[] json) {
+        int maxLength = (int) Zstd.compressBound(json.length);
+        byte[] out = new byte[1 + LENGTH_PREFIX + maxLength];
+        writeHeader(out, Codec.ZSTD, json.length);
+        long compressed = Zstd.compressByteArray(out, 1 + LENGTH_PREFIX, maxLength, json, 0, json.length, zstdLevel);
+        if (Zstd.isError(compressed)) {
+            throw new IllegalStateException("zstd compression failed: " + Zstd.getErrorName(compressed));
+        }
+        return Arrays.copyOf(out, 1 + LENGTH_PREFIX + (int) compressed);
+    }
+
+    private static byte[] decompressZstd(byte[] stored) {
+        byte[] out = new byte[originalLength(stored)];
+        long size = Zstd.decompressByteArray(out, 0, out.length,
+                stored, 1 + LENGTH_PREFIX, stored.length - 1 - LENGTH_PREFIX);
+        if (Zstd.isError(size)) {
+            throw new IllegalStateException("zstd decompression failed: " + Zstd.getErrorName(size));
+        }
+        return out;
+    }
+
+    private static void writeHeader(byte[] out, Codec codec, int originalLength) {
+        out[0] = codec.header;
+        ByteBuffer.wrap(out, 1, LENGTH_PREFIX).putInt(originalLength);
+    }
+
+    private static int originalLength(byte[] stored) {
+        return ByteBuffer.wrap(stored, 1, LENGTH_PREFIX).getInt();
+    }
+}
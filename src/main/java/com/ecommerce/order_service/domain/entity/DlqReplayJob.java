@@ -0,0 +1,97 @@
+package com.ecommerce.order_service.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * DlqReplayJob entity holding the filters, progress and checkpoint of a DLQ replay.
+ * {@code positions} is the next offset to replay per partition; a resumed job continues from there.
+ * {@code endOffsets} bounds the replay to the records present when it started, so records dead-lettered
+ * again during the replay are not picked up by the same job.
+ * {@code ownerId} and {@code leaseUntil} name the instance running the job and how long its claim holds.
+ */
+@Entity
+@Table(name = "dlq_replay_jobs")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DlqReplayJob {
+
+    @Id
+    @Column(name = "job_id", length = 36)
+    private String jobId;
+
+    @Column(name = "topic", nullable = false)
+    private String topic;
+
+    @Column(name = "event_type", length = 100)
+    private String eventType;
+
+    @Column(name = "from_time", columnDefinition = "TIMESTAMP(3)")
+    private LocalDateTime fromTime;
+
+    @Column(name = "to_time", columnDefinition = "TIMESTAMP(3)")
+    private LocalDateTime toTime;
+
+    @Column(name = "rate_per_second", nullable = false)
+    private int ratePerSecond;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private DlqReplayStatus status;
+
+    // Claimed and renewed only through DlqReplayJobRepository, so saving the job never overwrites the lease
+    @Column(name = "owner_id", length = 100, insertable = false, updatable = false)
+    private String ownerId;
+
+    @Column(name = "lease_until", columnDefinition = "TIMESTAMP(3)", insertable = false, updatable = false)
+    private LocalDateTime leaseUntil;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "positions")
+    private Map<Integer, Long> positions;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "end_offsets")
+    private Map<Integer, Long> endOffsets;
+
+    @Column(name = "total_records", nullable = false)
+    private long totalRecords;
+
+    @Column(name = "scanned_records", nullable = false)
+    private long scannedRecords;
+
+    @Column(name = "replayed_records", nullable = false)
+    private long replayedRecords;
+
+    @Column(name = "skipped_records", nullable = false)
+    private long skippedRecords;
+
+    @Column(name = "failed_records", nullable = false)
+    private long failedRecords;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,12 @@
+package com.ecommerce.order_service.domain.entity;
+
+/**
+ * Lifecycle of a DLQ replay job.
+ */
+public enum DlqReplayStatus {
+    PENDING,
+    RUNNING,
+    PAUSED,
+    COMPLETED,
+    FAILED
+}
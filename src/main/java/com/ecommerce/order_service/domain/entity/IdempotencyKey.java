@@ -1,11 +1,13 @@
 package com.ecommerce.order_service.domain.entity;
 
+import com.ecommerce.order_service.domain.codec.CompressedJsonConverter;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
+import org.springframework.data.domain.Persistable;
 
 import java.time.LocalDateTime;
 
@@ -18,13 +20,14 @@ import java.time.LocalDateTime;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class IdempotencyKey {
+public class IdempotencyKey implements Persistable<String> {
 
     @Id
     @Column(name = "idempotency_key")
     private String idempotencyKey;
 
-    @Column(name = "response_payload", columnDefinition = "JSON")
+    @Convert(converter = CompressedJsonConverter.class)
+    @Column(name = "response_payload", columnDefinition = "MEDIUMBLOB")
     private String responsePayload;
 
     @CreationTimestamp
@@ -33,5 +36,20 @@ public class IdempotencyKey {
 
     @Column(name = "expires_at", nullable = false)
     private LocalDateTime expiresAt;
-}
 
+    // Ids are assigned by the application, so new instances are persisted without a SELECT before the INSERT
+    @Transient
+    @Builder.Default
+    private boolean isNew = true;
+
+    @Override
+    public String getId() {
+        return idempotencyKey;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        isNew = false;
+    }
+}
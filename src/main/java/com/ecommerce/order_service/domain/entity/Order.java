@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -24,8 +25,10 @@ import java.util.List;
 @AllArgsConstructor
 public class Order {
 
+    // Pooled sequence-table ids (allocated 50 at a time) keep Hibernate JDBC insert batching enabled
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "order_id", unique = true, nullable = false, length = 20)
@@ -59,7 +62,9 @@ public class Order {
     @Column(name = "version", nullable = false)
     private Long version;
 
+    // Lazy lines touched on several loaded orders are initialized together, up to a full history page at once
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    @BatchSize(size = 100)
     @Builder.Default
     private List<OrderLine> orderLines = new ArrayList<>();
 
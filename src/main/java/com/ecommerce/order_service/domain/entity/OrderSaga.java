@@ -1,5 +1,6 @@
 package com.ecommerce.order_service.domain.entity;
 
+import com.ecommerce.order_service.domain.codec.CompressedJsonConverter;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -7,6 +8,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
+import org.springframework.data.domain.Persistable;
 
 import java.time.LocalDateTime;
 
@@ -19,7 +21,7 @@ import java.time.LocalDateTime;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class OrderSaga {
+public class OrderSaga implements Persistable<String> {
 
     @Id
     @Column(name = "saga_id", length = 36)
@@ -32,7 +34,8 @@ public class OrderSaga {
     @Column(name = "state", nullable = false, length = 50)
     private SagaState state;
 
-    @Column(name = "payload", nullable = false, columnDefinition = "JSON")
+    @Convert(converter = CompressedJsonConverter.class)
+    @Column(name = "payload", nullable = false, columnDefinition = "MEDIUMBLOB")
     private String payload;
 
     @UpdateTimestamp
@@ -42,4 +45,20 @@ public class OrderSaga {
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
+
+    // Ids are assigned by the application, so new instances are persisted without a SELECT before the INSERT
+    @Transient
+    @Builder.Default
+    private boolean isNew = true;
+
+    @Override
+    public String getId() {
+        return sagaId;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        isNew = false;
+    }
 }
@@ -12,6 +12,7 @@ import java.time.LocalDateTime;
 /**
  * OutboxEvent entity for implementing the transactional outbox pattern.
  * Ensures atomicity between database changes and event publishing.
+ * Rows are pending by definition: once published they move to outbox_events_history.
  */
 @Entity
 @Table(name = "outbox_events")
@@ -21,8 +22,10 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class OutboxEvent {
 
+    // Pooled sequence-table ids (allocated 50 at a time) keep Hibernate JDBC insert batching enabled
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_events_seq")
+    @SequenceGenerator(name = "outbox_events_seq", sequenceName = "outbox_events_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "aggregate_type", nullable = false, length = 100)
@@ -31,21 +34,18 @@ public class OutboxEvent {
     @Column(name = "aggregate_id", nullable = false, length = 36)
     private String aggregateId;
 
+    @Column(name = "shard_bucket", nullable = false)
+    private Integer shardBucket;
+
     @Column(name = "event_type", nullable = false, length = 100)
     private String eventType;
 
-    @Column(name = "payload", nullable = false, columnDefinition = "JSON")
-    private String payload;
-
-    @Column(name = "published", nullable = false)
-    @Builder.Default
-    private Boolean published = false;
+    // JSON encoded by PayloadCodec (codec header byte + optionally compressed bytes)
+    @Column(name = "payload", nullable = false, columnDefinition = "MEDIUMBLOB")
+    private byte[] payload;
 
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
-
-    @Column(name = "published_at")
-    private LocalDateTime publishedAt;
 }
 
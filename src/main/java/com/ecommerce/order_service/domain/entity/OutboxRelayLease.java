@@ -0,0 +1,31 @@
+package com.ecommerce.order_service.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * OutboxRelayLease entity recording which relay node currently publishes an outbox hash bucket.
+ */
+@Entity
+@Table(name = "outbox_relay_leases")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxRelayLease {
+
+    @Id
+    @Column(name = "bucket")
+    private Integer bucket;
+
+    @Column(name = "owner_id", length = 100)
+    private String ownerId;
+
+    @Column(name = "lease_until", columnDefinition = "TIMESTAMP(3)")
+    private LocalDateTime leaseUntil;
+}
@@ -0,0 +1,28 @@
+package com.ecommerce.order_service.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * OutboxRelayNode entity holding the last heartbeat of a relay node taking part in bucket sharding.
+ */
+@Entity
+@Table(name = "outbox_relay_nodes")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxRelayNode {
+
+    @Id
+    @Column(name = "node_id", length = 100)
+    private String nodeId;
+
+    @Column(name = "heartbeat_at", nullable = false, columnDefinition = "TIMESTAMP(3)")
+    private LocalDateTime heartbeatAt;
+}
@@ -0,0 +1,30 @@
+package com.ecommerce.order_service.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * ProcessedMessage entity recording a consumed message that has been applied (consumer inbox).
+ */
+@Entity
+@Table(name = "processed_messages", indexes = {
+        @Index(name = "idx_processed_at", columnList = "processed_at")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProcessedMessage {
+
+    @Id
+    @Column(name = "message_id", length = 191)
+    private String messageId;
+
+    @Column(name = "processed_at", nullable = false, columnDefinition = "TIMESTAMP(3)")
+    private LocalDateTime processedAt;
+}
@@ -0,0 +1,66 @@
+package com.ecommerce.order_service.domain.repository;
+
+import com.ecommerce.order_service.domain.entity.DlqReplayJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Repository for DLQ replay jobs.
+ * Lease times are computed from the database clock so that instances with skewed clocks agree.
+ */
+@Repository
+public interface DlqReplayJobRepository extends JpaRepository<DlqReplayJob, String> {
+
+    /**
+     * Find all jobs, most recent first.
+     */
+    List<DlqReplayJob> findAllByOrderByCreatedAtDesc();
+
+    /**
+     * Mark a job RUNNING on behalf of an instance, if it is not complete and no other instance holds a live lease.
+     *
+     * @return 1 if the job was claimed, 0 otherwise
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE dlq_replay_jobs SET status = 'RUNNING', owner_id = :ownerId, completed_at = NULL, " +
+            "lease_until = DATE_ADD(NOW(3), INTERVAL :ttlMs * 1000 MICROSECOND) " +
+            "WHERE job_id = :jobId AND (status IN ('PENDING', 'PAUSED', 'FAILED') " +
+            "OR (status = 'RUNNING' AND (lease_until IS NULL OR lease_until < NOW(3))))", nativeQuery = true)
+    int claim(@Param("jobId") String jobId, @Param("ownerId") String ownerId, @Param("ttlMs") long ttlMs);
+
+    /**
+     * Extend the lease of a running job held by an instance.
+     *
+     * @return 0 if the instance no longer holds the job
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE dlq_replay_jobs SET lease_until = DATE_ADD(NOW(3), INTERVAL :ttlMs * 1000 MICROSECOND) " +
+            "WHERE job_id = :jobId AND owner_id = :ownerId AND status = 'RUNNING'", nativeQuery = true)
+    int renewLease(@Param("jobId") String jobId, @Param("ownerId") String ownerId, @Param("ttlMs") long ttlMs);
+
+    /**
+     * Write the progress and status of a job, if the instance still holds it and it is still RUNNING.
+     * A stalled instance that lost its lease cannot overwrite the new owner's checkpoint or finish the job.
+     * {@code positions} and {@code endOffsets} are the JSON forms of the job's maps.
+     *
+     * @return 0 if the instance no longer holds the job
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE dlq_replay_jobs SET status = :#{#job.status.name()}, positions = :positions, " +
+            "end_offsets = :endOffsets, total_records = :#{#job.totalRecords}, " +
+            "scanned_records = :#{#job.scannedRecords}, replayed_records = :#{#job.replayedRecords}, " +
+            "skipped_records = :#{#job.skippedRecords}, failed_records = :#{#job.failedRecords}, " +
+            "last_error = :#{#job.lastError}, completed_at = :#{#job.completedAt} " +
+            "WHERE job_id = :#{#job.jobId} AND owner_id = :ownerId AND status = 'RUNNING'", nativeQuery = true)
+    int saveCheckpoint(@Param("job") DlqReplayJob job, @Param("ownerId") String ownerId,
+                       @Param("positions") String positions, @Param("endOffsets") String endOffsets);
+}
@@ -0,0 +1,66 @@
+package com.ecommerce.order_service.domain.repository;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Order fields a client can select with {@code fields=}, with the JPQL path each is read from.
+ * {@link #ITEMS} has no column; it is loaded with a separate order line query.
+ */
+public enum OrderField {
+
+    ORDER_ID("orderId", "o.orderId"),
+    USER_ID("userId", "o.userId"),
+    STATUS("status", "o.status"),
+    TOTAL_AMOUNT("totalAmount", "o.totalAmount"),
+    PAYMENT_ID("paymentId", "o.paymentId"),
+    SHIPPING_ADDRESS("shippingAddress", "o.shippingAddress"),
+    CREATED_AT("createdAt", "o.createdAt"),
+    UPDATED_AT("updatedAt", "o.updatedAt"),
+    ITEMS("items", null);
+
+    private final String fieldName;
+    private final String path;
+
+    OrderField(String fieldName, String path) {
+        this.fieldName = fieldName;
+        this.path = path;
+    }
+
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Parse a comma-separated list of field names, e.g. {@code orderId,status,totalAmount}.
+     *
+     * @throws IllegalArgumentException if a name is not a known field or the list is empty
+     */
+    public static Set<OrderField> parse(String fields) {
+        Set<OrderField> selected = EnumSet.noneOf(OrderField.class);
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            selected.add(fromName(trimmed));
+        }
+        if (selected.isEmpty()) {
+            throw new IllegalArgumentException("No fields selected");
+        }
+        return selected;
+    }
+
+    private static OrderField fromName(String name) {
+        for (OrderField field : values()) {
+            if (field.fieldName.equals(name)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Unknown field: " + name);
+    }
+}
@@ -0,0 +1,120 @@
+package com.ecommerce.order_service.domain.repository;
+
+import com.ecommerce.order_service.api.dto.OrderItemResponse;
+import com.ecommerce.order_service.api.dto.OrderProjectionResponse;
+import com.ecommerce.order_service.domain.entity.OrderStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Read-only order queries that select columns straight into response DTOs.
+ * Only the requested fields are selected, and no entities are loaded into the persistence context,
+ * so there is no hydration, dirty checking or snapshot cost, and the shipping address TEXT column is
+ * only read when asked for.
+ */
+@Repository
+public class OrderProjectionRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * An order row with its keyset position, which is selected whether or not the fields include it.
+     */
+    public record ProjectedOrder(long id, LocalDateTime createdAt, OrderProjectionResponse order) {
+    }
+
+    /**
+     * Page of a user's order history, newest first, after the given {@code (createdAt, id)} position if any.
+     */
+    public List<ProjectedOrder> findHistoryPage(String userId, LocalDateTime afterCreatedAt, Long afterId,
+                                                Set<OrderField> fields, int limit) {
+        StringBuilder jpql = new StringBuilder("SELECT o.id AS id, o.createdAt AS keysetCreatedAt");
+        for (OrderField field : fields) {
+            if (field.getPath() != null) {
+                jpql.append(", ").append(field.getPath()).append(" AS ").append(field.getFieldName());
+            }
+        }
+        jpql.append(" FROM Order o WHERE o.userId = :userId");
+        if (afterId != null) {
+            jpql.append(" AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id))");
+        }
+        jpql.append(" ORDER BY o.createdAt DESC, o.id DESC");
+
+        TypedQuery<Tuple> query = entityManager.createQuery(jpql.toString(), Tuple.class)
+                .setParameter("userId", userId)
+                .setMaxResults(limit);
+        if (afterId != null) {
+            query.setParameter("createdAt", afterCreatedAt).setParameter("id", afterId);
+        }
+
+        List<ProjectedOrder> orders = new ArrayList<>();
+        for (Tuple row : query.getResultList()) {
+            OrderProjectionResponse order = new OrderProjectionResponse();
+            for (OrderField field : fields) {
+                if (field.getPath() != null) {
+                    set(order, field, row.get(field.getFieldName()));
+                }
+            }
+            orders.add(new ProjectedOrder(row.get("id", Long.class), row.get("keysetCreatedAt", LocalDateTime.class),
+                    order));
+        }
+        return orders;
+    }
+
+    /**
+     * Order lines of the given orders, keyed by order id, in line id order.
+     */
+    public Map<Long, List<OrderItemResponse>> findItems(Collection<Long> orderIds) {
+        Map<Long, List<OrderItemResponse>> items = new HashMap<>();
+        if (orderIds.isEmpty()) {
+            return items;
+        }
+        List<Tuple> rows = entityManager.createQuery(
+                        "SELECT o.id AS orderId, l.id AS id, l.productId AS productId, l.productName AS productName, "
+                                + "l.quantity AS quantity, l.unitPrice AS unitPrice "
+                                + "FROM OrderLine l JOIN l.order o WHERE o.id IN :orderIds ORDER BY l.id", Tuple.class)
+                .setParameter("orderIds", orderIds)
+                .getResultList();
+        for (Tuple row : rows) {
+            BigDecimal unitPrice = row.get("unitPrice", BigDecimal.class);
+            Integer quantity = row.get("quantity", Integer.class);
+            items.computeIfAbsent(row.get("orderId", Long.class), id -> new ArrayList<>())
+                    .add(OrderItemResponse.builder()
+                            .id(row.get("id", Long.class))
+                            .productId(row.get("productId", String.class))
+                            .productName(row.get("productName", String.class))
+                            .quantity(quantity)
+                            .unitPrice(unitPrice)
+                            .totalPrice(unitPrice.multiply(BigDecimal.valueOf(quantity)))
+                            .build());
+        }
+        return items;
+    }
+
+    private static void set(OrderProjectionResponse order, OrderField field, Object value) {
+        switch (field) {
+            case ORDER_ID -> order.setOrderId((String) value);
+            case USER_ID -> order.setUserId((String) value);
+            case STATUS -> order.setStatus((OrderStatus) value);
+            case TOTAL_AMOUNT -> order.setTotalAmount((BigDecimal) value);
+            case PAYMENT_ID -> order.setPaymentId((String) value);
+            case SHIPPING_ADDRESS -> order.setShippingAddress((String) value);
+            case CREATED_AT -> order.setCreatedAt((LocalDateTime) value);
+            case UPDATED_AT -> order.setUpdatedAt((LocalDateTime) value);
+            case ITEMS -> throw new IllegalArgumentException("Items are not a column");
+        }
+    }
+}
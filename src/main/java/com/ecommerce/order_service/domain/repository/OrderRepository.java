@@ -2,10 +2,18 @@ package com.ecommerce.order_service.domain.repository;
 
 import com.ecommerce.order_service.domain.entity.Order;
 import com.ecommerce.order_service.domain.entity.OrderStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,11 +28,58 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
      */
     Optional<Order> findByOrderId(String orderId);
 
+    /**
+     * Find order by business order ID together with its order lines, in one query.
+     */
+    @EntityGraph(attributePaths = "orderLines")
+    Optional<Order> findWithLinesByOrderId(String orderId);
+
+    /**
+     * Current version of an order, without loading the entity.
+     */
+    @Query("SELECT o.version FROM Order o WHERE o.orderId = :orderId")
+    Optional<Long> findVersionByOrderId(@Param("orderId") String orderId);
+
+    /**
+     * Which of the given order IDs are already taken, in one query.
+     */
+    @Query("SELECT o.orderId FROM Order o WHERE o.orderId IN :orderIds")
+    List<String> findExistingOrderIds(@Param("orderIds") Collection<String> orderIds);
+
+    /**
+     * Current status of an order, without loading the entity.
+     */
+    @Query("SELECT o.status FROM Order o WHERE o.orderId = :orderId")
+    Optional<OrderStatus> findStatusByOrderId(@Param("orderId") String orderId);
+
+    /**
+     * Initialize the order lines of already loaded orders with a single join-fetch query.
+     * Used after a paginated query, which cannot join-fetch a collection without paginating in memory.
+     */
+    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.orderLines WHERE o.id IN :ids")
+    List<Order> fetchOrderLines(@Param("ids") Collection<Long> ids);
+
     /**
      * Find all orders for a specific user.
      */
     List<Order> findByUserIdOrderByCreatedAtDesc(String userId);
 
+    /**
+     * First page of a user's order history, newest first.
+     */
+    @Query("SELECT o FROM Order o WHERE o.userId = :userId ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findHistoryPage(@Param("userId") String userId, Limit limit);
+
+    /**
+     * Page of a user's order history after the given {@code (createdAt, id)} position, newest first.
+     * Served by idx_orders_user_created_id as a range scan that starts at the position.
+     */
+    @Query("SELECT o FROM Order o WHERE o.userId = :userId " +
+            "AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id)) " +
+            "ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findHistoryPageAfter(@Param("userId") String userId, @Param("createdAt") LocalDateTime createdAt,
+                                     @Param("id") Long id, Limit limit);
+
     /**
      * Find orders by status.
      */
@@ -44,4 +99,33 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
      * Find orders created after a specific date.
      */
     List<Order> findByCreatedAtAfter(LocalDateTime date);
+
+    /**
+     * Load and lock orders by business order ID, in key order so concurrent batches cannot deadlock.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.orderId IN :orderIds ORDER BY o.orderId")
+    List<Order> lockByOrderIds(@Param("orderIds") Collection<String> orderIds);
+
+    /**
+     * Compare-and-set the order status: move to {@code to} only if the order is in one of the {@code from} statuses.
+     * The version is bumped so that concurrent entity updates fail their optimistic lock check.
+     *
+     * @return 1 if the transition was applied, 0 if the order is missing or in another status
+     */
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :to, o.version = o.version + 1, o.updatedAt = :now " +
+            "WHERE o.orderId = :orderId AND o.status IN :from")
+    int transitionStatus(@Param("orderId") String orderId, @Param("from") Collection<OrderStatus> from,
+                         @Param("to") OrderStatus to, @Param("now") LocalDateTime now);
+
+    /**
+     * Compare-and-set variant of {@link #transitionStatus} that also records the payment id.
+     */
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :to, o.paymentId = :paymentId, o.version = o.version + 1, " +
+            "o.updatedAt = :now WHERE o.orderId = :orderId AND o.status IN :from")
+    int transitionStatusWithPayment(@Param("orderId") String orderId, @Param("from") Collection<OrderStatus> from,
+                                    @Param("to") OrderStatus to, @Param("paymentId") String paymentId,
+                                    @Param("now") LocalDateTime now);
 }
@@ -3,9 +3,13 @@ package com.ecommerce.order_service.domain.repository;
 import com.ecommerce.order_service.domain.entity.OrderSaga;
 import com.ecommerce.order_service.domain.entity.SagaState;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -29,5 +33,35 @@ public interface OrderSagaRepository extends JpaRepository<OrderSaga, String> {
      * Find stuck sagas (not updated for a while).
      */
     List<OrderSaga> findByStateNotInAndLastUpdatedBefore(List<SagaState> excludedStates, LocalDateTime before);
+
+    /**
+     * Compare-and-set the saga state: move to {@code to} only if the saga is in one of the {@code from} states.
+     *
+     * @return 1 if the transition was applied, 0 if the saga is missing or has already moved on
+     */
+    @Modifying
+    @Query("UPDATE OrderSaga s SET s.state = :to, s.lastUpdated = :now " +
+            "WHERE s.sagaId = :sagaId AND s.state IN :from")
+    int transitionState(@Param("sagaId") String sagaId, @Param("from") Collection<SagaState> from,
+                        @Param("to") SagaState to, @Param("now") LocalDateTime now);
+
+    /**
+     * Bulk variant of {@link #transitionState} for many sagas moving to the same state.
+     *
+     * @return number of sagas moved
+     */
+    @Modifying
+    @Query("UPDATE OrderSaga s SET s.state = :to, s.lastUpdated = :now " +
+            "WHERE s.sagaId IN :sagaIds AND s.state IN :from")
+    int transitionStates(@Param("sagaIds") Collection<String> sagaIds, @Param("from") Collection<SagaState> from,
+                         @Param("to") SagaState to, @Param("now") LocalDateTime now);
+
+    /**
+     * Lock the given sagas that are in {@code state} and return their ids.
+     * Rows are locked in key order so concurrent batches cannot deadlock on each other.
+     */
+    @Query(value = "SELECT saga_id FROM order_saga WHERE saga_id IN (:sagaIds) AND state = :state " +
+            "ORDER BY saga_id FOR UPDATE", nativeQuery = true)
+    List<String> lockInState(@Param("sagaIds") Collection<String> sagaIds, @Param("state") String state);
 }
 
@@ -2,30 +2,77 @@ package com.ecommerce.order_service.domain.repository;
 
 import com.ecommerce.order_service.domain.entity.OutboxEvent;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
  * Repository interface for OutboxEvent entity operations.
+ * The outbox_events table only holds pending events; published events are moved to the
+ * day-partitioned outbox_events_history table.
  */
 @Repository
 public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
 
     /**
-     * Find all unpublished events ordered by creation time.
+     * Find all pending events ordered by creation time.
      */
-    List<OutboxEvent> findByPublishedFalseOrderByCreatedAtAsc();
+    List<OutboxEvent> findAllByOrderByCreatedAtAsc();
 
     /**
-     * Find unpublished events for a specific aggregate.
+     * Claim a bounded batch of pending events in id order.
+     * Rows already locked by another relay are skipped, so concurrent relays never claim the same event.
+     * Must run inside a transaction; the row locks are held until it ends.
      */
-    List<OutboxEvent> findByAggregateIdAndPublishedFalse(String aggregateId);
+    @Query(value = "SELECT * FROM outbox_events ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<OutboxEvent> claimUnpublishedBatch(@Param("limit") int limit);
 
     /**
-     * Find events created before a specific time (for cleanup).
+     * Claim a bounded batch of pending events from the given hash buckets in id order.
+     * Used by the sharded relay: buckets are leased exclusively, so the claim waits for a previous
+     * owner's in-flight batch instead of skipping it, which keeps per-aggregate ordering across takeovers.
      */
-    List<OutboxEvent> findByPublishedTrueAndCreatedAtBefore(LocalDateTime before);
-}
+    @Query(value = "SELECT * FROM outbox_events WHERE shard_bucket IN (:buckets) " +
+            "ORDER BY id LIMIT :limit FOR UPDATE", nativeQuery = true)
+    List<OutboxEvent> claimUnpublishedBatchInBuckets(@Param("buckets") Collection<Integer> buckets,
+                                                     @Param("limit") int limit);
+
+    /**
+     * Copy a batch of published events into the history table with a single INSERT ... SELECT.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO outbox_events_history " +
+            "(id, aggregate_type, aggregate_id, event_type, payload, created_at, published_at) " +
+            "SELECT id, aggregate_type, aggregate_id, event_type, payload, created_at, :publishedAt " +
+            "FROM outbox_events WHERE id IN (:ids)", nativeQuery = true)
+    int copyToHistory(@Param("ids") Collection<Long> ids, @Param("publishedAt") LocalDateTime publishedAt);
+
+    /**
+     * Copy events that can never be published into the parking table, together with the reason.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO outbox_events_failed " +
+            "(id, aggregate_type, aggregate_id, shard_bucket, event_type, payload, created_at, failed_at, error) " +
+            "SELECT id, aggregate_type, aggregate_id, shard_bucket, event_type, payload, created_at, :failedAt, :error " +
+            "FROM outbox_events WHERE id IN (:ids)", nativeQuery = true)
+    int copyToFailed(@Param("ids") Collection<Long> ids, @Param("failedAt") LocalDateTime failedAt,
+                     @Param("error") String error);
 
+    /**
+     * Remove a batch of events from the pending table with a single bulk delete.
+     */
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Find pending events for a specific aggregate.
+     */
+    List<OutboxEvent> findByAggregateId(String aggregateId);
+}
@@ -0,0 +1,63 @@
+package com.ecommerce.order_service.domain.repository;
+
+import com.ecommerce.order_service.domain.entity.OutboxRelayLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository for outbox bucket leases.
+ * All lease times are computed from the database clock so that nodes with skewed clocks agree.
+ */
+@Repository
+public interface OutboxRelayLeaseRepository extends JpaRepository<OutboxRelayLease, Integer> {
+
+    /**
+     * Create the lease row for a bucket if it does not exist yet.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT IGNORE INTO outbox_relay_leases (bucket) VALUES (:bucket)", nativeQuery = true)
+    int insertIfAbsent(@Param("bucket") int bucket);
+
+    /**
+     * Extend the leases held by a node.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE outbox_relay_leases SET lease_until = DATE_ADD(NOW(3), INTERVAL :ttlMs * 1000 MICROSECOND) " +
+            "WHERE owner_id = :ownerId", nativeQuery = true)
+    int renewLeases(@Param("ownerId") String ownerId, @Param("ttlMs") long ttlMs);
+
+    /**
+     * Take over up to {@code limit} buckets that are unowned or whose lease has expired.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE outbox_relay_leases SET owner_id = :ownerId, " +
+            "lease_until = DATE_ADD(NOW(3), INTERVAL :ttlMs * 1000 MICROSECOND) " +
+            "WHERE owner_id IS NULL OR lease_until < NOW(3) ORDER BY bucket LIMIT :limit", nativeQuery = true)
+    int acquireFreeLeases(@Param("ownerId") String ownerId, @Param("ttlMs") long ttlMs, @Param("limit") int limit);
+
+    /**
+     * Give buckets back so that other nodes can take them over.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE outbox_relay_leases SET owner_id = NULL, lease_until = NULL " +
+            "WHERE owner_id = :ownerId AND bucket IN (:buckets)", nativeQuery = true)
+    int releaseLeases(@Param("ownerId") String ownerId, @Param("buckets") Collection<Integer> buckets);
+
+    /**
+     * Find the buckets currently leased by a node.
+     */
+    @Query(value = "SELECT bucket FROM outbox_relay_leases WHERE owner_id = :ownerId AND lease_until > NOW(3) " +
+            "ORDER BY bucket", nativeQuery = true)
+    List<Integer> findLeasedBuckets(@Param("ownerId") String ownerId);
+}
@@ -0,0 +1,41 @@
+package com.ecommerce.order_service.domain.repository;
+
+import com.ecommerce.order_service.domain.entity.OutboxRelayNode;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Repository for relay node heartbeats.
+ */
+@Repository
+public interface OutboxRelayNodeRepository extends JpaRepository<OutboxRelayNode, String> {
+
+    /**
+     * Record a heartbeat for a node, registering it on first call.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO outbox_relay_nodes (node_id, heartbeat_at) VALUES (:nodeId, NOW(3)) " +
+            "ON DUPLICATE KEY UPDATE heartbeat_at = NOW(3)", nativeQuery = true)
+    int heartbeat(@Param("nodeId") String nodeId);
+
+    /**
+     * Count nodes whose last heartbeat is within the lease time-to-live.
+     */
+    @Query(value = "SELECT COUNT(*) FROM outbox_relay_nodes " +
+            "WHERE heartbeat_at >= DATE_SUB(NOW(3), INTERVAL :ttlMs * 1000 MICROSECOND)", nativeQuery = true)
+    long countLiveNodes(@Param("ttlMs") long ttlMs);
+
+    /**
+     * Forget nodes that stopped sending heartbeats long ago.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM outbox_relay_nodes " +
+            "WHERE heartbeat_at < DATE_SUB(NOW(3), INTERVAL :retentionMs * 1000 MICROSECOND)", nativeQuery = true)
+    int deleteDeadNodes(@Param("retentionMs") long retentionMs);
+}
@@ -0,0 +1,48 @@
+package com.ecommerce.order_service.domain.repository;
+
+import com.ecommerce.order_service.domain.entity.ProcessedMessage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Repository for the consumer inbox.
+ * Entry ages are computed from the database clock, which also stamps {@code processed_at}.
+ */
+@Repository
+public interface ProcessedMessageRepository extends JpaRepository<ProcessedMessage, String> {
+
+    /**
+     * Record a message as processed, joining the caller's transaction.
+     * A concurrent transaction inserting the same id blocks on the primary key until this one ends.
+     *
+     * @return 1 if the message was recorded, 0 if it had already been processed
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT IGNORE INTO processed_messages (message_id, processed_at) VALUES (:messageId, NOW(3))",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("messageId") String messageId);
+
+    /**
+     * Ids of messages processed within the last {@code windowMs}, most recent first.
+     */
+    @Query(value = "SELECT message_id FROM processed_messages " +
+            "WHERE processed_at >= DATE_SUB(NOW(3), INTERVAL :windowMs * 1000 MICROSECOND) " +
+            "ORDER BY processed_at DESC LIMIT :limit", nativeQuery = true)
+    List<String> findRecentMessageIds(@Param("windowMs") long windowMs, @Param("limit") int limit);
+
+    /**
+     * Delete up to {@code limit} entries older than the retention period.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM processed_messages WHERE processed_at < DATE_SUB(NOW(3), INTERVAL :retentionDays DAY) " +
+            "LIMIT :limit", nativeQuery = true)
+    int deleteOlderThan(@Param("retentionDays") int retentionDays, @Param("limit") int limit);
+}
@@ -0,0 +1,119 @@
+package com.ecommerce.order_service.inbox;
+
+import com.ecommerce.order_service.domain.repository.ProcessedMessageRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Consumer inbox guarding against applying a redelivered message twice.
+ * {@link #markProcessed} records the message id in the transaction that applies the message, so the
+ * id is committed exactly when the message's effects are. A rotating Bloom filter of recently
+ * processed ids sits in front of the table: {@link #isDuplicate} answers most first-seen messages
+ * without a query and only looks up ids the filter may have seen.
+ * The filter is an optimization only; the inbox row is what rejects a duplicate that gets past it.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InboxService {
+
+    private final ProcessedMessageRepository processedMessageRepository;
+
+    @Value("${inbox.bloom.expected-insertions:1000000}")
+    private int expectedInsertions;
+
+    @Value("${inbox.bloom.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${inbox.bloom.rotation-interval-ms:3600000}")
+    private long rotationIntervalMs;
+
+    @Value("${inbox.retention-days:7}")
+    private int retentionDays;
+
+    @Value("${inbox.cleanup-batch-size:10000}")
+    private int cleanupBatchSize;
+
+    private RotatingBloomFilter recentlyProcessed;
+
+    /**
+     * Size the filter and seed it with the ids processed during the last rotation interval,
+     * so redeliveries right after a restart are still caught before a saga transaction is opened.
+     */
+    @PostConstruct
+    void init() {
+        recentlyProcessed = new RotatingBloomFilter(expectedInsertions, falsePositiveRate);
+        try {
+            var recentIds = processedMessageRepository.findRecentMessageIds(rotationIntervalMs, expectedInsertions);
+            recentIds.forEach(recentlyProcessed::put);
+            log.info("Seeded inbox Bloom filter with {} recently processed message ids", recentIds.size());
+        } catch (Exception e) {
+            log.warn("Could not seed inbox Bloom filter; duplicates will be caught by the inbox table", e);
+        }
+    }
+
+    /**
+     * Whether a message has already been processed.
+     * Ids the filter has definitely not seen are answered without touching the database.
+     */
+    public boolean isDuplicate(String messageId) {
+        if (!recentlyProcessed.mightContain(messageId)) {
+            return false;
+        }
+        return processedMessageRepository.existsById(messageId);
+    }
+
+    /**
+     * Record a message as processed in the caller's transaction.
+     * The id is added to the filter once that transaction commits.
+     *
+     * @return true if the message is new, false if it was already processed and must be skipped
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean markProcessed(String messageId) {
+        if (processedMessageRepository.insertIfAbsent(messageId) == 0) {
+            recentlyProcessed.put(messageId);
+            return false;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recentlyProcessed.put(messageId);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Start a new filter generation; ids older than two rotation intervals are forgotten by the filter.
+     */
+    @Scheduled(fixedDelayString = "${inbox.bloom.rotation-interval-ms:3600000}",
+            initialDelayString = "${inbox.bloom.rotation-interval-ms:3600000}")
+    public void rotateFilter() {
+        recentlyProcessed.rotate();
+        log.debug("Rotated inbox Bloom filter");
+    }
+
+    /**
+     * Delete inbox entries past the retention period daily, in chunks to keep transactions short.
+     * Retention must exceed the longest time a message can be redelivered after it was processed.
+     */
+    @Scheduled(cron = "0 30 2 * * ?") // Run at 2:30 AM daily
+    public void cleanupProcessedMessages() {
+        int deleted = 0;
+        int batch;
+        do {
+            batch = processedMessageRepository.deleteOlderThan(retentionDays, cleanupBatchSize);
+            deleted += batch;
+        } while (batch == cleanupBatchSize);
+        log.info("Deleted {} inbox entries older than {} days", deleted, retentionDays);
+    }
+}
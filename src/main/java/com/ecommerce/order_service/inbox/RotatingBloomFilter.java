@@ -0,0 +1,110 @@
+package com.ecommerce.order_service.inbox;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over message ids that forgets old entries by rotating generations.
+ * Ids are added to the current generation and looked up in the current and the previous one, so an id
+ * is remembered for at least one and at most two rotation intervals while memory stays fixed.
+ * A negative answer is definite for ids added within that window; a positive answer may be false.
+ * Thread safe: bits are set with atomic updates and a rotation swaps whole generations.
+ */
+public class RotatingBloomFilter {
+
+    private final int bitCount;
+    private final int hashCount;
+
+    private volatile AtomicLongArray current;
+    private volatile AtomicLongArray previous;
+
+    /**
+     * @param expectedInsertions ids expected per rotation interval
+     * @param falsePositiveRate  target false positive rate of one generation at the expected insertions
+     */
+    public RotatingBloomFilter(int expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Invalid Bloom filter sizing: " + expectedInsertions + " ids at "
+                    + falsePositiveRate + " false positive rate");
+        }
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bitCount = (int) Math.min(Math.max(bits, 64), Integer.MAX_VALUE - 63);
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+        this.current = newGeneration();
+        this.previous = newGeneration();
+    }
+
+    public void put(String id) {
+        AtomicLongArray bits = current;
+        long h1 = hash(id);
+        long h2 = mix(h1) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            int bit = (int) Math.floorMod(h1 + i * h2, (long) bitCount);
+            long mask = 1L << bit;
+            int word = bit >>> 6;
+            long value = bits.get(word);
+            while ((value & mask) == 0 && !bits.compareAndSet(word, value, value | mask)) {
+                value = bits.get(word);
+            }
+        }
+    }
+
+    public boolean mightContain(String id) {
+        long h1 = hash(id);
+        long h2 = mix(h1) | 1;
+        return contains(current, h1, h2) || contains(previous, h1, h2);
+    }
+
+    /**
+     * Start a new generation; ids added before the previous rotation are forgotten.
+     */
+    public synchronized void rotate() {
+        previous = current;
+        current = newGeneration();
+    }
+
+    int getBitCount() {
+        return bitCount;
+    }
+
+    int getHashCount() {
+        return hashCount;
+    }
+
+    private boolean contains(AtomicLongArray bits, long h1, long h2) {
+        for (int i = 0; i < hashCount; i++) {
+            int bit = (int) Math.floorMod(h1 + i * h2, (long) bitCount);
+            if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private AtomicLongArray newGeneration() {
+        return new AtomicLongArray((bitCount + 63) >>> 6);
+    }
+
+    /**
+     * 64-bit FNV-1a over the id's chars, finalized for better bit dispersion.
+     */
+    private static long hash(String id) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < id.length(); i++) {
+            h ^= id.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    /**
+     * MurmurHash3 64-bit finalizer.
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,62 @@
+package com.ecommerce.order_service.kafka.consumer;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Striped executor: tasks with the same key run one at a time in submission order on the same lane,
+ * while tasks with different keys run in parallel across lanes.
+ */
+@Slf4j
+public class KeyOrderedExecutor implements AutoCloseable {
+
+    private final ExecutorService[] lanes;
+
+    public KeyOrderedExecutor(String name, int laneCount) {
+        if (laneCount < 1) {
+            throw new IllegalArgumentException("laneCount must be positive: " + laneCount);
+        }
+        lanes = new ExecutorService[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = Executors.newSingleThreadExecutor(Thread.ofPlatform().name(name + "-" + i).daemon().factory());
+        }
+    }
+
+    /**
+     * Run a task on the lane owning {@code key}; null keys all share lane 0.
+     */
+    public void execute(String key, Runnable task) {
+        lanes[laneOf(key)].execute(task);
+    }
+
+    int laneOf(String key) {
+        return key == null ? 0 : Math.floorMod(key.hashCode(), lanes.length);
+    }
+
+    public int getLaneCount() {
+        return lanes.length;
+    }
+
+    /**
+     * Stop accepting tasks and wait for queued tasks to finish.
+     */
+    @Override
+    public void close() {
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+        try {
+            for (ExecutorService lane : lanes) {
+                if (!lane.awaitTermination(30, TimeUnit.SECONDS)) {
+                    log.warn("Timed out draining worker lane; abandoning queued tasks");
+                    lane.shutdownNow();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.ecommerce.order_service.kafka.consumer;
+
+import com.ecommerce.order_service.inbox.InboxService;
+import com.ecommerce.order_service.kafka.event.PaymentFailedEvent;
+import com.ecommerce.order_service.kafka.event.PaymentSucceededEvent;
+import com.ecommerce.order_service.saga.OrderSagaOrchestrator;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Parallel Kafka consumer for payment events, enabled with {@code kafka.consumer.payments.mode=parallel}.
+ * Records are handed to a striped worker pool keyed by orderId, so events of one order are applied in
+ * order while different orders use all cores, independent of the partition count.
+ * Acknowledgements are asynchronous: the container only commits an offset once every record before
+ * it has been processed, so a crash never skips an unprocessed record.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "kafka.consumer.payments.mode", havingValue = "parallel")
+public class ParallelPaymentEventConsumer {
+
+    private final OrderSagaOrchestrator sagaOrchestrator;
+    private final PaymentEventReader eventReader;
+    private final ConsumerRecordRecoverer deadLetterRecoverer;
+    private final InboxService inboxService;
+    private final PaymentConsumerBackpressure backpressure;
+
+    @Value("${kafka.consumer.payments.parallel.workers:16}")
+    private int workers;
+
+    @Value("${kafka.consumer.payments.parallel.max-in-flight:1000}")
+    private int maxInFlight;
+
+    @Value("${kafka.consumer.payments.parallel.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${kafka.consumer.payments.parallel.retry-backoff-ms:1000}")
+    private long retryBackoffMs;
+
+    private KeyOrderedExecutor executor;
+    private Semaphore inFlightPermits;
+
+    @PostConstruct
+    void init() {
+        executor = new KeyOrderedExecutor("payments-worker", workers);
+        inFlightPermits = new Semaphore(maxInFlight);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.close();
+    }
+
+    /**
+     * Dispatch a payment event to its order's worker lane.
+     * Blocks the poll loop while max-in-flight records are queued, which bounds memory during bursts.
+     */
+    @KafkaListener(id = PaymentConsumerBackpressure.LISTENER_ID, topics = "${kafka.topics.payments-events}",
+            groupId = "${spring.kafka.consumer.group-id}", containerFactory = "parallelKafkaListenerContainerFactory")
+    public void handlePaymentEvent(ConsumerRecord<String, byte[]> record, Acknowledgment acknowledgment) {
+        Object event;
+        try {
+            event = eventReader.read(record);
+        } catch (Exception e) {
+            log.error("Unreadable payment event at offset {}", record.offset(), e);
+            deadLetterRecoverer.accept(record, e);
+            acknowledgment.acknowledge();
+            return;
+        }
+        if (event == null || inboxService.isDuplicate(PaymentEventReader.messageIdOf(event))) {
+            acknowledgment.acknowledge();
+            return;
+        }
+
+        inFlightPermits.acquireUninterruptibly();
+        try {
+            executor.execute(orderIdOf(event), () -> {
+                try {
+                    if (process(record, event)) {
+                        acknowledgment.acknowledge();
+                    }
+                } catch (Exception e) {
+                    // Left unacknowledged: offsets stay behind this record and it is redelivered after a restart
+                    log.error("Failed to dead-letter payment event at offset {}", record.offset(), e);
+                } finally {
+                    inFlightPermits.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlightPermits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Apply an event, retrying with a fixed backoff before sending the record to the DLQ.
+     *
+     * @return true once the record is done with (applied or dead-lettered), false if interrupted
+     */
+    boolean process(ConsumerRecord<String, byte[]> record, Object event) {
+        for (int attempt = 1; ; attempt++) {
+            long start = System.nanoTime();
+            try {
+                if (event instanceof PaymentSucceededEvent succeeded) {
+                    sagaOrchestrator.handlePaymentSuccess(succeeded);
+                } else {
+                    sagaOrchestrator.handlePaymentFailure((PaymentFailedEvent) event);
+                }
+                backpressure.recordLatency(System.nanoTime() - start, 1);
+                return true;
+            } catch (Exception e) {
+                backpressure.recordLatency(System.nanoTime() - start, 1);
+                if (attempt >= maxAttempts) {
+                    log.error("Giving up on payment event at offset {} after {} attempts", record.offset(), attempt, e);
+                    deadLetterRecoverer.accept(record, e);
+                    return true;
+                }
+                log.warn("Payment event at offset {} failed (attempt {}), retrying", record.offset(), attempt, e);
+                try {
+                    Thread.sleep(retryBackoffMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+    }
+
+    private static String orderIdOf(Object event) {
+        return event instanceof PaymentSucceededEvent succeeded
+                ? succeeded.getOrderId()
+                : ((PaymentFailedEvent) event).getOrderId();
+    }
+}
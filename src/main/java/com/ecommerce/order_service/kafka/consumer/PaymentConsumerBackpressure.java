@@ -0,0 +1,169 @@
+package com.ecommerce.order_service.kafka.consumer;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Backpressure for the payment event listener when the database saturates.
+ * Every check interval it looks at the threads waiting for a Hikari connection and at the mean handler
+ * latency reported by the payment consumers since the previous check. Past either pause threshold the
+ * listener's {@code payments.events} partitions are paused, so records stay in Kafka instead of timing out
+ * on the pool and running through retries into the DLQ. Partitions are resumed only after the pool has
+ * stayed below the lower resume thresholds for several consecutive checks, so the listener does not flap.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PaymentConsumerBackpressure {
+
+    /**
+     * Listener id shared by the payment event consumers; only one of them is active per mode.
+     */
+    public static final String LISTENER_ID = "paymentEvents";
+
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final DataSource dataSource;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${kafka.topics.payments-events}")
+    private String paymentsEventsTopic;
+
+    @Value("${kafka.consumer.payments.backpressure.enabled:true}")
+    private boolean enabled;
+
+    @Value("${kafka.consumer.payments.backpressure.pause-pending-threads:5}")
+    private int pausePendingThreads;
+
+    @Value("${kafka.consumer.payments.backpressure.resume-pending-threads:0}")
+    private int resumePendingThreads;
+
+    @Value("${kafka.consumer.payments.backpressure.pause-latency-ms:2000}")
+    private long pauseLatencyMs;
+
+    @Value("${kafka.consumer.payments.backpressure.resume-latency-ms:500}")
+    private long resumeLatencyMs;
+
+    @Value("${kafka.consumer.payments.backpressure.resume-after-checks:3}")
+    private int resumeAfterChecks;
+
+    private final LongAdder latencyNanos = new LongAdder();
+    private final LongAdder latencySamples = new LongAdder();
+
+    private volatile boolean paused;
+    private int healthyChecks;
+    private Counter pauses;
+
+    @PostConstruct
+    void init() {
+        pauses = Counter.builder("kafka.consumer.backpressure.pauses")
+                .tag("topic", paymentsEventsTopic)
+                .register(meterRegistry);
+        Gauge.builder("kafka.consumer.backpressure.paused", this, backpressure -> backpressure.paused ? 1 : 0)
+                .tag("topic", paymentsEventsTopic)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Report the time spent applying {@code records} payment events.
+     */
+    public void recordLatency(long nanos, int records) {
+        if (records > 0) {
+            latencyNanos.add(nanos);
+            latencySamples.add(records);
+        }
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * Pause or resume the payment listener partitions from the pool and latency readings.
+     */
+    @Scheduled(fixedDelayString = "${kafka.consumer.payments.backpressure.check-interval-ms:1000}")
+    public synchronized void check() {
+        long samples = latencySamples.sumThenReset();
+        long nanos = latencyNanos.sumThenReset();
+        if (!enabled) {
+            return;
+        }
+        MessageListenerContainer container = listenerRegistry.getListenerContainer(LISTENER_ID);
+        if (container == null || !container.isRunning()) {
+            return;
+        }
+
+        double latencyMs = samples == 0 ? 0 : nanos / 1_000_000.0 / samples;
+        int pendingThreads = pendingThreads();
+
+        if (!paused) {
+            if (pendingThreads >= pausePendingThreads || latencyMs >= pauseLatencyMs) {
+                log.warn("Database saturated ({} threads waiting for a connection, {} ms mean handler latency); "
+                        + "pausing {}", pendingThreads, String.format("%.1f", latencyMs), paymentsEventsTopic);
+                paused = true;
+                healthyChecks = 0;
+                pauses.increment();
+                pausePartitions(container);
+            }
+            return;
+        }
+
+        // Partitions assigned by a rebalance while paused are paused as well
+        pausePartitions(container);
+        boolean healthy = pendingThreads <= resumePendingThreads && latencyMs <= resumeLatencyMs;
+        healthyChecks = healthy ? healthyChecks + 1 : 0;
+        if (healthyChecks >= resumeAfterChecks) {
+            log.info("Database recovered for {} checks; resuming {}", healthyChecks, paymentsEventsTopic);
+            paused = false;
+            healthyChecks = 0;
+            for (TopicPartition partition : paymentPartitions(container)) {
+                container.resumePartition(partition);
+            }
+        }
+    }
+
+    private void pausePartitions(MessageListenerContainer container) {
+        for (TopicPartition partition : paymentPartitions(container)) {
+            if (!container.isPartitionPauseRequested(partition)) {
+                container.pausePartition(partition);
+            }
+        }
+    }
+
+    private Collection<TopicPartition> paymentPartitions(MessageListenerContainer container) {
+        Collection<TopicPartition> assigned = container.getAssignedPartitions();
+        if (assigned == null) {
+            return List.of();
+        }
+        return assigned.stream()
+                .filter(partition -> partition.topic().equals(paymentsEventsTopic))
+                .toList();
+    }
+
+    /**
+     * Threads waiting for a pooled connection, or 0 while the pool is not available.
+     */
+    private int pendingThreads() {
+        if (dataSource instanceof HikariDataSource hikari) {
+            HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+            return pool == null ? 0 : pool.getThreadsAwaitingConnection();
+        }
+        return 0;
+    }
+}
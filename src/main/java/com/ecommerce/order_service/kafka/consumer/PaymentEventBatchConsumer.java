@@ -0,0 +1,102 @@
+package com.ecommerce.order_service.kafka.consumer;
+
+import com.ecommerce.order_service.inbox.InboxService;
+import com.ecommerce.order_service.kafka.event.PaymentFailedEvent;
+import com.ecommerce.order_service.kafka.event.PaymentSucceededEvent;
+import com.ecommerce.order_service.saga.OrderSagaOrchestrator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Batch Kafka consumer for payment events, enabled with {@code kafka.consumer.payments.mode=batch}.
+ * Each poll is applied to sagas and orders in a single bulk transaction and its offsets are committed
+ * together. A record that cannot be read fails only itself: the records before it are applied and
+ * committed, and the error handler retries it and then sends it to the DLQ.
+ * Events already recorded in the inbox are dropped before the bulk transaction.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "kafka.consumer.payments.mode", havingValue = "batch")
+public class PaymentEventBatchConsumer {
+
+    private final OrderSagaOrchestrator sagaOrchestrator;
+    private final PaymentEventReader eventReader;
+    private final InboxService inboxService;
+    private final PaymentConsumerBackpressure backpressure;
+
+    /**
+     * Handle a poll of payment events.
+     */
+    @KafkaListener(id = PaymentConsumerBackpressure.LISTENER_ID, topics = "${kafka.topics.payments-events}",
+            groupId = "${spring.kafka.consumer.group-id}", containerFactory = "batchKafkaListenerContainerFactory")
+    public void handlePaymentEvents(List<ConsumerRecord<String, byte[]>> records) {
+        log.info("Received batch of {} payment events", records.size());
+
+        List<Object> events = new ArrayList<>(records.size());
+        List<Integer> indexes = new ArrayList<>(records.size());
+        BatchListenerFailedException poison = null;
+        for (int i = 0; i < records.size(); i++) {
+            Object event;
+            try {
+                event = eventReader.read(records.get(i));
+            } catch (Exception e) {
+                log.error("Unreadable payment event at offset {}", records.get(i).offset(), e);
+                poison = new BatchListenerFailedException("Unreadable payment event", e, i);
+                break;
+            }
+            if (event != null && !inboxService.isDuplicate(PaymentEventReader.messageIdOf(event))) {
+                events.add(event);
+                indexes.add(i);
+            }
+        }
+
+        long start = System.nanoTime();
+        try {
+            apply(events, indexes);
+        } finally {
+            backpressure.recordLatency(System.nanoTime() - start, events.size());
+        }
+
+        if (poison != null) {
+            throw poison;
+        }
+    }
+
+    /**
+     * Apply the events in one bulk transaction. If that fails, apply them one by one so that a failing
+     * record is reported by its index and does not hold back the rest of the poll.
+     */
+    private void apply(List<Object> events, List<Integer> indexes) {
+        if (events.isEmpty()) {
+            return;
+        }
+        try {
+            sagaOrchestrator.applyPaymentResults(events);
+            return;
+        } catch (Exception e) {
+            log.warn("Bulk application of {} payment events failed, falling back to one transaction per event",
+                    events.size(), e);
+        }
+
+        for (int i = 0; i < events.size(); i++) {
+            try {
+                if (events.get(i) instanceof PaymentSucceededEvent succeeded) {
+                    sagaOrchestrator.handlePaymentSuccess(succeeded);
+                } else {
+                    sagaOrchestrator.handlePaymentFailure((PaymentFailedEvent) events.get(i));
+                }
+            } catch (Exception e) {
+                throw new BatchListenerFailedException("Error processing payment event", e, indexes.get(i));
+            }
+        }
+    }
+}
@@ -1,12 +1,8 @@
 package com.ecommerce.order_service.kafka.consumer;
 
-import com.ecommerce.order_service.kafka.event.PaymentFailedEvent;
-import com.ecommerce.order_service.kafka.event.PaymentSucceededEvent;
-import com.ecommerce.order_service.saga.OrderSagaOrchestrator;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.slf4j.MDC;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.support.KafkaHeaders;
 import org.springframework.messaging.handler.annotation.Header;
@@ -16,75 +12,36 @@ import org.springframework.stereotype.Component;
 /**
  * Kafka consumer for payment events.
  * Listens to payment events and coordinates with saga orchestrator.
+ * Handles one record per transaction; see {@link PaymentEventBatchConsumer} for the batch mode.
  */
 @Slf4j
 @Component
 @RequiredArgsConstructor
+@ConditionalOnProperty(name = "kafka.consumer.payments.mode", havingValue = "record", matchIfMissing = true)
 public class PaymentEventConsumer {
 
-    private final OrderSagaOrchestrator sagaOrchestrator;
-    private final ObjectMapper objectMapper;
+    private final PaymentEventProcessor eventProcessor;
+    private final PaymentConsumerBackpressure backpressure;
 
     /**
      * Handle payment succeeded events.
      */
-    @KafkaListener(topics = "${kafka.topics.payments-events}", groupId = "${spring.kafka.consumer.group-id}")
-    public void handlePaymentEvent(@Payload Object payload,
+    @KafkaListener(id = PaymentConsumerBackpressure.LISTENER_ID, topics = "${kafka.topics.payments-events}",
+            groupId = "${spring.kafka.consumer.group-id}")
+    public void handlePaymentEvent(@Payload byte[] payload,
                                    @Header(value = "eventType", required = false) String eventType,
                                    @Header(value = KafkaHeaders.RECEIVED_KEY, required = false) String key) {
 
         log.info("Received payment event of type: {} with key: {}", eventType, key);
 
+        long start = System.nanoTime();
         try {
-            if ("PaymentSucceeded".equals(eventType)) {
-                PaymentSucceededEvent event = convertPayload(payload, PaymentSucceededEvent.class);
-                setMDC(event.getCorrelationId(), event.getSagaId());
-                sagaOrchestrator.handlePaymentSuccess(event);
-            } else if ("PaymentFailed".equals(eventType)) {
-                PaymentFailedEvent event = convertPayload(payload, PaymentFailedEvent.class);
-                setMDC(event.getCorrelationId(), event.getSagaId());
-                sagaOrchestrator.handlePaymentFailure(event);
-            } else {
-                log.warn("Unknown payment event type: {}", eventType);
-            }
+            eventProcessor.process(eventType, payload);
         } catch (Exception e) {
             log.error("Error processing payment event: {}", eventType, e);
-            // In production, consider dead letter queue
             throw new RuntimeException(e);
         } finally {
-            clearMDC();
+            backpressure.recordLatency(System.nanoTime() - start, 1);
         }
     }
-
-    private <T> T convertPayload(Object payload, Class<T> targetClass) throws Exception {
-        if (payload == null) {
-            throw new IllegalArgumentException("Payload is null");
-        }
-
-        // If payload is already of target class, cast
-        if (targetClass.isInstance(payload)) {
-            return targetClass.cast(payload);
-        }
-
-        // If payload is a String (JSON), deserialize
-        if (payload instanceof String) {
-            return objectMapper.readValue((String) payload, targetClass);
-        }
-
-        // For Map or LinkedHashMap payloads (typical from default deserialization), convert value
-        return objectMapper.convertValue(payload, targetClass);
-    }
-
-    private void setMDC(String correlationId, String sagaId) {
-        if (correlationId != null) {
-            MDC.put("correlationId", correlationId);
-        }
-        if (sagaId != null) {
-            MDC.put("sagaId", sagaId);
-        }
-    }
-
-    private void clearMDC() {
-        MDC.clear();
-    }
 }
@@ -0,0 +1,68 @@
+package com.ecommerce.order_service.kafka.consumer;
+
+import com.ecommerce.order_service.inbox.InboxService;
+import com.ecommerce.order_service.kafka.event.PaymentFailedEvent;
+import com.ecommerce.order_service.kafka.event.PaymentSucceededEvent;
+import com.ecommerce.order_service.saga.OrderSagaOrchestrator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Applies a single payment event to its saga: reads it, skips it if the inbox has already seen it
+ * and hands it to the saga orchestrator. Used by the record consumer and by DLQ replays.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PaymentEventProcessor {
+
+    private final OrderSagaOrchestrator sagaOrchestrator;
+    private final PaymentEventReader eventReader;
+    private final InboxService inboxService;
+
+    /**
+     * Apply a payment event.
+     *
+     * @return true if the event was handed to the orchestrator, false if it was skipped as an unknown
+     * event type or an already processed message
+     * @throws IOException if the payload is missing or cannot be deserialized
+     */
+    public boolean process(String eventType, byte[] payload) throws IOException {
+        Object event = eventReader.read(eventType, payload);
+        if (event == null) {
+            return false;
+        }
+        if (inboxService.isDuplicate(PaymentEventReader.messageIdOf(event))) {
+            log.info("Skipping already processed payment event: {}", PaymentEventReader.messageIdOf(event));
+            return false;
+        }
+
+        try {
+            if (event instanceof PaymentSucceededEvent succeeded) {
+                setMDC(succeeded.getCorrelationId(), succeeded.getSagaId());
+                sagaOrchestrator.handlePaymentSuccess(succeeded);
+            } else {
+                PaymentFailedEvent failed = (PaymentFailedEvent) event;
+                setMDC(failed.getCorrelationId(), failed.getSagaId());
+                sagaOrchestrator.handlePaymentFailure(failed);
+            }
+            return true;
+        } finally {
+            MDC.remove("correlationId");
+            MDC.remove("sagaId");
+        }
+    }
+
+    private void setMDC(String correlationId, String sagaId) {
+        if (correlationId != null) {
+            MDC.put("correlationId", correlationId);
+        }
+        if (sagaId != null) {
+            MDC.put("sagaId", sagaId);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.ecommerce.order_service.kafka.consumer;
+
+import com.ecommerce.order_service.kafka.event.PaymentFailedEvent;
+import com.ecommerce.order_service.kafka.event.PaymentSucceededEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Deserializes payment event records by their eventType header.
+ * The header selects a reader bound to the event class up front, and the record value is parsed
+ * straight from its bytes, so no intermediate String or Map is built per message.
+ */
+@Slf4j
+@Component
+public class PaymentEventReader {
+
+    static final String PAYMENT_SUCCEEDED = "PaymentSucceeded";
+    static final String PAYMENT_FAILED = "PaymentFailed";
+
+    private final Map<String, ObjectReader> readers;
+
+    public PaymentEventReader(ObjectMapper objectMapper) {
+        this.readers = Map.of(
+                PAYMENT_SUCCEEDED, objectMapper.readerFor(PaymentSucceededEvent.class),
+                PAYMENT_FAILED, objectMapper.readerFor(PaymentFailedEvent.class));
+    }
+
+    /**
+     * Read a record as a {@link PaymentSucceededEvent} or {@link PaymentFailedEvent}.
+     *
+     * @return the event, or null for event types this service does not handle
+     * @throws IOException if the payload is missing or cannot be deserialized
+     */
+    public Object read(ConsumerRecord<String, byte[]> record) throws IOException {
+        return read(eventType(record), record.value());
+    }
+
+    /**
+     * Read a payload of the given event type.
+     *
+     * @return the event, or null for event types this service does not handle
+     * @throws IOException if the payload is missing or cannot be deserialized
+     */
+    public Object read(String eventType, byte[] payload) throws IOException {
+        ObjectReader reader = eventType == null ? null : readers.get(eventType);
+        if (reader == null) {
+            log.warn("Unknown payment event type: {}", eventType);
+            return null;
+        }
+        if (payload == null) {
+            throw new IOException("Payload is null");
+        }
+        return reader.readValue(payload);
+    }
+
+    /**
+     * Inbox id of a {@link PaymentSucceededEvent} or {@link PaymentFailedEvent}.
+     */
+    static String messageIdOf(Object event) {
+        return event instanceof PaymentSucceededEvent succeeded
+                ? succeeded.messageId()
+                : ((PaymentFailedEvent) event).messageId();
+    }
+
+    static String eventType(ConsumerRecord<?, ?> record) {
+        Header header = record.headers().lastHeader("eventType");
+        return header == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+    }
+}
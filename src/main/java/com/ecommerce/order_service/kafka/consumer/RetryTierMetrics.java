@@ -0,0 +1,85 @@
+package com.ecommerce.order_service.kafka.consumer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.springframework.kafka.listener.RecordInterceptor;
+import org.springframework.kafka.support.ProducerListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Metrics per retry tier of consumed topics, where the tier is read from the topic name:
+ * {@code main} for the topic itself, {@code retry-1s} for {@code <topic>.retry-1s} and {@code dlq} for {@code <topic>.DLQ}.
+ * As a producer listener on the dead-letter template it counts records forwarded to each tier
+ * ({@code kafka.retry.forwarded}); as a record interceptor it counts records handled in each tier by
+ * outcome ({@code kafka.retry.consumed}).
+ */
+@Component
+@RequiredArgsConstructor
+public class RetryTierMetrics implements ProducerListener<String, byte[]>, RecordInterceptor<String, byte[]> {
+
+    static final String RETRY_TOPIC_INFIX = ".retry-";
+    static final String DLQ_SUFFIX = ".DLQ";
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public void onSuccess(ProducerRecord<String, byte[]> record, RecordMetadata metadata) {
+        counter("kafka.retry.forwarded", record.topic(), "forwarded").increment();
+    }
+
+    @Override
+    public void onError(ProducerRecord<String, byte[]> record, RecordMetadata metadata, Exception exception) {
+        counter("kafka.retry.forwarded", record.topic(), "error").increment();
+    }
+
+    @Override
+    public ConsumerRecord<String, byte[]> intercept(ConsumerRecord<String, byte[]> record,
+                                                    Consumer<String, byte[]> consumer) {
+        return record;
+    }
+
+    @Override
+    public void success(ConsumerRecord<String, byte[]> record, Consumer<String, byte[]> consumer) {
+        counter("kafka.retry.consumed", record.topic(), "success").increment();
+    }
+
+    @Override
+    public void failure(ConsumerRecord<String, byte[]> record, Exception exception, Consumer<String, byte[]> consumer) {
+        counter("kafka.retry.consumed", record.topic(), "failure").increment();
+    }
+
+    /**
+     * Retry tier of a topic name.
+     */
+    static String tierOf(String topic) {
+        if (topic.endsWith(DLQ_SUFFIX)) {
+            return "dlq";
+        }
+        int retry = topic.lastIndexOf(RETRY_TOPIC_INFIX);
+        return retry < 0 ? "main" : topic.substring(retry + 1);
+    }
+
+    /**
+     * Topic a tier topic belongs to.
+     */
+    static String baseTopicOf(String topic) {
+        if (topic.endsWith(DLQ_SUFFIX)) {
+            return topic.substring(0, topic.length() - DLQ_SUFFIX.length());
+        }
+        int retry = topic.lastIndexOf(RETRY_TOPIC_INFIX);
+        return retry < 0 ? topic : topic.substring(0, retry);
+    }
+
+    private Counter counter(String name, String topic, String outcome) {
+        return Counter.builder(name)
+                .tag("topic", baseTopicOf(topic))
+                .tag("tier", tierOf(topic))
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
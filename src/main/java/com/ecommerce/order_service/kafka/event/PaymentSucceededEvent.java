@@ -22,5 +22,12 @@ public class PaymentSucceededEvent {
     private String correlationId;
     private String sagaId;
     private LocalDateTime timestamp;
-}
 
+    /**
+     * Inbox id of this event. A saga receives a single payment result, so the event type and
+     * saga id identify the message across redeliveries.
+     */
+    public String messageId() {
+        return "PaymentSucceeded:" + sagaId;
+    }
+}
@@ -0,0 +1,12 @@
+package com.ecommerce.order_service.outbox;
+
+import java.util.List;
+
+/**
+ * Checkpoint written to the compacted checkpoint topic in the same Kafka transaction as a relay batch.
+ * It holds the highest outbox id of the batch and the ids sent in it. Claims skip locked rows and
+ * rows in other buckets, so the ids of a batch are not contiguous and the high-water mark alone
+ * does not say which rows were sent.
+ */
+public record OutboxCheckpoint(String relayId, long highWaterMark, List<Long> eventIds, long committedAtMs) {
+}
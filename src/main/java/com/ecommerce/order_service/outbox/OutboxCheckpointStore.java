@@ -0,0 +1,126 @@
+package com.ecommerce.order_service.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaOperations;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes and reads the relay checkpoints kept in a compacted topic, keyed by relay id.
+ * A batch is archived in the database only after its Kafka transaction has committed. If the node
+ * crashes between the two steps, the checkpoint shows which pending rows were already sent, and
+ * reconciliation archives them instead of publishing them again.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OutboxCheckpointStore {
+
+    private final ConsumerFactory<String, byte[]> consumerFactory;
+    private final OutboxService outboxService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${kafka.topics.outbox-checkpoints}")
+    private String checkpointTopic;
+
+    @Value("${outbox.relay.transactional.checkpoint-read-timeout-ms:10000}")
+    private long readTimeoutMs;
+
+    /**
+     * Add the checkpoint of a batch to the current Kafka transaction.
+     */
+    public void append(KafkaOperations<String, byte[]> operations, String relayId, List<Long> eventIds) {
+        long highWaterMark = eventIds.stream().mapToLong(Long::longValue).max().orElse(0L);
+        OutboxCheckpoint checkpoint = new OutboxCheckpoint(relayId, highWaterMark, eventIds, System.currentTimeMillis());
+        try {
+            operations.send(checkpointTopic, relayId, objectMapper.writeValueAsBytes(checkpoint));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize outbox checkpoint", e);
+        }
+    }
+
+    /**
+     * Archive pending events that a committed checkpoint lists as sent.
+     * Checkpoints of all relays are read, so buckets taken over from a dead node are covered too.
+     *
+     * @return number of events archived
+     */
+    public int reconcile() {
+        List<Long> sentIds = readCheckpoints().values().stream()
+                .flatMap(checkpoint -> checkpoint.eventIds().stream())
+                .toList();
+        int archived = outboxService.archivePublished(sentIds);
+        if (archived > 0) {
+            log.warn("Archived {} outbox events that were committed to Kafka before a relay restart", archived);
+        }
+        return archived;
+    }
+
+    /**
+     * Latest committed checkpoint per relay id.
+     */
+    Map<String, OutboxCheckpoint> readCheckpoints() {
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+        overrides.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+
+        Map<String, OutboxCheckpoint> latest = new HashMap<>();
+        try (Consumer<String, byte[]> consumer =
+                     consumerFactory.createConsumer(null, "outbox-checkpoint-reader", null, overrides)) {
+            List<TopicPartition> partitions = consumer.partitionsFor(checkpointTopic).stream()
+                    .map(info -> new TopicPartition(info.topic(), info.partition()))
+                    .toList();
+            consumer.assign(partitions);
+            consumer.seekToBeginning(partitions);
+            Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(readTimeoutMs);
+            while (!reachedEnd(consumer, endOffsets)) {
+                if (System.nanoTime() - deadline > 0) {
+                    throw new IllegalStateException("Timed out reading outbox checkpoints from " + checkpointTopic);
+                }
+                for (ConsumerRecord<String, byte[]> record : consumer.poll(Duration.ofMillis(200))) {
+                    if (record.value() == null) {
+                        latest.remove(record.key());
+                    } else {
+                        latest.put(record.key(), parse(record.value()));
+                    }
+                }
+            }
+        }
+        return latest;
+    }
+
+    private static boolean reachedEnd(Consumer<String, byte[]> consumer, Map<TopicPartition, Long> endOffsets) {
+        for (Map.Entry<TopicPartition, Long> entry : endOffsets.entrySet()) {
+            if (consumer.position(entry.getKey()) < entry.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private OutboxCheckpoint parse(byte[] value) {
+        try {
+            return objectMapper.readValue(value, OutboxCheckpoint.class);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unreadable outbox checkpoint of " + value.length + " bytes", e);
+        }
+    }
+}
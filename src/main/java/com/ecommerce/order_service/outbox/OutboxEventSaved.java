@@ -0,0 +1,8 @@
+package com.ecommerce.order_service.outbox;
+
+/**
+ * Application event raised when an outbox row is written.
+ * Delivered to listeners after the surrounding transaction commits so the relay can publish right away.
+ */
+public record OutboxEventSaved(String aggregateType, String aggregateId, String eventType) {
+}
@@ -0,0 +1,165 @@
+package com.ecommerce.order_service.outbox;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the daily partitions of the outbox_events_history table.
+ * New partitions are split off the catch-all p_future partition ahead of time, and retention
+ * drops whole expired partitions instead of deleting published events row by row.
+ * Every node runs the daily maintenance; a MySQL named lock lets one node do it at a time, and a
+ * partition another node created concurrently (e.g. at startup) is detected and skipped.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OutboxHistoryPartitionManager {
+
+    static final String HISTORY_TABLE = "outbox_events_history";
+    static final String FUTURE_PARTITION = "p_future";
+
+    static final String MAINTENANCE_LOCK = "outbox_events_history.partitions";
+
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMMdd");
+    // MySQL TO_DAYS('1970-01-01')
+    private static final long TO_DAYS_EPOCH_OFFSET = 719_528L;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${outbox.history.partitions-ahead:3}")
+    private int partitionsAhead;
+
+    /**
+     * Make sure partitions for the next days exist before the relay starts archiving.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            ensurePartitions(LocalDate.now());
+        } catch (DataAccessException e) {
+            log.warn("Could not prepare outbox history partitions; published events go to {}", FUTURE_PARTITION, e);
+        }
+    }
+
+    /**
+     * Create the partitions for the coming days and drop expired ones, unless another node holds the
+     * maintenance lock, in which case that node does it.
+     *
+     * @return number of partitions dropped, or -1 if another node is maintaining the partitions
+     */
+    public int maintainPartitions(LocalDate today, int daysToKeep) {
+        return jdbcTemplate.execute((ConnectionCallback<Integer>) connection -> {
+            // Named locks belong to the session, so they are taken and released on this one connection
+            if (!namedLock(connection, "SELECT GET_LOCK(?, 0)")) {
+                log.info("Outbox history partitions are being maintained by another node");
+                return -1;
+            }
+            try {
+                ensurePartitions(today);
+                return dropPartitionsOlderThan(today, daysToKeep);
+            } finally {
+                namedLock(connection, "SELECT RELEASE_LOCK(?)");
+            }
+        });
+    }
+
+    /**
+     * Create one partition per day from {@code today} up to {@code partitionsAhead} days ahead.
+     * If a split fails because another node created the partition first, the partitions are read again
+     * and the split is skipped.
+     */
+    public void ensurePartitions(LocalDate today) {
+        long highestBound = highestBound();
+
+        for (int i = 0; i <= partitionsAhead; i++) {
+            LocalDate day = today.plusDays(i);
+            long upperBound = toDays(day.plusDays(1));
+            if (upperBound <= highestBound) {
+                continue;
+            }
+            try {
+                jdbcTemplate.execute("ALTER TABLE " + HISTORY_TABLE + " REORGANIZE PARTITION " + FUTURE_PARTITION +
+                        " INTO (PARTITION " + day.format(PARTITION_NAME) + " VALUES LESS THAN (" + upperBound + "), " +
+                        "PARTITION " + FUTURE_PARTITION + " VALUES LESS THAN MAXVALUE)");
+                log.info("Created outbox history partition {}", day.format(PARTITION_NAME));
+            } catch (DataAccessException e) {
+                if (highestBound() < upperBound) {
+                    throw e;
+                }
+                log.info("Outbox history partition {} was created by another node", day.format(PARTITION_NAME));
+            }
+            highestBound = upperBound;
+        }
+    }
+
+    /**
+     * Drop every daily partition whose events were all published before {@code today - daysToKeep}.
+     *
+     * @return number of partitions dropped
+     */
+    public int dropPartitionsOlderThan(LocalDate today, int daysToKeep) {
+        long cutoff = toDays(today.minusDays(daysToKeep));
+        List<String> expired = findPartitions().stream()
+                .filter(p -> !FUTURE_PARTITION.equals(p.name()))
+                .filter(p -> p.upperBound() <= cutoff)
+                .map(Partition::name)
+                .collect(Collectors.toList());
+
+        if (!expired.isEmpty()) {
+            jdbcTemplate.execute("ALTER TABLE " + HISTORY_TABLE + " DROP PARTITION " + String.join(", ", expired));
+        }
+        return expired.size();
+    }
+
+    private long highestBound() {
+        return findPartitions().stream()
+                .filter(p -> !FUTURE_PARTITION.equals(p.name()))
+                .mapToLong(Partition::upperBound)
+                .max()
+                .orElse(Long.MIN_VALUE);
+    }
+
+    private static boolean namedLock(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, MAINTENANCE_LOCK);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getInt(1) == 1;
+            }
+        }
+    }
+
+    private List<Partition> findPartitions() {
+        return jdbcTemplate.query(
+                "SELECT PARTITION_NAME, PARTITION_DESCRIPTION FROM information_schema.PARTITIONS " +
+                        "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = '" + HISTORY_TABLE + "' " +
+                        "ORDER BY PARTITION_ORDINAL_POSITION",
+                (rs, rowNum) -> new Partition(rs.getString(1), parseBound(rs.getString(2))));
+    }
+
+    private static long parseBound(String description) {
+        return "MAXVALUE".equalsIgnoreCase(description) ? Long.MAX_VALUE : Long.parseLong(description);
+    }
+
+    static long toDays(LocalDate date) {
+        return date.toEpochDay() + TO_DAYS_EPOCH_OFFSET;
+    }
+
+    record Partition(String name, long upperBound) {
+    }
+}
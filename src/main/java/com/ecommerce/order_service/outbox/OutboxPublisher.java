@@ -1,74 +1,480 @@
 package com.ecommerce.order_service.outbox;
 
+import com.ecommerce.order_service.domain.codec.PayloadCodec;
 import com.ecommerce.order_service.domain.entity.OutboxEvent;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.errors.InvalidTopicException;
+import org.apache.kafka.common.errors.RecordBatchTooLargeException;
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.apache.kafka.common.errors.SerializationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.KafkaHeaders;
 import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
 import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Background publisher for processing outbox events and publishing to Kafka.
- * Runs periodically to ensure eventual consistency.
+ * A dedicated relay thread is woken as soon as a transaction that wrote outbox rows commits;
+ * an adaptive poll remains as a safety net for missed wake-ups and rows written by other nodes.
+ * With sharding, a commit whose rows belong to buckets leased by other nodes is announced on a Redis
+ * channel so their owners publish right away too; if the message is lost they fall back to their poll.
+ * In transactional mode every batch is sent in one Kafka transaction together with its checkpoint,
+ * so a relay that crashes before archiving the batch does not send it again after a restart.
+ * Events Kafka rejects for good (oversized records, undecodable payloads) are parked instead of being retried
+ * forever.
  */
 @Slf4j
 @Component
 @RequiredArgsConstructor
-public class OutboxPublisher {
+public class OutboxPublisher implements SmartLifecycle {
 
     private final OutboxService outboxService;
-    private final KafkaTemplate<String, String> kafkaTemplate;
-    private final ObjectMapper objectMapper;
+    private final KafkaTemplate<String, byte[]> outboxKafkaTemplate;
+    private final PayloadCodec payloadCodec;
+    private final OutboxShardLeaseManager shardLeaseManager;
+    private final OutboxCheckpointStore checkpointStore;
+    private final StringRedisTemplate redisTemplate;
+
+    @Value("${outbox.relay.batch-size:500}")
+    private int batchSize;
+
+    @Value("${outbox.relay.max-in-flight:1000}")
+    private int maxInFlight;
+
+    @Value("${outbox.relay.ack-timeout-ms:30000}")
+    private long ackTimeoutMs;
+
+    @Value("${outbox.relay.min-poll-interval-ms:50}")
+    private long minPollIntervalMs;
+
+    @Value("${outbox.relay.max-poll-interval-ms:5000}")
+    private long maxPollIntervalMs;
+
+    @Value("${outbox.relay.transactional.enabled:false}")
+    private boolean transactional;
+
+    @Value("${outbox.relay.sharding.wake-up-channel:outbox.relay.wake-up}")
+    private String wakeUpChannel;
+
+    private Semaphore inFlightPermits;
+
+    // At most one pending permit: wake-ups arriving while the relay is busy collapse into one extra pass
+    private final Semaphore wakeUps = new Semaphore(0);
+    private volatile boolean running;
+    // Buckets leased by other nodes that received rows since the last pass; announced by the relay thread
+    private final Set<Integer> remoteBuckets = ConcurrentHashMap.newKeySet();
+    private Thread relayThread;
+
+    // Buckets covered by the last checkpoint reconciliation (transactional mode); null until the first one
+    private Set<Integer> reconciledBuckets;
+
+    @PostConstruct
+    void init() {
+        inFlightPermits = new Semaphore(maxInFlight);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        relayThread = Thread.ofPlatform()
+                .name("outbox-relay")
+                .daemon()
+                .start(this::runRelayLoop);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        wakeUp();
+        try {
+            relayThread.join(ackTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Wake the relay after a transaction that wrote outbox rows has committed.
+     * With sharding, rows of buckets leased by other nodes are remembered and announced to their owners
+     * by the relay thread, so the committing thread never waits on Redis.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOutboxEventSaved(OutboxEventSaved event) {
+        if (shardLeaseManager.isEnabled()) {
+            int bucket = shardLeaseManager.bucketOf(event.aggregateId());
+            if (!shardLeaseManager.getOwnedBuckets().contains(bucket)) {
+                remoteBuckets.add(bucket);
+            }
+        }
+        wakeUp();
+    }
+
+    /**
+     * Wake the relay when another node announces new rows in buckets this node leases.
+     *
+     * @param message comma-separated bucket numbers
+     */
+    public void onWakeUpMessage(String message) {
+        Set<Integer> owned = shardLeaseManager.getOwnedBuckets();
+        for (String bucket : message.split(",")) {
+            if (owned.contains(Integer.parseInt(bucket.trim()))) {
+                wakeUp();
+                return;
+            }
+        }
+    }
+
+    void wakeUp() {
+        if (wakeUps.availablePermits() == 0) {
+            wakeUps.release();
+        }
+    }
 
     /**
-     * Periodically publish unpublished events from the outbox.
-     * Runs every 5 seconds by default.
+     * Relay loop: drain the outbox, then sleep until woken or the adaptive poll interval elapses.
      */
-    @Scheduled(fixedDelay = 5000)
-    public void publishEvents() {
-        List<OutboxEvent> unpublishedEvents = outboxService.getUnpublishedEvents();
+    private void runRelayLoop() {
+        long pollIntervalMs = minPollIntervalMs;
+        while (running) {
+            int published = 0;
+            try {
+                announceRemoteBuckets();
+                published = publishEvents();
+            } catch (Exception e) {
+                log.error("Outbox relay pass failed", e);
+            }
+            pollIntervalMs = nextPollInterval(pollIntervalMs, published);
 
-        if (unpublishedEvents.isEmpty()) {
+            try {
+                wakeUps.tryAcquire(pollIntervalMs, TimeUnit.MILLISECONDS);
+                wakeUps.drainPermits();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Announce the buckets other nodes lease that received rows since the last pass, in one message.
+     */
+    void announceRemoteBuckets() {
+        if (remoteBuckets.isEmpty()) {
             return;
         }
+        List<Integer> buckets = new ArrayList<>(remoteBuckets);
+        buckets.forEach(remoteBuckets::remove);
+        String message = buckets.stream().map(String::valueOf).collect(Collectors.joining(","));
+        try {
+            redisTemplate.convertAndSend(wakeUpChannel, message);
+        } catch (Exception e) {
+            log.debug("Could not announce outbox buckets {}; their owners pick the rows up on their next poll", message, e);
+        }
+    }
+
+    /**
+     * Poll again quickly while there is work; back off exponentially while the outbox is empty.
+     */
+    long nextPollInterval(long currentIntervalMs, int published) {
+        if (published > 0) {
+            return minPollIntervalMs;
+        }
+        return Math.min(currentIntervalMs * 2, maxPollIntervalMs);
+    }
+
+    /**
+     * Publish unpublished events from the outbox, draining the backlog in bounded batches.
+     * With sharding enabled only the hash buckets leased by this node are drained.
+     * Draining continues while batches come back full, even if some of their events failed, and stops once a
+     * full batch publishes nothing, so events that keep failing are not re-claimed in a tight loop.
+     *
+     * @return number of events published during this pass
+     */
+    public int publishEvents() {
+        Set<Integer> buckets = null;
+        if (shardLeaseManager.isEnabled()) {
+            buckets = shardLeaseManager.getOwnedBuckets();
+            if (buckets.isEmpty()) {
+                return 0;
+            }
+        }
+        if (transactional && !reconcileCheckpoints(buckets)) {
+            return 0;
+        }
+
+        AtomicInteger published = new AtomicInteger();
+        Function<List<OutboxEvent>, List<Long>> publisher = events -> {
+            List<Long> ids = publishBatch(events);
+            published.addAndGet(ids.size());
+            return ids;
+        };
+
+        int total = 0;
+        int claimed;
+        try {
+            do {
+                published.set(0);
+                claimed = buckets == null
+                        ? outboxService.publishBatch(batchSize, publisher)
+                        : outboxService.publishBatch(batchSize, buckets, publisher);
+                total += published.get();
+            } while (claimed == batchSize && published.get() > 0);
+        } catch (RuntimeException e) {
+            // The Kafka transaction may have committed before archiving failed; reconcile before claiming again
+            reconciledBuckets = null;
+            throw e;
+        }
+        return total;
+    }
 
-        log.debug("Publishing {} outbox events", unpublishedEvents.size());
+    /**
+     * Archive events that earlier Kafka transactions committed but the database never recorded.
+     * Runs before the first pass and again whenever this node takes over buckets from another node.
+     */
+    private boolean reconcileCheckpoints(Set<Integer> buckets) {
+        Set<Integer> covered = buckets == null ? Set.of() : buckets;
+        if (reconciledBuckets != null && reconciledBuckets.containsAll(covered)) {
+            return true;
+        }
+        try {
+            checkpointStore.reconcile();
+            reconciledBuckets = covered;
+            return true;
+        } catch (Exception e) {
+            log.error("Outbox checkpoint reconciliation failed; not publishing until it succeeds", e);
+            return false;
+        }
+    }
+
+    private List<Long> publishBatch(List<OutboxEvent> events) {
+        return transactional ? publishBatchInTransaction(events) : publishBatchPipelined(events);
+    }
+
+    /**
+     * Send a claimed batch and its checkpoint in one Kafka transaction.
+     * The commit waits for every record, and any failed send aborts the whole transaction. The batch is then
+     * sent again one event per transaction to find the culprit: an event Kafka rejects for good is parked, and
+     * any other failure stops the batch there, so that event and the ones after it are retried in order.
+     * Each of those transactions checkpoints every event of the batch committed so far, because reconciliation
+     * only reads the latest checkpoint of a relay.
+     */
+    private List<Long> publishBatchInTransaction(List<OutboxEvent> events) {
+        log.debug("Publishing {} outbox events in a transaction", events.size());
+        try {
+            List<Long> ids = events.stream().map(OutboxEvent::getId).toList();
+            sendInTransaction(events.stream().map(this::toMessage).toList(), ids);
+            return ids;
+        } catch (Exception e) {
+            log.error("Kafka transaction for {} outbox events aborted; retrying them one at a time", events.size(), e);
+        }
 
-        for (OutboxEvent event : unpublishedEvents) {
+        List<Long> publishedIds = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            Message<byte[]> message = toMessageOrPark(event);
+            if (message == null) {
+                continue;
+            }
+            try {
+                List<Long> checkpointIds = new ArrayList<>(publishedIds);
+                checkpointIds.add(event.getId());
+                sendInTransaction(List.of(message), checkpointIds);
+                publishedIds.add(event.getId());
+            } catch (Exception e) {
+                if (!isRejectedForGood(e)) {
+                    log.error("Outbox event {} could not be published; retrying it with the rest of the batch",
+                            event.getId(), e);
+                    break;
+                }
+                outboxService.parkFailed(event.getId(), rootCauseMessage(e));
+            }
+        }
+        return publishedIds;
+    }
+
+    private void sendInTransaction(List<Message<byte[]>> messages, List<Long> checkpointIds) {
+        outboxKafkaTemplate.executeInTransaction(operations -> {
+            for (Message<byte[]> message : messages) {
+                operations.send(message);
+            }
+            checkpointStore.append(operations, shardLeaseManager.getNodeId(), checkpointIds);
+            return null;
+        });
+    }
+
+    /**
+     * Publish a claimed batch and return the ids of the events the broker acknowledged.
+     * Sends are pipelined: up to max-in-flight records are outstanding at once, and the
+     * acknowledgements are collected only after the whole batch has been handed to the producer.
+     * Once an event of an aggregate fails, later events of that aggregate in the batch are not sent, or
+     * not archived if they were already sent, so they are retried after it and never overtake it.
+     */
+    private List<Long> publishBatchPipelined(List<OutboxEvent> events) {
+        log.debug("Publishing {} outbox events", events.size());
+
+        List<PendingAck> pendingAcks = new ArrayList<>(events.size());
+        Set<String> failedAggregates = new HashSet<>();
+        for (OutboxEvent event : events) {
+            if (failedAggregates.contains(event.getAggregateId())) {
+                continue;
+            }
+            Message<byte[]> message = toMessageOrPark(event);
+            if (message == null) {
+                continue;
+            }
             try {
-                publishEvent(event);
-                outboxService.markAsPublished(event.getId());
+                pendingAcks.add(new PendingAck(event, publishEvent(event, message)));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("Interrupted while publishing outbox batch, {} events left unsent",
+                        events.size() - pendingAcks.size());
+                break;
             } catch (Exception e) {
                 log.error("Failed to publish outbox event: {}", event.getId(), e);
-                // Event remains unpublished and will be retried
+                if (isRejectedForGood(e)) {
+                    outboxService.parkFailed(event.getId(), rootCauseMessage(e));
+                    continue;
+                }
+                // Event remains unpublished and will be retried, ahead of the rest of its aggregate
+                failedAggregates.add(event.getAggregateId());
             }
         }
+
+        return awaitAcknowledged(pendingAcks, failedAggregates);
     }
 
-    private void publishEvent(OutboxEvent event) throws Exception {
+    /**
+     * Wait for the producer acknowledgements of a batch, in claim order.
+     * Only acknowledged events are reported as published; failed or timed out sends stay in the outbox,
+     * and so do the later events of their aggregates, unless Kafka rejected the record for good and it is parked.
+     */
+    private List<Long> awaitAcknowledged(List<PendingAck> pendingAcks, Set<String> failedAggregates) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ackTimeoutMs);
+        List<Long> acknowledgedIds = new ArrayList<>(pendingAcks.size());
+
+        for (PendingAck pending : pendingAcks) {
+            Long id = pending.event().getId();
+            try {
+                pending.ack().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (!failedAggregates.contains(pending.event().getAggregateId())) {
+                    acknowledgedIds.add(id);
+                }
+                continue;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                log.error("Broker rejected outbox event: {}", id, e.getCause());
+                if (isRejectedForGood(e)) {
+                    outboxService.parkFailed(id, rootCauseMessage(e));
+                    continue;
+                }
+            } catch (TimeoutException e) {
+                log.error("Timed out waiting for acknowledgement of outbox event: {}", id);
+            }
+            failedAggregates.add(pending.event().getAggregateId());
+        }
+        return acknowledgedIds;
+    }
+
+    private record PendingAck(OutboxEvent event, CompletableFuture<?> ack) {
+    }
+
+    private CompletableFuture<?> publishEvent(OutboxEvent event, Message<byte[]> message) throws InterruptedException {
+        inFlightPermits.acquire();
+        CompletableFuture<?> ack;
+        try {
+            ack = outboxKafkaTemplate.send(message);
+        } catch (RuntimeException e) {
+            inFlightPermits.release();
+            throw e;
+        }
+        ack.whenComplete((result, ex) -> inFlightPermits.release());
+
+        log.debug("Sent event {} to topic {}: {}/{}", event.getEventType(),
+                message.getHeaders().get(KafkaHeaders.TOPIC), event.getAggregateType(), event.getAggregateId());
+        return ack;
+    }
+
+    private Message<byte[]> toMessage(OutboxEvent event) {
         String topic = getTopicForEventType(event.getEventType());
-        // payload is stored as JSON already in the OutboxEvent
-        String payloadJson = event.getPayload();
+        // payload is stored as encoded JSON; decode to bytes and forward without building a String
+        byte[] payloadJson = payloadCodec.decode(event.getPayload());
 
-        Message<String> message = MessageBuilder
+        return MessageBuilder
                 .withPayload(payloadJson)
                 .setHeader(KafkaHeaders.TOPIC, topic)
                 .setHeader(KafkaHeaders.KEY, event.getAggregateId())
                 .setHeader("eventType", event.getEventType())
                 .setHeader("aggregateType", event.getAggregateType())
                 .setHeader("aggregateId", event.getAggregateId())
-                .setHeader(KafkaHeaders.CONTENT_TYPE, "application/json")
+                .setHeader(MessageHeaders.CONTENT_TYPE, "application/json")
                 .build();
+    }
+
+    /**
+     * Build the Kafka message for an event, or park the event and return null if its payload cannot be decoded.
+     */
+    private Message<byte[]> toMessageOrPark(OutboxEvent event) {
+        try {
+            return toMessage(event);
+        } catch (RuntimeException e) {
+            log.error("Outbox event {} has an undecodable payload", event.getId(), e);
+            outboxService.parkFailed(event.getId(), "Undecodable payload: " + rootCauseMessage(e));
+            return null;
+        }
+    }
 
-        kafkaTemplate.send(message);
-        log.info("Published event {} to topic {}: {}/{}",
-                event.getEventType(), topic, event.getAggregateType(), event.getAggregateId());
+    /**
+     * Whether Kafka rejected the record itself, so sending it again can never succeed.
+     * Broker outages, timeouts and fenced producers are not; those events are retried.
+     */
+    static boolean isRejectedForGood(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RecordTooLargeException
+                    || cause instanceof RecordBatchTooLargeException
+                    || cause instanceof InvalidTopicException
+                    || cause instanceof SerializationException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String rootCauseMessage(Throwable failure) {
+        Throwable root = failure;
+        while (root.getCause() != null) {
+            root = root.getCause();
+        }
+        return root.getClass().getSimpleName() + ": " + root.getMessage();
     }
 
     private String getTopicForEventType(String eventType) {
@@ -1,16 +1,22 @@
 package com.ecommerce.order_service.outbox;
 
+import com.ecommerce.order_service.domain.codec.PayloadCodec;
 import com.ecommerce.order_service.domain.entity.OutboxEvent;
 import com.ecommerce.order_service.domain.repository.OutboxEventRepository;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Function;
 
 /**
  * Service for managing transactional outbox events.
@@ -21,27 +27,37 @@ import java.util.List;
 @RequiredArgsConstructor
 public class OutboxService {
 
+    private static final int MAX_ERROR_LENGTH = 500;
+
     private final OutboxEventRepository outboxEventRepository;
     private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OutboxHistoryPartitionManager historyPartitionManager;
+    private final PayloadCodec payloadCodec;
+
+    @Value("${outbox.relay.sharding.bucket-count:64}")
+    private int bucketCount;
 
     /**
      * Save an event to the outbox table.
      * This method should be called within the same transaction as the domain operation.
+     * Once that transaction commits, the relay is woken up to publish the event immediately.
      */
     @Transactional
     public void saveEvent(String aggregateType, String aggregateId, String eventType, Object eventPayload) {
         try {
-            String payload = objectMapper.writeValueAsString(eventPayload);
+            byte[] payload = payloadCodec.encode(objectMapper.writeValueAsBytes(eventPayload));
 
             OutboxEvent outboxEvent = OutboxEvent.builder()
                     .aggregateType(aggregateType)
                     .aggregateId(aggregateId)
+                    .shardBucket(OutboxShardLeaseManager.bucketOf(aggregateId, bucketCount))
                     .eventType(eventType)
                     .payload(payload)
-                    .published(false)
                     .build();
 
             outboxEventRepository.save(outboxEvent);
+            eventPublisher.publishEvent(new OutboxEventSaved(aggregateType, aggregateId, eventType));
             log.debug("Saved outbox event: {} for aggregate: {}/{}", eventType, aggregateType, aggregateId);
         } catch (JsonProcessingException e) {
             log.error("Error serializing event payload for {}/{}", aggregateType, aggregateId, e);
@@ -50,35 +66,79 @@ public class OutboxService {
     }
 
     /**
-     * Get unpublished events for processing.
+     * Claim a batch of pending events, hand them to the publisher and move the ids it
+     * reports as sent to the history table with one INSERT ... SELECT and one bulk DELETE.
+     * The claimed rows stay locked (FOR UPDATE SKIP LOCKED) until this transaction ends,
+     * so other relay instances skip them instead of sending them twice.
+     *
+     * @param batchSize maximum number of events to claim
+     * @param publisher publishes the claimed events and returns the ids that were sent
+     * @return number of events claimed
      */
-    @Transactional(readOnly = true)
-    public List<OutboxEvent> getUnpublishedEvents() {
-        return outboxEventRepository.findByPublishedFalseOrderByCreatedAtAsc();
+    @Transactional
+    public int publishBatch(int batchSize, Function<List<OutboxEvent>, List<Long>> publisher) {
+        return publish(outboxEventRepository.claimUnpublishedBatch(batchSize), publisher);
     }
 
     /**
-     * Mark an event as published.
+     * Sharded variant of {@link #publishBatch(int, Function)} that only claims events from the
+     * hash buckets leased by this node.
      */
     @Transactional
-    public void markAsPublished(Long eventId) {
-        OutboxEvent event = outboxEventRepository.findById(eventId)
-                .orElseThrow(() -> new RuntimeException("Outbox event not found: " + eventId));
-        event.setPublished(true);
-        event.setPublishedAt(LocalDateTime.now());
-        outboxEventRepository.save(event);
-        log.debug("Marked outbox event {} as published", eventId);
+    public int publishBatch(int batchSize, Collection<Integer> buckets,
+                            Function<List<OutboxEvent>, List<Long>> publisher) {
+        return publish(outboxEventRepository.claimUnpublishedBatchInBuckets(buckets, batchSize), publisher);
+    }
+
+    private int publish(List<OutboxEvent> batch, Function<List<OutboxEvent>, List<Long>> publisher) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> publishedIds = publisher.apply(batch);
+        archivePublished(publishedIds);
+        log.debug("Archived {}/{} claimed outbox events as published", publishedIds.size(), batch.size());
+        return batch.size();
     }
 
     /**
-     * Clean up old published events (for maintenance).
+     * Move events that are known to be published from the pending table to the history table.
+     * Ids that are no longer pending are ignored.
+     *
+     * @return number of events archived
      */
     @Transactional
+    public int archivePublished(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        int archived = outboxEventRepository.copyToHistory(ids, LocalDateTime.now());
+        outboxEventRepository.deleteByIds(ids);
+        return archived;
+    }
+
+    /**
+     * Move an event that can never be published to the parking table, so it stops blocking the relay.
+     * Called by the publisher while the event is still claimed.
+     */
+    @Transactional
+    public void parkFailed(Long id, String error) {
+        List<Long> ids = List.of(id);
+        String reason = error == null ? "unknown" : error.substring(0, Math.min(error.length(), MAX_ERROR_LENGTH));
+        outboxEventRepository.copyToFailed(ids, LocalDateTime.now(), reason);
+        outboxEventRepository.deleteByIds(ids);
+        log.warn("Parked outbox event {} as unpublishable: {}", id, reason);
+    }
+
+    /**
+     * Clean up old published events (for maintenance).
+     * Drops whole expired history partitions and prepares partitions for the coming days; when several
+     * nodes run it at once, only the one holding the maintenance lock does the work.
+     */
     public void cleanupOldEvents(int daysToKeep) {
-        LocalDateTime cutoffDate = LocalDateTime.now().minusDays(daysToKeep);
-        List<OutboxEvent> oldEvents = outboxEventRepository.findByPublishedTrueAndCreatedAtBefore(cutoffDate);
-        outboxEventRepository.deleteAll(oldEvents);
-        log.info("Cleaned up {} old outbox events", oldEvents.size());
+        int dropped = historyPartitionManager.maintainPartitions(LocalDate.now(), daysToKeep);
+        if (dropped >= 0) {
+            log.info("Dropped {} outbox history partitions older than {} days", dropped, daysToKeep);
+        }
     }
 }
-
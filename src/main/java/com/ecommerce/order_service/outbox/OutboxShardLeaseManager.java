@@ -0,0 +1,186 @@
+package com.ecommerce.order_service.outbox;
+
+import com.ecommerce.order_service.domain.repository.OutboxRelayLeaseRepository;
+import com.ecommerce.order_service.domain.repository.OutboxRelayNodeRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Leases outbox hash buckets to relay nodes when sharding is enabled.
+ * Every aggregate maps to one bucket and every bucket is leased to one node, so each node publishes
+ * a disjoint slice of the outbox in id order and publish throughput grows with the number of nodes.
+ * Nodes heartbeat periodically, take their fair share of free or expired buckets and give back the
+ * surplus when new nodes join; buckets of a dead node are taken over once its lease expires.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OutboxShardLeaseManager {
+
+    private final OutboxRelayLeaseRepository leaseRepository;
+    private final OutboxRelayNodeRepository nodeRepository;
+
+    @Value("${outbox.relay.sharding.enabled:false}")
+    private boolean enabled;
+
+    @Value("${outbox.relay.sharding.bucket-count:64}")
+    private int bucketCount;
+
+    @Value("${outbox.relay.sharding.lease-ttl-ms:15000}")
+    private long leaseTtlMs;
+
+    @Value("${outbox.relay.node-id:}")
+    private String configuredNodeId;
+
+    @Value("${outbox.relay.transactional.enabled:false}")
+    private boolean transactional;
+
+    private String nodeId;
+    private boolean bucketsRegistered;
+    private volatile Set<Integer> ownedBuckets = Set.of();
+    private volatile long ownedUntilNanos;
+
+    /**
+     * The transactional relay derives its Kafka transactional id and checkpoint key from the node id, so it
+     * needs one that survives restarts: a generated id would leave the previous producer unfenced and its
+     * checkpoints unreconciled.
+     */
+    @PostConstruct
+    void init() {
+        if (transactional && configuredNodeId.isBlank()) {
+            throw new IllegalStateException(
+                    "outbox.relay.node-id must be set to a stable value when outbox.relay.transactional.enabled=true");
+        }
+        nodeId = configuredNodeId.isBlank() ? defaultNodeId() : configuredNodeId;
+    }
+
+    /**
+     * Hash bucket of an aggregate; matches MySQL {@code CRC32(aggregate_id) % bucketCount}.
+     */
+    public static int bucketOf(String aggregateId, int bucketCount) {
+        CRC32 crc = new CRC32();
+        crc.update(aggregateId.getBytes(StandardCharsets.UTF_8));
+        return (int) (crc.getValue() % bucketCount);
+    }
+
+    /**
+     * Hash bucket of an aggregate with the configured bucket count.
+     */
+    public int bucketOf(String aggregateId) {
+        return bucketOf(aggregateId, bucketCount);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Buckets this node may publish. Empty once the leases could not be renewed within their
+     * time-to-live, so a node cut off from the database stops claiming buckets others may have taken over.
+     */
+    public Set<Integer> getOwnedBuckets() {
+        if (System.nanoTime() - ownedUntilNanos > 0) {
+            return Set.of();
+        }
+        return ownedBuckets;
+    }
+
+    /**
+     * Renew this node's leases and rebalance towards an equal share of buckets per live node.
+     */
+    @Scheduled(fixedDelayString = "${outbox.relay.sharding.heartbeat-interval-ms:5000}")
+    @Transactional
+    public void heartbeat() {
+        if (!enabled) {
+            return;
+        }
+
+        long startedAt = System.nanoTime();
+        registerBuckets();
+
+        nodeRepository.heartbeat(nodeId);
+        leaseRepository.renewLeases(nodeId, leaseTtlMs);
+
+        long liveNodes = Math.max(1, nodeRepository.countLiveNodes(leaseTtlMs));
+        int fairShare = (int) ((bucketCount + liveNodes - 1) / liveNodes);
+
+        List<Integer> leased = leaseRepository.findLeasedBuckets(nodeId);
+        if (leased.size() > fairShare) {
+            List<Integer> surplus = leased.subList(fairShare, leased.size());
+            leaseRepository.releaseLeases(nodeId, surplus);
+            log.info("Released {} outbox buckets for rebalancing ({} live nodes)", surplus.size(), liveNodes);
+            leased = leased.subList(0, fairShare);
+        } else if (leased.size() < fairShare) {
+            int acquired = leaseRepository.acquireFreeLeases(nodeId, leaseTtlMs, fairShare - leased.size());
+            if (acquired > 0) {
+                log.info("Acquired {} outbox buckets ({} live nodes)", acquired, liveNodes);
+                leased = leaseRepository.findLeasedBuckets(nodeId);
+            }
+        }
+
+        ownedBuckets = Set.copyOf(leased);
+        ownedUntilNanos = startedAt + TimeUnit.MILLISECONDS.toNanos(leaseTtlMs);
+
+        nodeRepository.deleteDeadNodes(leaseTtlMs * 10);
+        log.debug("Node {} owns {} outbox buckets", nodeId, leased.size());
+    }
+
+    /**
+     * Hand all buckets back on shutdown so surviving nodes take them over without waiting for expiry.
+     */
+    @PreDestroy
+    public void releaseAll() {
+        if (!enabled) {
+            return;
+        }
+        Set<Integer> buckets = ownedBuckets;
+        ownedBuckets = Set.of();
+        try {
+            if (!buckets.isEmpty()) {
+                leaseRepository.releaseLeases(nodeId, buckets);
+            }
+            nodeRepository.deleteById(nodeId);
+            log.info("Released {} outbox buckets on shutdown", buckets.size());
+        } catch (Exception e) {
+            log.warn("Failed to release outbox buckets on shutdown; they will expire in {} ms", leaseTtlMs, e);
+        }
+    }
+
+    private void registerBuckets() {
+        if (bucketsRegistered) {
+            return;
+        }
+        for (int bucket = 0; bucket < bucketCount; bucket++) {
+            leaseRepository.insertIfAbsent(bucket);
+        }
+        bucketsRegistered = true;
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "node";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
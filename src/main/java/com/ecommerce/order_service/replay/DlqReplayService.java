@@ -0,0 +1,436 @@
+package com.ecommerce.order_service.replay;
+
+import com.ecommerce.order_service.api.dto.DlqReplayRequest;
+import com.ecommerce.order_service.domain.entity.DlqReplayJob;
+import com.ecommerce.order_service.domain.entity.DlqReplayStatus;
+import com.ecommerce.order_service.domain.repository.DlqReplayJobRepository;
+import com.ecommerce.order_service.kafka.consumer.PaymentEventProcessor;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Replays dead-lettered payment events through {@link PaymentEventProcessor}, the record consumer's logic.
+ * A job reads the DLQ with its own unsubscribed consumer, limited to the offsets present when it started
+ * and optionally filtered by event type and dead-letter time. Records are applied at a bounded rate so a
+ * replay does not starve live traffic, and already processed events are skipped by the inbox.
+ * Progress and the next offset per partition are checkpointed to {@code dlq_replay_jobs}, so a paused
+ * or interrupted job resumes where it stopped. A job runs only on the instance that claimed it with a
+ * conditional update; the lease is renewed while it runs, and another instance may resume it once it expires.
+ * Checkpoints are written under the same condition, and a job whose checkpoint is rejected stops at once.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DlqReplayService {
+
+    private static final Set<DlqReplayStatus> RESUMABLE =
+            EnumSet.of(DlqReplayStatus.PENDING, DlqReplayStatus.RUNNING, DlqReplayStatus.PAUSED, DlqReplayStatus.FAILED);
+
+    private final DlqReplayJobRepository jobRepository;
+    private final ConsumerFactory<String, byte[]> consumerFactory;
+    private final PaymentEventProcessor eventProcessor;
+    private final ObjectMapper objectMapper;
+
+    @Value("${kafka.topics.payments-events}")
+    private String paymentsEventsTopic;
+
+    @Value("${dlq.replay.default-rate-per-second:50}")
+    private int defaultRatePerSecond;
+
+    @Value("${dlq.replay.max-concurrent-jobs:2}")
+    private int maxConcurrentJobs;
+
+    @Value("${dlq.replay.checkpoint-interval:100}")
+    private int checkpointInterval;
+
+    @Value("${dlq.replay.poll-timeout-ms:500}")
+    private long pollTimeoutMs;
+
+    @Value("${dlq.replay.lease-ttl-ms:30000}")
+    private long leaseTtlMs;
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Map<String, AtomicBoolean> runningJobs = new ConcurrentHashMap<>();
+    private ExecutorService executor;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        executor = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "dlq-replay-" + threadIndex.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Stop running jobs at their next record so they checkpoint and can be resumed after the restart.
+     */
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        runningJobs.values().forEach(stop -> stop.set(true));
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("DLQ replay jobs did not stop in time; they resume from their last checkpoint");
+        }
+    }
+
+    /**
+     * Create a replay job and start it in the background.
+     */
+    public DlqReplayJob start(DlqReplayRequest request) {
+        DlqReplayJob job = DlqReplayJob.builder()
+                .jobId(UUID.randomUUID().toString())
+                .topic(request.getTopic() == null || request.getTopic().isBlank()
+                        ? paymentsEventsTopic + ".DLQ"
+                        : request.getTopic())
+                .eventType(request.getEventType())
+                .fromTime(request.getFrom())
+                .toTime(request.getTo())
+                .ratePerSecond(request.getRatePerSecond() == null ? defaultRatePerSecond : request.getRatePerSecond())
+                .status(DlqReplayStatus.PENDING)
+                .build();
+        job = jobRepository.save(job);
+        log.info("Created DLQ replay job {} for {}", job.getJobId(), job.getTopic());
+        return launch(job.getJobId());
+    }
+
+    /**
+     * Resume a paused, failed or interrupted job from its checkpoint.
+     * A RUNNING job is only resumed once the lease of the instance running it has expired.
+     */
+    public DlqReplayJob resume(String jobId) {
+        DlqReplayJob job = getJob(jobId);
+        if (!RESUMABLE.contains(job.getStatus())) {
+            throw new ReplayJobStateException("Replay job " + jobId + " cannot be resumed while " + job.getStatus());
+        }
+        log.info("Resuming DLQ replay job {} from {}", jobId, job.getPositions());
+        return launch(jobId);
+    }
+
+    /**
+     * Ask a running job to stop; it checkpoints and becomes PAUSED after the current record.
+     */
+    public DlqReplayJob pause(String jobId) {
+        AtomicBoolean stop = runningJobs.get(jobId);
+        if (stop == null) {
+            throw new ReplayJobStateException("Replay job " + jobId + " is not running on this instance");
+        }
+        stop.set(true);
+        return getJob(jobId);
+    }
+
+    public DlqReplayJob getJob(String jobId) {
+        return jobRepository.findById(jobId)
+                .orElseThrow(() -> new ReplayJobNotFoundException("Replay job not found: " + jobId));
+    }
+
+    public List<DlqReplayJob> getJobs() {
+        return jobRepository.findAllByOrderByCreatedAtDesc();
+    }
+
+    /**
+     * Claim a job for this instance and run it in the background.
+     */
+    private DlqReplayJob launch(String jobId) {
+        AtomicBoolean stop = new AtomicBoolean();
+        synchronized (runningJobs) {
+            if (runningJobs.containsKey(jobId)) {
+                throw new ReplayJobStateException("Replay job " + jobId + " is already running on this instance");
+            }
+            if (runningJobs.size() >= maxConcurrentJobs) {
+                throw new ReplayJobStateException("Already running " + runningJobs.size() + " replay jobs");
+            }
+            runningJobs.put(jobId, stop);
+        }
+        DlqReplayJob running;
+        try {
+            if (jobRepository.claim(jobId, instanceId, leaseTtlMs) == 0) {
+                throw new ReplayJobStateException("Replay job " + jobId + " is running on another instance or finished");
+            }
+            running = getJob(jobId);
+        } catch (RuntimeException e) {
+            runningJobs.remove(jobId);
+            throw e;
+        }
+        executor.execute(() -> {
+            try {
+                run(running, stop);
+            } finally {
+                runningJobs.remove(running.getJobId());
+            }
+        });
+        return running;
+    }
+
+    /**
+     * Replay a job until its end offsets are reached or it is asked to stop.
+     */
+    void run(DlqReplayJob job, AtomicBoolean stop) {
+        RateLimiter rateLimiter = RateLimiter.of("dlq-replay-" + job.getJobId(), RateLimiterConfig.custom()
+                .limitForPeriod(job.getRatePerSecond())
+                .limitRefreshPeriod(Duration.ofSeconds(1))
+                .timeoutDuration(Duration.ofMillis(pollTimeoutMs))
+                .build());
+
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+        overrides.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(Math.min(500, job.getRatePerSecond())));
+
+        try (Consumer<String, byte[]> consumer =
+                     consumerFactory.createConsumer(null, "dlq-replay-" + job.getJobId(), null, overrides)) {
+            if (job.getPositions() == null) {
+                List<PartitionInfo> infos = consumer.partitionsFor(job.getTopic());
+                if (infos == null || infos.isEmpty()) {
+                    throw new IllegalStateException("Topic " + job.getTopic() + " has no partitions");
+                }
+                if (!initializeRange(consumer, infos.stream()
+                        .map(info -> new TopicPartition(info.topic(), info.partition()))
+                        .toList(), job)) {
+                    return;
+                }
+            }
+            // A resumed job keeps to the partitions and offsets it was started with
+            List<TopicPartition> partitions = job.getEndOffsets().keySet().stream()
+                    .map(partition -> new TopicPartition(job.getTopic(), partition))
+                    .toList();
+            consumer.assign(partitions);
+            partitions.forEach(partition -> consumer.seek(partition, job.getPositions().get(partition.partition())));
+
+            int sinceCheckpoint = 0;
+            long renewLeaseAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(leaseTtlMs / 3);
+            while (!stop.get() && !reachedEnd(job)) {
+                if (System.nanoTime() - renewLeaseAt >= 0) {
+                    if (jobRepository.renewLease(job.getJobId(), instanceId, leaseTtlMs) == 0) {
+                        // Another instance took the job over; its checkpoints win
+                        log.warn("DLQ replay job {} lost its lease at {}; stopping", job.getJobId(), job.getPositions());
+                        return;
+                    }
+                    renewLeaseAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(leaseTtlMs / 3);
+                }
+                for (ConsumerRecord<String, byte[]> record : consumer.poll(Duration.ofMillis(pollTimeoutMs))) {
+                    long end = job.getEndOffsets().get(record.partition());
+                    long next = job.getPositions().get(record.partition());
+                    if (record.offset() < next || record.offset() >= end) {
+                        continue;
+                    }
+                    if (!awaitPermission(rateLimiter, stop)) {
+                        break;
+                    }
+                    replay(record, job);
+                    job.getPositions().put(record.partition(), record.offset() + 1);
+                    if (++sinceCheckpoint >= checkpointInterval) {
+                        if (!checkpoint(job)) {
+                            return;
+                        }
+                        sinceCheckpoint = 0;
+                    }
+                }
+                pauseFinishedPartitions(consumer, partitions, job);
+            }
+
+            if (reachedEnd(job)) {
+                job.setStatus(DlqReplayStatus.COMPLETED);
+                job.setCompletedAt(LocalDateTime.now());
+                log.info("DLQ replay job {} completed: {} replayed, {} skipped, {} failed", job.getJobId(),
+                        job.getReplayedRecords(), job.getSkippedRecords(), job.getFailedRecords());
+            } else {
+                job.setStatus(DlqReplayStatus.PAUSED);
+                log.info("DLQ replay job {} paused at {}", job.getJobId(), job.getPositions());
+            }
+            checkpoint(job);
+        } catch (Exception e) {
+            log.error("DLQ replay job {} failed at {}", job.getJobId(), job.getPositions(), e);
+            job.setStatus(DlqReplayStatus.FAILED);
+            job.setLastError(truncate(e.getMessage()));
+            checkpoint(job);
+        }
+    }
+
+    /**
+     * Resolve the offsets to replay per partition from the job's time range and the current log end.
+     *
+     * @return false if the range could not be checkpointed because the job was taken over
+     */
+    private boolean initializeRange(Consumer<String, byte[]> consumer, List<TopicPartition> partitions, DlqReplayJob job) {
+        Map<TopicPartition, Long> logEnd = consumer.endOffsets(partitions);
+        Map<TopicPartition, Long> start = job.getFromTime() == null
+                ? consumer.beginningOffsets(partitions)
+                : offsetsAt(consumer, partitions, job.getFromTime(), logEnd);
+        Map<TopicPartition, Long> end = job.getToTime() == null
+                ? logEnd
+                : offsetsAt(consumer, partitions, job.getToTime(), logEnd);
+
+        Map<Integer, Long> positions = new HashMap<>();
+        Map<Integer, Long> endOffsets = new HashMap<>();
+        long total = 0;
+        for (TopicPartition partition : partitions) {
+            long from = start.get(partition);
+            long to = Math.max(from, end.get(partition));
+            positions.put(partition.partition(), from);
+            endOffsets.put(partition.partition(), to);
+            total += to - from;
+        }
+        job.setPositions(positions);
+        job.setEndOffsets(endOffsets);
+        job.setTotalRecords(total);
+        log.info("DLQ replay job {} covers {} records of {}", job.getJobId(), total, job.getTopic());
+        return checkpoint(job);
+    }
+
+    private Map<TopicPartition, Long> offsetsAt(Consumer<String, byte[]> consumer, List<TopicPartition> partitions,
+                                                LocalDateTime time, Map<TopicPartition, Long> logEnd) {
+        long timestamp = time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        Map<TopicPartition, Long> query = new HashMap<>();
+        partitions.forEach(partition -> query.put(partition, timestamp));
+
+        Map<TopicPartition, Long> offsets = new HashMap<>();
+        Map<TopicPartition, OffsetAndTimestamp> found = consumer.offsetsForTimes(query);
+        for (TopicPartition partition : partitions) {
+            OffsetAndTimestamp offset = found.get(partition);
+            offsets.put(partition, offset == null ? logEnd.get(partition) : offset.offset());
+        }
+        return offsets;
+    }
+
+    private void replay(ConsumerRecord<String, byte[]> record, DlqReplayJob job) {
+        job.setScannedRecords(job.getScannedRecords() + 1);
+        String eventType = eventType(record);
+        if (!matches(record, eventType, job)) {
+            job.setSkippedRecords(job.getSkippedRecords() + 1);
+            return;
+        }
+        try {
+            if (eventProcessor.process(eventType, record.value())) {
+                job.setReplayedRecords(job.getReplayedRecords() + 1);
+            } else {
+                job.setSkippedRecords(job.getSkippedRecords() + 1);
+            }
+        } catch (Exception e) {
+            log.warn("Replay of {}-{}@{} failed", record.topic(), record.partition(), record.offset(), e);
+            job.setFailedRecords(job.getFailedRecords() + 1);
+            job.setLastError(truncate(record.partition() + "@" + record.offset() + ": " + e.getMessage()));
+        }
+    }
+
+    private static boolean matches(ConsumerRecord<String, byte[]> record, String eventType, DlqReplayJob job) {
+        if (job.getEventType() != null && !job.getEventType().equals(eventType)) {
+            return false;
+        }
+        ZoneId zone = ZoneId.systemDefault();
+        if (job.getFromTime() != null
+                && record.timestamp() < job.getFromTime().atZone(zone).toInstant().toEpochMilli()) {
+            return false;
+        }
+        return job.getToTime() == null
+                || record.timestamp() < job.getToTime().atZone(zone).toInstant().toEpochMilli();
+    }
+
+    private static boolean awaitPermission(RateLimiter rateLimiter, AtomicBoolean stop) {
+        while (!stop.get()) {
+            if (rateLimiter.acquirePermission()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void pauseFinishedPartitions(Consumer<String, byte[]> consumer, List<TopicPartition> partitions,
+                                                DlqReplayJob job) {
+        for (TopicPartition partition : partitions) {
+            if (job.getPositions().get(partition.partition()) >= job.getEndOffsets().get(partition.partition())) {
+                consumer.pause(List.of(partition));
+            }
+        }
+    }
+
+    private static boolean reachedEnd(DlqReplayJob job) {
+        for (Map.Entry<Integer, Long> end : job.getEndOffsets().entrySet()) {
+            if (job.getPositions().get(end.getKey()) < end.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Save the job's progress and status, if this instance still holds the job.
+     *
+     * @return false if another instance took the job over, in which case this run must stop
+     */
+    private boolean checkpoint(DlqReplayJob job) {
+        int updated = jobRepository.saveCheckpoint(job, instanceId, toJson(job.getPositions()), toJson(job.getEndOffsets()));
+        if (updated == 0) {
+            log.warn("DLQ replay job {} is no longer held by this instance; dropping its checkpoint at {}",
+                    job.getJobId(), job.getPositions());
+            return false;
+        }
+        return true;
+    }
+
+    private String toJson(Map<Integer, Long> offsets) {
+        if (offsets == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(offsets);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize replay offsets", e);
+        }
+    }
+
+    private static String eventType(ConsumerRecord<?, ?> record) {
+        Header header = record.headers().lastHeader("eventType");
+        return header == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+    }
+
+    private static String truncate(String message) {
+        return message == null || message.length() <= 1000 ? message : message.substring(0, 1000);
+    }
+
+    public static class ReplayJobNotFoundException extends RuntimeException {
+        public ReplayJobNotFoundException(String message) {
+            super(message);
+        }
+    }
+
+    public static class ReplayJobStateException extends RuntimeException {
+        public ReplayJobStateException(String message) {
+            super(message);
+        }
+    }
+}
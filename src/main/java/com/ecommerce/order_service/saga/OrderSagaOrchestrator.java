@@ -1,12 +1,15 @@
 package com.ecommerce.order_service.saga;
 
+import com.ecommerce.order_service.domain.entity.Order;
 import com.ecommerce.order_service.domain.entity.OrderSaga;
 import com.ecommerce.order_service.domain.entity.OrderStatus;
 import com.ecommerce.order_service.domain.entity.SagaState;
 import com.ecommerce.order_service.domain.repository.OrderSagaRepository;
+import com.ecommerce.order_service.inbox.InboxService;
 import com.ecommerce.order_service.kafka.event.*;
 import com.ecommerce.order_service.outbox.OutboxService;
 import com.ecommerce.order_service.service.OrderService;
+import com.ecommerce.order_service.stream.OrderStatusStreams;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -14,10 +17,24 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Saga Orchestrator for managing order workflow.
  * Coordinates between Order and Payment services using saga pattern.
+ * State changes are compare-and-set updates: a transition is applied with one UPDATE per table,
+ * and an update count of zero identifies a duplicate or stale event, which is then ignored.
+ * Payment results are also recorded in the consumer inbox in the same transaction, so a redelivered
+ * result is skipped before any saga or order statement runs.
+ * Order status changes are pushed to the order event streams once their transaction commits.
  */
 @Slf4j
 @Service
@@ -27,8 +44,14 @@ public class OrderSagaOrchestrator {
     private final OrderSagaRepository sagaRepository;
     private final OrderService orderService;
     private final OutboxService outboxService;
+    private final InboxService inboxService;
+    private final OrderStatusStreams orderStatusStreams;
     private final ObjectMapper objectMapper;
 
+    private static final Set<OrderStatus> AWAITING_PAYMENT = EnumSet.of(OrderStatus.PENDING, OrderStatus.PAYMENT_REQUESTED);
+    private static final Set<SagaState> NOT_FAILED = EnumSet.complementOf(EnumSet.of(SagaState.FAILED));
+    private static final Set<OrderStatus> NOT_FAILED_ORDER = EnumSet.complementOf(EnumSet.of(OrderStatus.FAILED));
+
     /**
      * Start the saga by requesting payment.
      * Triggered after order creation.
@@ -39,13 +62,15 @@ public class OrderSagaOrchestrator {
         log.info("Starting payment request for saga: {}, order: {}", sagaId, orderId);
 
         // Update saga state
-        OrderSaga saga = sagaRepository.findById(sagaId)
-                .orElseThrow(() -> new RuntimeException("Saga not found: " + sagaId));
-        saga.setState(SagaState.PAYMENT_REQUESTED);
-        sagaRepository.save(saga);
+        if (!transitionSaga(sagaId, SagaState.STARTED, SagaState.PAYMENT_REQUESTED)) {
+            log.warn("Payment already requested for saga: {}, ignoring", sagaId);
+            return;
+        }
 
         // Update order status
-        orderService.updateOrderStatus(orderId, OrderStatus.PAYMENT_REQUESTED);
+        if (orderService.transitionOrderStatus(orderId, EnumSet.of(OrderStatus.PENDING), OrderStatus.PAYMENT_REQUESTED)) {
+            orderStatusStreams.publishAfterCommit(orderId, OrderStatus.PAYMENT_REQUESTED);
+        }
 
         // Publish payment request command
         PaymentRequestCommand command = PaymentRequestCommand.builder()
@@ -69,47 +94,26 @@ public class OrderSagaOrchestrator {
     public void handlePaymentSuccess(PaymentSucceededEvent event) {
         log.info("Handling payment success for saga: {}, order: {}", event.getSagaId(), event.getOrderId());
 
+        if (!inboxService.markProcessed(event.messageId())) {
+            log.warn("Ignoring already processed payment success for saga: {}", event.getSagaId());
+            return;
+        }
+
         try {
-            // Update saga state
-            OrderSaga saga = sagaRepository.findById(event.getSagaId())
-                    .orElseThrow(() -> new RuntimeException("Saga not found: " + event.getSagaId()));
-            saga.setState(SagaState.PAYMENT_SUCCEEDED);
-            sagaRepository.save(saga);
-
-            // Update order
-            orderService.updateOrderStatus(event.getOrderId(), OrderStatus.CONFIRMED);
-            orderService.updateOrderPaymentId(event.getOrderId(), event.getPaymentId());
-
-            // Mark saga as completed
-            saga.setState(SagaState.COMPLETED);
-            sagaRepository.save(saga);
-
-            // Publish order confirmed event
-            OrderConfirmedEvent confirmedEvent = OrderConfirmedEvent.builder()
-                    .orderId(event.getOrderId())
-                    .userId(event.getUserId())
-                    .paymentId(event.getPaymentId())
-                    .correlationId(event.getCorrelationId())
-                    .sagaId(event.getSagaId())
-                    .timestamp(LocalDateTime.now())
-                    .build();
-
-            outboxService.saveEvent("Order", event.getOrderId(), "OrderConfirmed", confirmedEvent);
-            log.info("Order confirmed successfully: {}", event.getOrderId());
-
-            // Publish notification request
-            NotificationRequestedCommand notificationCommand = NotificationRequestedCommand.builder()
-                    .orderId(event.getOrderId())
-                    .userId(event.getUserId())
-                    .notificationType("ORDER_CONFIRMED")
-                    .message("Your order " + event.getOrderId() + " has been confirmed.")
-                    .correlationId(event.getCorrelationId())
-                    .sagaId(event.getSagaId())
-                    .timestamp(LocalDateTime.now())
-                    .build();
-
-            outboxService.saveEvent("Order", event.getOrderId(), "NotificationRequested", notificationCommand);
-            log.info("Notification request published for order: {}", event.getOrderId());
+            // Complete the saga; PAYMENT_SUCCEEDED would only be visible inside this transaction, so it is skipped
+            if (!transitionSaga(event.getSagaId(), SagaState.PAYMENT_REQUESTED, SagaState.COMPLETED)) {
+                log.warn("Ignoring duplicate or stale payment success for saga: {}", event.getSagaId());
+                return;
+            }
+
+            // Confirm the order and record the payment in one statement
+            if (!orderService.transitionOrderStatus(event.getOrderId(), AWAITING_PAYMENT, OrderStatus.CONFIRMED,
+                    event.getPaymentId())) {
+                throw new IllegalStateException("Order " + event.getOrderId() + " is no longer awaiting payment");
+            }
+
+            publishOrderConfirmed(event);
+            orderStatusStreams.publishAfterCommit(event.getOrderId(), OrderStatus.CONFIRMED);
 
         } catch (Exception e) {
             log.error("Error handling payment success for order: {}", event.getOrderId(), e);
@@ -125,20 +129,21 @@ public class OrderSagaOrchestrator {
     public void handlePaymentFailure(PaymentFailedEvent event) {
         log.info("Handling payment failure for saga: {}, order: {}", event.getSagaId(), event.getOrderId());
 
+        if (!inboxService.markProcessed(event.messageId())) {
+            log.warn("Ignoring already processed payment failure for saga: {}", event.getSagaId());
+            return;
+        }
+
         try {
-            // Update saga state
-            OrderSaga saga = sagaRepository.findById(event.getSagaId())
-                    .orElseThrow(() -> new RuntimeException("Saga not found: " + event.getSagaId()));
-            saga.setState(SagaState.PAYMENT_FAILED);
-            sagaRepository.save(saga);
+            // Mark saga as compensated; PAYMENT_FAILED would only be visible inside this transaction, so it is skipped
+            if (!transitionSaga(event.getSagaId(), SagaState.PAYMENT_REQUESTED, SagaState.COMPENSATED)) {
+                log.warn("Ignoring duplicate or stale payment failure for saga: {}", event.getSagaId());
+                return;
+            }
 
             // Compensate: Cancel the order
             compensateOrder(event.getOrderId(), event.getReason(), event.getCorrelationId(), event.getSagaId());
 
-            // Mark saga as compensated
-            saga.setState(SagaState.COMPENSATED);
-            sagaRepository.save(saga);
-
             log.info("Order compensated due to payment failure: {}", event.getOrderId());
 
         } catch (Exception e) {
@@ -154,8 +159,133 @@ public class OrderSagaOrchestrator {
         log.info("Compensating order: {} due to: {}", orderId, reason);
 
         // Update order status to cancelled
-        orderService.updateOrderStatus(orderId, OrderStatus.CANCELLED);
+        if (!orderService.transitionOrderStatus(orderId, AWAITING_PAYMENT, OrderStatus.CANCELLED)) {
+            throw new IllegalStateException("Order " + orderId + " is no longer awaiting payment");
+        }
+
+        publishOrderCancelled(orderId, reason, correlationId, sagaId);
+        orderStatusStreams.publishAfterCommit(orderId, OrderStatus.CANCELLED);
+    }
+
+    /**
+     * Apply a batch of payment results in one transaction with bulk statements.
+     * Sagas and orders are locked with one SELECT ... FOR UPDATE each (in key order, so concurrent
+     * batches cannot deadlock), after the results have been recorded in the inbox in the same order.
+     * Saga states are then moved with one UPDATE per target state, and the
+     * orders are updated in one JDBC batch. Results for sagas that are no longer awaiting payment,
+     * and repeated results for a saga within the batch, are ignored as duplicates. A result whose
+     * order is no longer awaiting payment fails the saga, as {@link #handlePaymentSuccess} does.
+     *
+     * @param events {@link PaymentSucceededEvent}s and {@link PaymentFailedEvent}s in consumption order
+     * @return number of results applied
+     */
+    @Transactional
+    public int applyPaymentResults(List<?> events) {
+        Map<String, Object> resultBySaga = new LinkedHashMap<>();
+        for (Object event : events) {
+            String sagaId = switch (event) {
+                case PaymentSucceededEvent succeeded -> succeeded.getSagaId();
+                case PaymentFailedEvent failed -> failed.getSagaId();
+                default -> throw new IllegalArgumentException("Not a payment result: " + event);
+            };
+            resultBySaga.putIfAbsent(sagaId, event);
+        }
+        Set<String> alreadyProcessed = new HashSet<>();
+        resultBySaga.entrySet().stream()
+                .sorted(Comparator.comparing(entry -> messageIdOf(entry.getValue())))
+                .filter(entry -> !inboxService.markProcessed(messageIdOf(entry.getValue())))
+                .forEach(entry -> alreadyProcessed.add(entry.getKey()));
+        resultBySaga.keySet().removeAll(alreadyProcessed);
+        if (resultBySaga.isEmpty()) {
+            return 0;
+        }
 
+        Set<String> awaitingSagas = new HashSet<>(
+                sagaRepository.lockInState(resultBySaga.keySet(), SagaState.PAYMENT_REQUESTED.name()));
+        resultBySaga.keySet().retainAll(awaitingSagas);
+
+        Map<String, Order> orders = orderService.lockOrders(resultBySaga.values().stream()
+                .map(OrderSagaOrchestrator::orderIdOf)
+                .toList());
+
+        Map<SagaState, List<String>> sagasByTargetState = new EnumMap<>(SagaState.class);
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<String, Object> entry : resultBySaga.entrySet()) {
+            Order order = orders.get(orderIdOf(entry.getValue()));
+            SagaState target;
+            if (order == null || !AWAITING_PAYMENT.contains(order.getStatus())) {
+                log.error("Saga failed for order: {}, reason: order is no longer awaiting payment", orderIdOf(entry.getValue()));
+                if (order != null) {
+                    order.setStatus(OrderStatus.FAILED);
+                }
+                target = SagaState.FAILED;
+            } else if (entry.getValue() instanceof PaymentSucceededEvent succeeded) {
+                order.setStatus(OrderStatus.CONFIRMED);
+                order.setPaymentId(succeeded.getPaymentId());
+                publishOrderConfirmed(succeeded);
+                target = SagaState.COMPLETED;
+            } else {
+                PaymentFailedEvent failed = (PaymentFailedEvent) entry.getValue();
+                order.setStatus(OrderStatus.CANCELLED);
+                publishOrderCancelled(failed.getOrderId(), failed.getReason(), failed.getCorrelationId(), failed.getSagaId());
+                target = SagaState.COMPENSATED;
+            }
+            if (order != null) {
+                orderStatusStreams.publishAfterCommit(order.getOrderId(), order.getStatus());
+            }
+            sagasByTargetState.computeIfAbsent(target, state -> new ArrayList<>()).add(entry.getKey());
+        }
+
+        sagasByTargetState.forEach((target, sagaIds) -> sagaRepository.transitionStates(
+                sagaIds, EnumSet.of(SagaState.PAYMENT_REQUESTED), target, now));
+
+        log.info("Applied {} payment results in bulk ({} duplicates ignored)", resultBySaga.size(),
+                events.size() - resultBySaga.size());
+        return resultBySaga.size();
+    }
+
+    private static String orderIdOf(Object event) {
+        return event instanceof PaymentSucceededEvent succeeded
+                ? succeeded.getOrderId()
+                : ((PaymentFailedEvent) event).getOrderId();
+    }
+
+    private static String messageIdOf(Object event) {
+        return event instanceof PaymentSucceededEvent succeeded
+                ? succeeded.messageId()
+                : ((PaymentFailedEvent) event).messageId();
+    }
+
+    private void publishOrderConfirmed(PaymentSucceededEvent event) {
+        // Publish order confirmed event
+        OrderConfirmedEvent confirmedEvent = OrderConfirmedEvent.builder()
+                .orderId(event.getOrderId())
+                .userId(event.getUserId())
+                .paymentId(event.getPaymentId())
+                .correlationId(event.getCorrelationId())
+                .sagaId(event.getSagaId())
+                .timestamp(LocalDateTime.now())
+                .build();
+
+        outboxService.saveEvent("Order", event.getOrderId(), "OrderConfirmed", confirmedEvent);
+        log.info("Order confirmed successfully: {}", event.getOrderId());
+
+        // Publish notification request
+        NotificationRequestedCommand notificationCommand = NotificationRequestedCommand.builder()
+                .orderId(event.getOrderId())
+                .userId(event.getUserId())
+                .notificationType("ORDER_CONFIRMED")
+                .message("Your order " + event.getOrderId() + " has been confirmed.")
+                .correlationId(event.getCorrelationId())
+                .sagaId(event.getSagaId())
+                .timestamp(LocalDateTime.now())
+                .build();
+
+        outboxService.saveEvent("Order", event.getOrderId(), "NotificationRequested", notificationCommand);
+        log.info("Notification request published for order: {}", event.getOrderId());
+    }
+
+    private void publishOrderCancelled(String orderId, String reason, String correlationId, String sagaId) {
         // Publish order cancelled event
         OrderCancelledEvent cancelledEvent = OrderCancelledEvent.builder()
                 .orderId(orderId)
@@ -175,12 +305,14 @@ public class OrderSagaOrchestrator {
     private void handleSagaFailure(String sagaId, String orderId, String reason) {
         log.error("Saga failed for order: {}, reason: {}", orderId, reason);
 
-        OrderSaga saga = sagaRepository.findById(sagaId)
-                .orElseThrow(() -> new RuntimeException("Saga not found: " + sagaId));
-        saga.setState(SagaState.FAILED);
-        sagaRepository.save(saga);
+        sagaRepository.transitionState(sagaId, NOT_FAILED, SagaState.FAILED, LocalDateTime.now());
+        if (orderService.transitionOrderStatus(orderId, NOT_FAILED_ORDER, OrderStatus.FAILED)) {
+            orderStatusStreams.publishAfterCommit(orderId, OrderStatus.FAILED);
+        }
+    }
 
-        orderService.updateOrderStatus(orderId, OrderStatus.FAILED);
+    private boolean transitionSaga(String sagaId, SagaState from, SagaState to) {
+        return sagaRepository.transitionState(sagaId, EnumSet.of(from), to, LocalDateTime.now()) == 1;
     }
 
     /**
@@ -0,0 +1,106 @@
+package com.ecommerce.order_service.service;
+
+import com.ecommerce.order_service.api.dto.BatchCreateOrderResponse;
+import com.ecommerce.order_service.api.dto.BatchOrderRequest;
+import com.ecommerce.order_service.api.dto.BatchOrderResult;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Bulk order creation.
+ * Orders are placed in chunks of {@code orders.batch.chunk-size}, each chunk in its own transaction
+ * ({@link OrderService#placeOrders}), so a large batch neither holds one long transaction nor pays for one
+ * transaction per order. If a chunk fails, its orders are retried one per transaction, so one bad order
+ * only fails its own result; an order whose idempotency key was stored concurrently is reported as a DUPLICATE
+ * with the stored response.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderBatchService {
+
+    private final OrderService orderService;
+
+    @Value("${orders.batch.chunk-size:100}")
+    private int chunkSize;
+
+    /**
+     * Place orders and report the outcome of each, in request order.
+     */
+    public BatchCreateOrderResponse placeOrders(List<BatchOrderRequest> orders, String correlationId) {
+        log.info("Placing batch of {} orders in chunks of {}", orders.size(), chunkSize);
+
+        List<BatchOrderResult> results = new ArrayList<>(orders.size());
+        for (int from = 0; from < orders.size(); from += chunkSize) {
+            List<BatchOrderRequest> chunk = orders.subList(from, Math.min(from + chunkSize, orders.size()));
+            List<BatchOrderResult> chunkResults = placeChunk(chunk, correlationId);
+            for (int i = 0; i < chunkResults.size(); i++) {
+                chunkResults.get(i).setIndex(from + i);
+            }
+            results.addAll(chunkResults);
+        }
+
+        return BatchCreateOrderResponse.builder()
+                .created(count(results, BatchOrderResult.Status.CREATED))
+                .duplicates(count(results, BatchOrderResult.Status.DUPLICATE))
+                .failed(count(results, BatchOrderResult.Status.FAILED))
+                .results(results)
+                .build();
+    }
+
+    private List<BatchOrderResult> placeChunk(List<BatchOrderRequest> chunk, String correlationId) {
+        try {
+            return orderService.placeOrders(chunk, correlationId);
+        } catch (RuntimeException e) {
+            log.warn("Chunk of {} orders failed; placing them one at a time", chunk.size(), e);
+        }
+
+        List<BatchOrderResult> results = new ArrayList<>(chunk.size());
+        for (BatchOrderRequest order : chunk) {
+            try {
+                results.add(orderService.placeOrders(List.of(order), correlationId).get(0));
+            } catch (DataIntegrityViolationException e) {
+                // A concurrent request may have stored the same idempotency key; then the order exists already
+                results.add(storedDuplicate(order).orElseGet(() -> failed(order, e)));
+            } catch (RuntimeException e) {
+                results.add(failed(order, e));
+            }
+        }
+        return results;
+    }
+
+    private Optional<BatchOrderResult> storedDuplicate(BatchOrderRequest order) {
+        if (order.getIdempotencyKey() == null) {
+            return Optional.empty();
+        }
+        return orderService.findIdempotentResponse(order.getIdempotencyKey())
+                .map(stored -> {
+                    log.info("Duplicate request detected with idempotency key: {}", order.getIdempotencyKey());
+                    return BatchOrderResult.builder()
+                            .idempotencyKey(order.getIdempotencyKey())
+                            .status(BatchOrderResult.Status.DUPLICATE)
+                            .order(stored)
+                            .build();
+                });
+    }
+
+    private static BatchOrderResult failed(BatchOrderRequest order, RuntimeException e) {
+        log.error("Failed to place order for user: {}", order.getOrder().getUserId(), e);
+        return BatchOrderResult.builder()
+                .idempotencyKey(order.getIdempotencyKey())
+                .status(BatchOrderResult.Status.FAILED)
+                .error("Order could not be placed")
+                .build();
+    }
+
+    private static int count(List<BatchOrderResult> results, BatchOrderResult.Status status) {
+        return (int) results.stream().filter(result -> result.getStatus() == status).count();
+    }
+}
@@ -6,6 +6,10 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  * Service to generate unique human-readable order IDs.
@@ -48,6 +52,41 @@ public class OrderIdGenerator {
         throw new IllegalStateException("Failed to generate unique order ID after " + MAX_RETRIES + " attempts");
     }
 
+    /**
+     * Generate {@code count} distinct unique order IDs for a chunk of orders.
+     * All candidates are checked with one query per attempt instead of one per ID, and before any order
+     * of the chunk is saved, so the query does not flush pending inserts and they stay batched.
+     *
+     * @return unique order IDs, in no particular order
+     * @throws IllegalStateException if unable to generate enough unique IDs after MAX_RETRIES
+     */
+    public List<String> generateOrderIds(int count) {
+        Set<String> orderIds = new LinkedHashSet<>(count);
+        for (int attempt = 0; attempt < MAX_RETRIES && orderIds.size() < count; attempt++) {
+            Set<String> candidates = new LinkedHashSet<>();
+            while (orderIds.size() + candidates.size() < count) {
+                String orderId = generateRandomOrderId();
+                if (!orderIds.contains(orderId)) {
+                    candidates.add(orderId);
+                }
+            }
+
+            List<String> taken = orderRepository.findExistingOrderIds(candidates);
+            if (!taken.isEmpty()) {
+                log.warn("Order ID collisions detected: {}, retrying... (attempt {}/{})",
+                        taken, attempt + 1, MAX_RETRIES);
+                taken.forEach(candidates::remove);
+            }
+            orderIds.addAll(candidates);
+        }
+
+        if (orderIds.size() < count) {
+            throw new IllegalStateException("Failed to generate " + count + " unique order IDs after "
+                    + MAX_RETRIES + " attempts");
+        }
+        return new ArrayList<>(orderIds);
+    }
+
     /**
      * Generate a random order ID without uniqueness check.
      * Format: ORD-XXXXXXXXXX
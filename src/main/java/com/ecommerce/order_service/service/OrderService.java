@@ -1,27 +1,47 @@
 package com.ecommerce.order_service.service;
 
+import com.ecommerce.order_service.api.dto.BatchOrderRequest;
+import com.ecommerce.order_service.api.dto.BatchOrderResult;
 import com.ecommerce.order_service.api.dto.CreateOrderRequest;
+import com.ecommerce.order_service.api.dto.CursorPage;
+import com.ecommerce.order_service.api.dto.OrderItemResponse;
+import com.ecommerce.order_service.api.dto.OrderProjectionResponse;
 import com.ecommerce.order_service.api.dto.OrderResponse;
 import com.ecommerce.order_service.api.mapper.OrderMapper;
+import com.ecommerce.order_service.cache.OrderCache;
 import com.ecommerce.order_service.domain.entity.*;
 import com.ecommerce.order_service.domain.repository.IdempotencyKeyRepository;
+import com.ecommerce.order_service.domain.repository.OrderField;
+import com.ecommerce.order_service.domain.repository.OrderProjectionRepository;
 import com.ecommerce.order_service.domain.repository.OrderRepository;
 import com.ecommerce.order_service.domain.repository.OrderSagaRepository;
 import com.ecommerce.order_service.kafka.event.OrderCreatedEvent;
 import com.ecommerce.order_service.kafka.event.OrderLineEvent;
+import com.ecommerce.order_service.kafka.event.PaymentRequestCommand;
 import com.ecommerce.order_service.outbox.OutboxService;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -34,12 +54,20 @@ import java.util.stream.Collectors;
 public class OrderService {
 
     private final OrderRepository orderRepository;
+    private final OrderProjectionRepository orderProjectionRepository;
     private final OrderSagaRepository sagaRepository;
     private final IdempotencyKeyRepository idempotencyKeyRepository;
     private final OutboxService outboxService;
     private final OrderMapper orderMapper;
     private final ObjectMapper objectMapper;
     private final OrderIdGenerator orderIdGenerator;
+    private final OrderCache orderCache;
+
+    @Value("${orders.history.default-page-size:20}")
+    private int defaultPageSize;
+
+    @Value("${orders.history.max-page-size:100}")
+    private int maxPageSize;
 
     /**
      * Create a new order with idempotency support.
@@ -47,23 +75,107 @@ public class OrderService {
      */
     @Transactional
     public OrderResponse createOrder(CreateOrderRequest request, String idempotencyKey, String correlationId) {
+        return createOrder(request, idempotencyKey, correlationId, false);
+    }
+
+    /**
+     * Create an order and request its payment in a single transaction.
+     * The order, its lines, the saga (already in PAYMENT_REQUESTED) and the OrderCreated and
+     * PaymentRequested outbox events are written together, so nothing has to be read back
+     * in a second transaction to start the saga.
+     */
+    @Transactional
+    public OrderResponse placeOrder(CreateOrderRequest request, String idempotencyKey, String correlationId) {
+        return createOrder(request, idempotencyKey, correlationId, true);
+    }
+
+    private OrderResponse createOrder(CreateOrderRequest request, String idempotencyKey, String correlationId,
+                                      boolean requestPayment) {
         log.info("Creating order for user: {} with correlationId: {}", request.getUserId(), correlationId);
 
         // Check idempotency
+        IdempotencyKey existingKey = null;
         if (idempotencyKey != null) {
-            IdempotencyKey existingKey = idempotencyKeyRepository.findById(idempotencyKey).orElse(null);
+            existingKey = idempotencyKeyRepository.findById(idempotencyKey).orElse(null);
             if (existingKey != null && existingKey.getExpiresAt().isAfter(LocalDateTime.now())) {
                 log.info("Duplicate request detected with idempotency key: {}", idempotencyKey);
-                try {
-                    return objectMapper.readValue(existingKey.getResponsePayload(), OrderResponse.class);
-                } catch (JsonProcessingException e) {
-                    log.error("Error deserializing cached response", e);
+                OrderResponse storedResponse = readStoredResponse(existingKey);
+                if (storedResponse != null) {
+                    return storedResponse;
                 }
             }
         }
 
-        // Generate IDs
-        String orderId = orderIdGenerator.generateOrderId();
+        OrderResponse response = persistOrder(orderIdGenerator.generateOrderId(), request, correlationId, requestPayment);
+
+        // Store idempotency key
+        if (idempotencyKey != null) {
+            storeIdempotencyKey(idempotencyKey, existingKey, response);
+        }
+
+        return response;
+    }
+
+    /**
+     * Place a chunk of orders in one transaction, as {@link #placeOrder} does for each of them.
+     * Idempotency keys and order IDs are each checked with one query up front, so nothing is read between the
+     * saves and the orders, lines, sagas, outbox events and idempotency keys are written with batched INSERTs
+     * when the transaction flushes. A key that is
+     * already stored, or used earlier in the chunk, yields a DUPLICATE result with the stored response.
+     *
+     * @return one result per order, in chunk order, with indexes relative to the chunk
+     */
+    @Transactional
+    public List<BatchOrderResult> placeOrders(List<BatchOrderRequest> chunk, String correlationId) {
+        Set<String> keys = chunk.stream()
+                .map(BatchOrderRequest::getIdempotencyKey)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<String, IdempotencyKey> storedKeys = keys.isEmpty()
+                ? Map.of()
+                : idempotencyKeyRepository.findAllById(keys).stream()
+                        .collect(Collectors.toMap(IdempotencyKey::getIdempotencyKey, Function.identity()));
+
+        Iterator<String> orderIds = orderIdGenerator.generateOrderIds(chunk.size()).iterator();
+        Map<String, OrderResponse> placedInChunk = new HashMap<>();
+        List<IdempotencyKey> newKeys = new ArrayList<>();
+        List<BatchOrderResult> results = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            String key = chunk.get(i).getIdempotencyKey();
+            OrderResponse duplicate = key == null ? null : placedInChunk.get(key);
+            IdempotencyKey storedKey = key == null ? null : storedKeys.get(key);
+            if (duplicate == null && storedKey != null && storedKey.getExpiresAt().isAfter(LocalDateTime.now())) {
+                duplicate = readStoredResponse(storedKey);
+            }
+            if (duplicate != null) {
+                log.info("Duplicate request detected with idempotency key: {}", key);
+                results.add(result(i, key, BatchOrderResult.Status.DUPLICATE, duplicate));
+                continue;
+            }
+
+            OrderResponse response = persistOrder(orderIds.next(), chunk.get(i).getOrder(), correlationId, true);
+            if (key != null) {
+                placedInChunk.put(key, response);
+                newKeys.add(toIdempotencyKey(key, storedKey, response));
+            }
+            results.add(result(i, key, BatchOrderResult.Status.CREATED, response));
+        }
+
+        idempotencyKeyRepository.saveAll(newKeys);
+        return results;
+    }
+
+    /**
+     * Stored response of an idempotency key that has not expired, if any.
+     */
+    public Optional<OrderResponse> findIdempotentResponse(String idempotencyKey) {
+        return idempotencyKeyRepository.findById(idempotencyKey)
+                .filter(key -> key.getExpiresAt().isAfter(LocalDateTime.now()))
+                .map(this::readStoredResponse);
+    }
+
+    private OrderResponse persistOrder(String orderId, CreateOrderRequest request, String correlationId,
+                                       boolean requestPayment) {
         String sagaId = UUID.randomUUID().toString();
 
         // Calculate total amount
@@ -75,7 +187,7 @@ public class OrderService {
         Order order = Order.builder()
                 .orderId(orderId)
                 .userId(request.getUserId())
-                .status(OrderStatus.PENDING)
+                .status(requestPayment ? OrderStatus.PAYMENT_REQUESTED : OrderStatus.PENDING)
                 .totalAmount(totalAmount)
                 .shippingAddress(request.getShippingAddress())
                 .build();
@@ -89,46 +201,158 @@ public class OrderService {
         order = orderRepository.save(order);
 
         // Create saga
-        OrderSaga saga = createSaga(orderId, sagaId, SagaState.STARTED, order);
-        sagaRepository.save(saga);
+        OrderCreatedEvent createdEvent = toOrderCreatedEvent(order, correlationId, sagaId);
+        SagaState sagaState = requestPayment ? SagaState.PAYMENT_REQUESTED : SagaState.STARTED;
+        sagaRepository.save(createSaga(orderId, sagaId, sagaState, createdEvent));
 
-        // Publish OrderCreated event via outbox
-        publishOrderCreatedEvent(order, correlationId, sagaId);
+        // Publish OrderCreated event (and the payment request on the fused path) via outbox
+        outboxService.saveEvent("Order", orderId, "OrderCreated", createdEvent);
+        if (requestPayment) {
+            publishPaymentRequestedCommand(order, correlationId, sagaId);
+        }
 
         // Prepare response
         OrderResponse response = orderMapper.toResponse(order);
         // ensure caller has the sagaId so orchestrator can find the persisted saga
         response.setSagaId(sagaId);
 
-        // Store idempotency key
-        if (idempotencyKey != null) {
-            storeIdempotencyKey(idempotencyKey, response);
-        }
-
         log.info("Order created successfully: {} with sagaId: {}", orderId, sagaId);
         return response;
     }
 
     /**
-     * Get order by ID.
+     * Get order by ID, from the order cache if present.
+     * Not transactional, so a cache hit does not take a database connection; on a miss the repository
+     * loads the order and its lines in one query in its own read-only transaction.
      */
-    @Transactional(readOnly = true)
     public OrderResponse getOrderById(String orderId) {
         log.debug("Fetching order: {}", orderId);
-        Order order = orderRepository.findByOrderId(orderId)
+        Optional<OrderResponse> cached = orderCache.get(orderId);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        Order order = orderRepository.findWithLinesByOrderId(orderId)
+                .orElseThrow(() -> new OrderNotFoundException("Order not found: " + orderId));
+        OrderResponse response = orderMapper.toResponse(order);
+        orderCache.put(response);
+        return response;
+    }
+
+    /**
+     * Current version of an order, for conditional GETs.
+     * Always read from the database with a version-only query, so the entity is not loaded; the cache may still
+     * hold the previous version right after a commit, which would answer 304 for a changed order.
+     */
+    public long getOrderVersion(String orderId) {
+        return orderRepository.findVersionByOrderId(orderId)
+                .orElseThrow(() -> new OrderNotFoundException("Order not found: " + orderId));
+    }
+
+    /**
+     * Current status of an order, for the first event of a status stream.
+     * Read from the database with a status-only query: the cache may still hold the previous status right after
+     * a commit, and that change's event may already have gone out before the stream subscribed.
+     */
+    public OrderStatus getOrderStatus(String orderId) {
+        return orderRepository.findStatusByOrderId(orderId)
                 .orElseThrow(() -> new OrderNotFoundException("Order not found: " + orderId));
-        return orderMapper.toResponse(order);
     }
 
     /**
-     * Get all orders for a user.
+     * Get a page of a user's orders, newest first.
+     *
+     * @param cursor token from the previous page's {@code nextCursor}, or null for the first page
+     * @param limit  page size, or null for the default; capped at the maximum page size
      */
     @Transactional(readOnly = true)
-    public List<OrderResponse> getOrdersByUserId(String userId) {
-        log.debug("Fetching orders for user: {}", userId);
-        return orderRepository.findByUserIdOrderByCreatedAtDesc(userId).stream()
-                .map(orderMapper::toResponse)
-                .collect(Collectors.toList());
+    public CursorPage<OrderResponse> getOrdersByUserId(String userId, String cursor, Integer limit) {
+        log.debug("Fetching orders for user: {} after cursor: {}", userId, cursor);
+        int pageSize = pageSize(limit);
+
+        // One extra row tells whether another page follows without a count query
+        List<Order> orders;
+        if (cursor == null || cursor.isBlank()) {
+            orders = orderRepository.findHistoryPage(userId, Limit.of(pageSize + 1));
+        } else {
+            OrderCursor position = decodeCursor(cursor);
+            orders = orderRepository.findHistoryPageAfter(userId, position.createdAt(), position.id(),
+                    Limit.of(pageSize + 1));
+        }
+
+        boolean hasMore = orders.size() > pageSize;
+        List<Order> page = hasMore ? orders.subList(0, pageSize) : orders;
+        if (!page.isEmpty()) {
+            // Loads the lines of the whole page in one query instead of one per order during mapping
+            orderRepository.fetchOrderLines(page.stream().map(Order::getId).toList());
+        }
+        String nextCursor = null;
+        if (hasMore) {
+            Order last = page.get(page.size() - 1);
+            nextCursor = new OrderCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return CursorPage.<OrderResponse>builder()
+                .items(page.stream().map(orderMapper::toResponse).collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * Get a page of a user's orders with only the selected fields, newest first.
+     * Columns are selected straight into response DTOs, without loading entities.
+     *
+     * @param fields comma-separated field names, e.g. {@code orderId,status,totalAmount}
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<OrderProjectionResponse> getOrderProjectionsByUserId(String userId, String cursor, Integer limit,
+                                                                           String fields) {
+        log.debug("Fetching order fields {} for user: {} after cursor: {}", fields, userId, cursor);
+        Set<OrderField> selected = parseFields(fields);
+        int pageSize = pageSize(limit);
+        OrderCursor position = cursor == null || cursor.isBlank() ? null : decodeCursor(cursor);
+
+        List<OrderProjectionRepository.ProjectedOrder> orders = orderProjectionRepository.findHistoryPage(userId,
+                position == null ? null : position.createdAt(), position == null ? null : position.id(),
+                selected, pageSize + 1);
+
+        boolean hasMore = orders.size() > pageSize;
+        List<OrderProjectionRepository.ProjectedOrder> page = hasMore ? orders.subList(0, pageSize) : orders;
+        if (selected.contains(OrderField.ITEMS)) {
+            Map<Long, List<OrderItemResponse>> items = orderProjectionRepository.findItems(
+                    page.stream().map(OrderProjectionRepository.ProjectedOrder::id).toList());
+            page.forEach(order -> order.order().setItems(items.getOrDefault(order.id(), List.of())));
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            OrderProjectionRepository.ProjectedOrder last = page.get(page.size() - 1);
+            nextCursor = new OrderCursor(last.createdAt(), last.id()).encode();
+        }
+        return CursorPage.<OrderProjectionResponse>builder()
+                .items(page.stream().map(OrderProjectionRepository.ProjectedOrder::order).collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    private int pageSize(Integer limit) {
+        return limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+    }
+
+    private static Set<OrderField> parseFields(String fields) {
+        try {
+            return OrderField.parse(fields);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidFieldsException("Invalid fields: " + e.getMessage());
+        }
+    }
+
+    private static OrderCursor decodeCursor(String cursor) {
+        try {
+            return OrderCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor: " + cursor);
+        }
     }
 
     /**
@@ -141,6 +365,7 @@ public class OrderService {
                 .orElseThrow(() -> new OrderNotFoundException("Order not found: " + orderId));
         order.setStatus(status);
         orderRepository.save(order);
+        orderCache.evictAfterCommit(orderId);
     }
 
     /**
@@ -153,9 +378,59 @@ public class OrderService {
                 .orElseThrow(() -> new OrderNotFoundException("Order not found: " + orderId));
         order.setPaymentId(paymentId);
         orderRepository.save(order);
+        orderCache.evictAfterCommit(orderId);
     }
 
-    private void publishOrderCreatedEvent(Order order, String correlationId, String sagaId) {
+    /**
+     * Move an order to {@code status} only if it is currently in one of the {@code expected} statuses.
+     *
+     * @return true if the order was updated, false if it is missing or already in another status
+     */
+    @Transactional
+    public boolean transitionOrderStatus(String orderId, Collection<OrderStatus> expected, OrderStatus status) {
+        log.info("Transitioning order {} from {} to status: {}", orderId, expected, status);
+        if (orderRepository.transitionStatus(orderId, expected, status, LocalDateTime.now()) != 1) {
+            return false;
+        }
+        orderCache.evictAfterCommit(orderId);
+        return true;
+    }
+
+    /**
+     * Move an order to {@code status} and record its payment ID, only if it is currently in one of the
+     * {@code expected} statuses.
+     *
+     * @return true if the order was updated, false if it is missing or already in another status
+     */
+    @Transactional
+    public boolean transitionOrderStatus(String orderId, Collection<OrderStatus> expected, OrderStatus status,
+                                         String paymentId) {
+        log.info("Transitioning order {} from {} to status: {} with payment ID: {}", orderId, expected, status, paymentId);
+        if (orderRepository.transitionStatusWithPayment(orderId, expected, status, paymentId, LocalDateTime.now()) != 1) {
+            return false;
+        }
+        orderCache.evictAfterCommit(orderId);
+        return true;
+    }
+
+    /**
+     * Load and lock orders for a bulk update in the caller's transaction.
+     * Changes made to the returned entities are flushed as one JDBC batch on commit.
+     *
+     * @return orders keyed by business order ID; missing orders are absent
+     */
+    @Transactional
+    public Map<String, Order> lockOrders(Collection<String> orderIds) {
+        if (orderIds.isEmpty()) {
+            return Map.of();
+        }
+        // Callers change the locked orders, so their cache entries are dropped once the batch commits
+        orderIds.forEach(orderCache::evictAfterCommit);
+        return orderRepository.lockByOrderIds(orderIds).stream()
+                .collect(Collectors.toMap(Order::getOrderId, Function.identity()));
+    }
+
+    private OrderCreatedEvent toOrderCreatedEvent(Order order, String correlationId, String sagaId) {
         List<OrderLineEvent> lineEvents = order.getOrderLines().stream()
                 .map(line -> OrderLineEvent.builder()
                         .productId(line.getProductId())
@@ -165,7 +440,7 @@ public class OrderService {
                         .build())
                 .collect(Collectors.toList());
 
-        OrderCreatedEvent event = OrderCreatedEvent.builder()
+        return OrderCreatedEvent.builder()
                 .orderId(order.getOrderId())
                 .userId(order.getUserId())
                 .totalAmount(order.getTotalAmount())
@@ -175,13 +450,25 @@ public class OrderService {
                 .sagaId(sagaId)
                 .timestamp(LocalDateTime.now())
                 .build();
+    }
+
+    private void publishPaymentRequestedCommand(Order order, String correlationId, String sagaId) {
+        PaymentRequestCommand command = PaymentRequestCommand.builder()
+                .orderId(order.getOrderId())
+                .userId(order.getUserId())
+                .amount(order.getTotalAmount())
+                .correlationId(correlationId)
+                .sagaId(sagaId)
+                .timestamp(LocalDateTime.now())
+                .build();
 
-        outboxService.saveEvent("Order", order.getOrderId(), "OrderCreated", event);
+        outboxService.saveEvent("Order", order.getOrderId(), "PaymentRequested", command);
     }
 
-    private OrderSaga createSaga(String orderId, String sagaId, SagaState state, Order order) {
+    private OrderSaga createSaga(String orderId, String sagaId, SagaState state, OrderCreatedEvent createdEvent) {
         try {
-            String payload = objectMapper.writeValueAsString(order);
+            // The event is a flat snapshot of the order; the entity graph itself is cyclic (order <-> lines)
+            String payload = objectMapper.writeValueAsString(createdEvent);
             return OrderSaga.builder()
                     .sagaId(sagaId)
                     .orderId(orderId)
@@ -193,15 +480,10 @@ public class OrderService {
         }
     }
 
-    private void storeIdempotencyKey(String key, OrderResponse response) {
+    private void storeIdempotencyKey(String key, IdempotencyKey expiredKey, OrderResponse response) {
         try {
-            IdempotencyKey idempotencyKey = IdempotencyKey.builder()
-                    .idempotencyKey(key)
-                    .responsePayload(objectMapper.writeValueAsString(response))
-                    .expiresAt(LocalDateTime.now().plusHours(24))
-                    .build();
-            idempotencyKeyRepository.save(idempotencyKey);
-        } catch (JsonProcessingException e) {
+            idempotencyKeyRepository.save(toIdempotencyKey(key, expiredKey, response));
+        } catch (IllegalStateException e) {
             log.error("Error storing idempotency key", e);
         } catch (DataIntegrityViolationException dive) {
             // Another request inserted the same idempotency key concurrently. Safe to ignore.
@@ -217,6 +499,38 @@ public class OrderService {
         }
     }
 
+    private IdempotencyKey toIdempotencyKey(String key, IdempotencyKey expiredKey, OrderResponse response) {
+        // An expired key is already loaded and is overwritten in place; a new key is inserted without a lookup
+        IdempotencyKey idempotencyKey = expiredKey != null
+                ? expiredKey
+                : IdempotencyKey.builder().idempotencyKey(key).build();
+        try {
+            idempotencyKey.setResponsePayload(objectMapper.writeValueAsString(response));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Error serializing idempotent response", e);
+        }
+        idempotencyKey.setExpiresAt(LocalDateTime.now().plusHours(24));
+        return idempotencyKey;
+    }
+
+    private OrderResponse readStoredResponse(IdempotencyKey storedKey) {
+        try {
+            return objectMapper.readValue(storedKey.getResponsePayload(), OrderResponse.class);
+        } catch (JsonProcessingException e) {
+            log.error("Error deserializing cached response", e);
+            return null;
+        }
+    }
+
+    private static BatchOrderResult result(int index, String key, BatchOrderResult.Status status, OrderResponse order) {
+        return BatchOrderResult.builder()
+                .index(index)
+                .idempotencyKey(key)
+                .status(status)
+                .order(order)
+                .build();
+    }
+
     /**
      * Custom exception for order not found scenarios.
      */
@@ -225,4 +539,16 @@ public class OrderService {
             super(message);
         }
     }
+
+    public static class InvalidCursorException extends RuntimeException {
+        public InvalidCursorException(String message) {
+            super(message);
+        }
+    }
+
+    public static class InvalidFieldsException extends RuntimeException {
+        public InvalidFieldsException(String message) {
+            super(message);
+        }
+    }
 }
@@ -0,0 +1,192 @@
+package com.ecommerce.order_service.stream;
+
+import com.ecommerce.order_service.api.dto.OrderStatusEvent;
+import com.ecommerce.order_service.domain.entity.OrderStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Server-Sent Event streams of order status changes.
+ * Each subscriber is an {@link SseEmitter}, an async servlet response: no request thread is held while a
+ * client waits, so a node can keep many streams open. Status changes are published on a Redis channel once
+ * their transaction commits, and every node pushes them to the streams it holds for that order; if Redis is
+ * unavailable, the change is still pushed to this node's streams.
+ * A stream starts with the current status, so no change committed before it was opened is missed, and is
+ * completed once the order reaches a final status.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderStatusStreams {
+
+    static final String EVENT_NAME = "status";
+
+    private static final Set<OrderStatus> FINAL_STATUSES =
+            EnumSet.of(OrderStatus.CONFIRMED, OrderStatus.CANCELLED, OrderStatus.FAILED);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${orders.events.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${orders.events.channel:orders.status}")
+    private String channel;
+
+    private final Map<String, Set<SseEmitter>> streams = new ConcurrentHashMap<>();
+    private final AtomicInteger subscribers = new AtomicInteger();
+
+    @PostConstruct
+    void init() {
+        Gauge.builder("orders.events.subscribers", subscribers, AtomicInteger::get)
+                .description("Open order status streams on this node")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Open a stream for an order and send its current status.
+     *
+     * @param currentStatus reads the order's status; read after the stream is registered, so a change
+     *                      committed in between is sent rather than lost
+     */
+    public SseEmitter subscribe(String orderId, Supplier<OrderStatus> currentStatus) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        add(orderId, emitter);
+        emitter.onCompletion(() -> remove(orderId, emitter));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> remove(orderId, emitter));
+
+        OrderStatus status;
+        try {
+            status = currentStatus.get();
+        } catch (RuntimeException e) {
+            remove(orderId, emitter);
+            throw e;
+        }
+        send(emitter, event(orderId, status));
+        return emitter;
+    }
+
+    /**
+     * Publish a status change once the current transaction commits, or right away outside a transaction.
+     */
+    public void publishAfterCommit(String orderId, OrderStatus status) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(event(orderId, status));
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish(event(orderId, status));
+            }
+        });
+    }
+
+    /**
+     * Push a status change received on the channel to this node's streams for the order.
+     */
+    public void onMessage(String message) {
+        try {
+            deliver(objectMapper.readValue(message, OrderStatusEvent.class));
+        } catch (Exception e) {
+            log.warn("Ignoring malformed order status message: {}", message, e);
+        }
+    }
+
+    /**
+     * Send a comment on every open stream, so idle connections are kept open by proxies and
+     * streams of clients that went away are detected and released.
+     */
+    @Scheduled(fixedDelayString = "${orders.events.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        streams.forEach((orderId, emitters) -> emitters.forEach(emitter -> {
+            try {
+                emitter.send(SseEmitter.event().comment("keep-alive"));
+            } catch (Exception e) {
+                remove(orderId, emitter);
+            }
+        }));
+    }
+
+    int subscriberCount(String orderId) {
+        Set<SseEmitter> emitters = streams.get(orderId);
+        return emitters == null ? 0 : emitters.size();
+    }
+
+    void deliver(OrderStatusEvent event) {
+        Set<SseEmitter> emitters = streams.get(event.getOrderId());
+        if (emitters != null) {
+            emitters.forEach(emitter -> send(emitter, event));
+        }
+    }
+
+    private void publish(OrderStatusEvent event) {
+        try {
+            redisTemplate.convertAndSend(channel, objectMapper.writeValueAsString(event));
+        } catch (Exception e) {
+            log.warn("Order status publish failed for {}; notifying this node's streams only", event.getOrderId(), e);
+            deliver(event);
+        }
+    }
+
+    private void send(SseEmitter emitter, OrderStatusEvent event) {
+        try {
+            emitter.send(SseEmitter.event().name(EVENT_NAME).data(event));
+        } catch (Exception e) {
+            log.debug("Dropping order status stream for {}", event.getOrderId(), e);
+            remove(event.getOrderId(), emitter);
+            return;
+        }
+        if (FINAL_STATUSES.contains(event.getStatus())) {
+            remove(event.getOrderId(), emitter);
+            emitter.complete();
+        }
+    }
+
+    private void add(String orderId, SseEmitter emitter) {
+        streams.compute(orderId, (key, emitters) -> {
+            Set<SseEmitter> set = emitters == null ? ConcurrentHashMap.newKeySet() : emitters;
+            set.add(emitter);
+            return set;
+        });
+        subscribers.incrementAndGet();
+    }
+
+    private void remove(String orderId, SseEmitter emitter) {
+        streams.computeIfPresent(orderId, (key, emitters) -> {
+            if (emitters.remove(emitter)) {
+                subscribers.decrementAndGet();
+            }
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+
+    private static OrderStatusEvent event(String orderId, OrderStatus status) {
+        return OrderStatusEvent.builder()
+                .orderId(orderId)
+                .status(status)
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+}
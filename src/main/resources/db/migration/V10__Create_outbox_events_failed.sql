@@ -0,0 +1,15 @@
+-- V10: Parking table for outbox events Kafka rejects for good
+-- An event that can never be sent (oversized record, undecodable payload) is moved here by the relay, so it
+-- no longer aborts every transactional batch it is claimed in. Rows can be inspected and moved back by hand.
+CREATE TABLE outbox_events_failed (
+    id BIGINT PRIMARY KEY,
+    aggregate_type VARCHAR(100) NOT NULL,
+    aggregate_id VARCHAR(36) NOT NULL,
+    shard_bucket INT NOT NULL,
+    event_type VARCHAR(100) NOT NULL,
+    payload MEDIUMBLOB NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    failed_at DATETIME NOT NULL,
+    error VARCHAR(500) NOT NULL,
+    INDEX idx_aggregate (aggregate_type, aggregate_id)
+);
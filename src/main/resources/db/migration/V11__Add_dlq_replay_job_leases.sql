@@ -0,0 +1,6 @@
+-- V11: Lease DLQ replay jobs to the instance running them
+-- A job is started or resumed only by the instance whose conditional UPDATE claims it; the runner renews
+-- lease_until while it works, and a RUNNING job can be taken over only once its lease has expired.
+ALTER TABLE dlq_replay_jobs
+    ADD COLUMN owner_id VARCHAR(100) NULL AFTER status,
+    ADD COLUMN lease_until TIMESTAMP(3) NULL AFTER owner_id;
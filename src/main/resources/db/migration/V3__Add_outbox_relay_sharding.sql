@@ -0,0 +1,26 @@
+-- V3: Sharded outbox relay
+-- Each outbox row carries a hash bucket of its aggregate_id; relay nodes lease buckets so that
+-- every bucket (and therefore every aggregate) is published by exactly one node at a time.
+
+-- Step 1: Bucket column on outbox_events, computed by the application as CRC32(aggregate_id) % bucket-count
+ALTER TABLE outbox_events
+    ADD COLUMN shard_bucket INT NOT NULL DEFAULT 0 AFTER aggregate_id,
+    ADD INDEX idx_published_bucket (published, shard_bucket, id);
+
+-- Step 2: Backfill pending rows using the default bucket count (64)
+UPDATE outbox_events SET shard_bucket = CRC32(aggregate_id) % 64 WHERE published = FALSE;
+
+-- Step 3: Bucket leases, one row per bucket, owned by a relay node until lease_until
+CREATE TABLE outbox_relay_leases (
+    bucket INT PRIMARY KEY,
+    owner_id VARCHAR(100) NULL,
+    lease_until TIMESTAMP(3) NULL,
+    INDEX idx_owner_id (owner_id)
+);
+
+-- Step 4: Relay node heartbeats, used to compute each node's fair share of buckets
+CREATE TABLE outbox_relay_nodes (
+    node_id VARCHAR(100) PRIMARY KEY,
+    heartbeat_at TIMESTAMP(3) NOT NULL,
+    INDEX idx_heartbeat_at (heartbeat_at)
+);
@@ -0,0 +1,36 @@
+-- V4: Split the outbox into a small pending table and a day-partitioned history table
+-- outbox_events keeps only unpublished rows; the relay moves published rows to outbox_events_history,
+-- and retention drops whole daily partitions instead of deleting rows one by one.
+
+-- Step 1: History table, range-partitioned by publish day.
+-- Daily partitions (pYYYYMMDD) are split off p_future ahead of time by the application.
+CREATE TABLE outbox_events_history (
+    id BIGINT NOT NULL,
+    aggregate_type VARCHAR(100) NOT NULL,
+    aggregate_id VARCHAR(36) NOT NULL,
+    event_type VARCHAR(100) NOT NULL,
+    payload JSON NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    published_at DATETIME NOT NULL,
+    PRIMARY KEY (id, published_at),
+    INDEX idx_aggregate (aggregate_type, aggregate_id)
+)
+PARTITION BY RANGE (TO_DAYS(published_at)) (
+    PARTITION p_future VALUES LESS THAN MAXVALUE
+);
+
+-- Step 2: Move already published rows into the history table
+INSERT INTO outbox_events_history (id, aggregate_type, aggregate_id, event_type, payload, created_at, published_at)
+SELECT id, aggregate_type, aggregate_id, event_type, payload, created_at, COALESCE(published_at, created_at)
+FROM outbox_events
+WHERE published = TRUE;
+
+DELETE FROM outbox_events WHERE published = TRUE;
+
+-- Step 3: Every remaining row is pending, so the published flag and its low-selectivity indexes go away
+ALTER TABLE outbox_events
+    DROP INDEX idx_published,
+    DROP INDEX idx_published_bucket,
+    DROP COLUMN published,
+    DROP COLUMN published_at,
+    ADD INDEX idx_shard_bucket (shard_bucket, id);
@@ -0,0 +1,20 @@
+-- V5: Store JSON payloads as binary
+-- Payloads are encoded by the application (PayloadCodec): a codec header byte followed by raw JSON (0x00)
+-- or by the original length and LZ4 (0x01) / zstd (0x02) compressed bytes.
+-- Existing rows are converted to the raw JSON form (header 0x00); new rows are compressed on write.
+-- MEDIUMBLOB (up to 16 MB) keeps the JSON columns' effective size limit, so compression is not a new cap.
+
+-- Step 1: Outbox payloads
+ALTER TABLE outbox_events MODIFY payload MEDIUMBLOB NOT NULL;
+UPDATE outbox_events SET payload = CONCAT(0x00, payload);
+
+ALTER TABLE outbox_events_history MODIFY payload MEDIUMBLOB NOT NULL;
+UPDATE outbox_events_history SET payload = CONCAT(0x00, payload);
+
+-- Step 2: Saga payloads
+ALTER TABLE order_saga MODIFY payload MEDIUMBLOB NOT NULL;
+UPDATE order_saga SET payload = CONCAT(0x00, payload);
+
+-- Step 3: Cached idempotent responses
+ALTER TABLE idempotency_keys MODIFY response_payload MEDIUMBLOB NULL;
+UPDATE idempotency_keys SET response_payload = CONCAT(0x00, response_payload) WHERE response_payload IS NOT NULL;
@@ -0,0 +1,26 @@
+-- V6: Pooled id sequences
+-- orders, order_lines and outbox_events take their ids from sequence tables instead of AUTO_INCREMENT,
+-- so Hibernate can batch their INSERTs. Each node reserves 50 ids per sequence read (pooled optimizer).
+-- next_val is the upper bound of the next block; it is seeded 50 above the current maximum id so the
+-- first block starts right after the existing rows.
+
+-- Step 1: Orders
+CREATE TABLE orders_seq (
+    next_val BIGINT NOT NULL
+);
+INSERT INTO orders_seq (next_val) SELECT COALESCE(MAX(id), 0) + 50 FROM orders;
+
+-- Step 2: Order lines
+CREATE TABLE order_lines_seq (
+    next_val BIGINT NOT NULL
+);
+INSERT INTO order_lines_seq (next_val) SELECT COALESCE(MAX(id), 0) + 50 FROM order_lines;
+
+-- Step 3: Outbox events (ids also live on in outbox_events_history)
+CREATE TABLE outbox_events_seq (
+    next_val BIGINT NOT NULL
+);
+INSERT INTO outbox_events_seq (next_val)
+SELECT GREATEST(
+    (SELECT COALESCE(MAX(id), 0) FROM outbox_events),
+    (SELECT COALESCE(MAX(id), 0) FROM outbox_events_history)) + 50;
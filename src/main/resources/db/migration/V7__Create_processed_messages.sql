@@ -0,0 +1,9 @@
+-- V7: Consumer inbox
+-- Ids of consumed messages that have been applied. A row is inserted in the same transaction as the
+-- saga update it guards, so a redelivered message finds its id and is skipped.
+
+CREATE TABLE processed_messages (
+    message_id VARCHAR(191) PRIMARY KEY,
+    processed_at TIMESTAMP(3) NOT NULL,
+    INDEX idx_processed_at (processed_at)
+);
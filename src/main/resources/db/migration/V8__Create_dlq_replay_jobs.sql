@@ -0,0 +1,25 @@
+-- V8: DLQ replay jobs
+-- One row per replay of a dead-letter topic: filters, rate limit, progress counters and the
+-- per-partition checkpoint (next offset to replay) that lets an interrupted replay resume.
+
+CREATE TABLE dlq_replay_jobs (
+    job_id VARCHAR(36) PRIMARY KEY,
+    topic VARCHAR(255) NOT NULL,
+    event_type VARCHAR(100) NULL,
+    from_time TIMESTAMP(3) NULL,
+    to_time TIMESTAMP(3) NULL,
+    rate_per_second INT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    positions JSON NULL,
+    end_offsets JSON NULL,
+    total_records BIGINT NOT NULL DEFAULT 0,
+    scanned_records BIGINT NOT NULL DEFAULT 0,
+    replayed_records BIGINT NOT NULL DEFAULT 0,
+    skipped_records BIGINT NOT NULL DEFAULT 0,
+    failed_records BIGINT NOT NULL DEFAULT 0,
+    last_error VARCHAR(1000) NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    completed_at TIMESTAMP NULL,
+    INDEX idx_created_at (created_at)
+);
@@ -0,0 +1,6 @@
+-- V9: Index for keyset pagination of a user's order history
+-- Pages are read with WHERE user_id = ? AND (created_at, id) < (?, ?) ORDER BY created_at DESC, id DESC LIMIT ?,
+-- which this index serves as a range scan that stops after one page, however deep the cursor is.
+-- idx_user_id is a prefix of the new index and is dropped.
+CREATE INDEX idx_orders_user_created_id ON orders (user_id, created_at, id);
+DROP INDEX idx_user_id ON orders;
@@ -1,11 +1,18 @@
 package com.ecommerce.order_service.api.controller;
 
+import com.ecommerce.order_service.api.dto.BatchCreateOrderRequest;
+import com.ecommerce.order_service.api.dto.BatchCreateOrderResponse;
+import com.ecommerce.order_service.api.dto.BatchOrderRequest;
+import com.ecommerce.order_service.api.dto.BatchOrderResult;
 import com.ecommerce.order_service.api.dto.CreateOrderRequest;
+import com.ecommerce.order_service.api.dto.CursorPage;
 import com.ecommerce.order_service.api.dto.OrderItemRequest;
+import com.ecommerce.order_service.api.dto.OrderProjectionResponse;
 import com.ecommerce.order_service.api.dto.OrderResponse;
 import com.ecommerce.order_service.domain.entity.OrderStatus;
-import com.ecommerce.order_service.saga.OrderSagaOrchestrator;
+import com.ecommerce.order_service.service.OrderBatchService;
 import com.ecommerce.order_service.service.OrderService;
+import com.ecommerce.order_service.stream.OrderStatusStreams;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,15 +20,22 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.function.Supplier;
 
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
@@ -40,7 +54,10 @@ class OrderControllerTest {
     private OrderService orderService;
 
     @MockBean
-    private OrderSagaOrchestrator sagaOrchestrator;
+    private OrderBatchService orderBatchService;
+
+    @MockBean
+    private OrderStatusStreams orderStatusStreams;
 
     @Test
     void createOrder_shouldReturnCreated() throws Exception {
@@ -61,11 +78,11 @@ class OrderControllerTest {
         OrderResponse response = OrderResponse.builder()
                 .orderId("order-123")
                 .userId("user-123")
-                .status(OrderStatus.PENDING)
+                .status(OrderStatus.PAYMENT_REQUESTED)
                 .totalAmount(new BigDecimal("100.00"))
                 .build();
 
-        when(orderService.createOrder(any(CreateOrderRequest.class), anyString(), anyString()))
+        when(orderService.placeOrder(any(CreateOrderRequest.class), anyString(), anyString()))
                 .thenReturn(response);
 
         // When/Then
@@ -94,6 +111,60 @@ class OrderControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void createOrders_shouldReturnResultPerOrder() throws Exception {
+        // Given
+        OrderItemRequest item = OrderItemRequest.builder()
+                .productId("product-1")
+                .productName("Test Product")
+                .quantity(1)
+                .unitPrice(new BigDecimal("10.00"))
+                .build();
+        CreateOrderRequest order = CreateOrderRequest.builder()
+                .userId("user-123")
+                .items(List.of(item))
+                .shippingAddress("123 Test Street")
+                .build();
+        BatchCreateOrderRequest request = BatchCreateOrderRequest.builder()
+                .orders(List.of(
+                        BatchOrderRequest.builder().idempotencyKey("key-1").order(order).build(),
+                        BatchOrderRequest.builder().idempotencyKey("key-2").order(order).build()))
+                .build();
+
+        BatchCreateOrderResponse response = BatchCreateOrderResponse.builder()
+                .created(1)
+                .duplicates(1)
+                .results(List.of(
+                        BatchOrderResult.builder().index(0).idempotencyKey("key-1").status(BatchOrderResult.Status.CREATED)
+                                .order(OrderResponse.builder().orderId("order-1").build()).build(),
+                        BatchOrderResult.builder().index(1).idempotencyKey("key-2").status(BatchOrderResult.Status.DUPLICATE)
+                                .order(OrderResponse.builder().orderId("order-0").build()).build()))
+                .build();
+
+        when(orderBatchService.placeOrders(anyList(), anyString())).thenReturn(response);
+
+        // When/Then
+        mockMvc.perform(post("/api/v1/orders/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.created").value(1))
+                .andExpect(jsonPath("$.data.results[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.data.results[1].status").value("DUPLICATE"))
+                .andExpect(jsonPath("$.data.results[1].order.orderId").value("order-0"));
+    }
+
+    @Test
+    void createOrders_shouldReturnBadRequestForEmptyBatch() throws Exception {
+        // When/Then
+        mockMvc.perform(post("/api/v1/orders/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"orders\":[]}"))
+                .andExpect(status().isBadRequest());
+
+        verify(orderBatchService, never()).placeOrders(anyList(), anyString());
+    }
+
     @Test
     void getOrder_shouldReturnOrder() throws Exception {
         // Given
@@ -112,5 +183,122 @@ class OrderControllerTest {
                 .andExpect(jsonPath("$.success").value(true))
                 .andExpect(jsonPath("$.data.orderId").value("order-123"));
     }
-}
 
+    @Test
+    void getOrder_shouldReturnETagDerivedFromVersion() throws Exception {
+        // Given
+        OrderResponse response = OrderResponse.builder()
+                .orderId("order-123")
+                .status(OrderStatus.CONFIRMED)
+                .version(7L)
+                .build();
+
+        when(orderService.getOrderById("order-123")).thenReturn(response);
+
+        // When/Then
+        mockMvc.perform(get("/api/v1/orders/order-123"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"order-123-7\""));
+    }
+
+    @Test
+    void getOrder_shouldReturnNotModifiedWithoutLoadingOrderWhenETagMatches() throws Exception {
+        // Given
+        when(orderService.getOrderVersion("order-123")).thenReturn(7L);
+
+        // When/Then
+        mockMvc.perform(get("/api/v1/orders/order-123").header("If-None-Match", "\"order-123-7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"order-123-7\""))
+                .andExpect(content().string(""));
+        verify(orderService, never()).getOrderById(anyString());
+    }
+
+    @Test
+    void getOrder_shouldReturnOrderWhenETagIsStale() throws Exception {
+        // Given
+        OrderResponse response = OrderResponse.builder()
+                .orderId("order-123")
+                .status(OrderStatus.CONFIRMED)
+                .version(8L)
+                .build();
+        when(orderService.getOrderVersion("order-123")).thenReturn(8L);
+        when(orderService.getOrderById("order-123")).thenReturn(response);
+
+        // When/Then
+        mockMvc.perform(get("/api/v1/orders/order-123").header("If-None-Match", "\"order-123-7\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"order-123-8\""))
+                .andExpect(jsonPath("$.data.status").value("CONFIRMED"));
+    }
+
+    @Test
+    void getUserOrders_shouldReturnPageWithNextCursor() throws Exception {
+        // Given
+        OrderResponse order = OrderResponse.builder()
+                .orderId("order-123")
+                .userId("user-123")
+                .status(OrderStatus.CONFIRMED)
+                .build();
+        CursorPage<OrderResponse> page = CursorPage.<OrderResponse>builder()
+                .items(List.of(order))
+                .nextCursor("next-token")
+                .hasMore(true)
+                .build();
+
+        when(orderService.getOrdersByUserId("user-123", "token", 1)).thenReturn(page);
+
+        // When/Then
+        mockMvc.perform(get("/api/v1/orders/user/user-123").param("cursor", "token").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.items[0].orderId").value("order-123"))
+                .andExpect(jsonPath("$.data.nextCursor").value("next-token"))
+                .andExpect(jsonPath("$.data.hasMore").value(true));
+    }
+
+    @Test
+    void getUserOrders_shouldReturnOnlySelectedFields() throws Exception {
+        // Given
+        OrderProjectionResponse order = OrderProjectionResponse.builder()
+                .orderId("order-123")
+                .status(OrderStatus.CONFIRMED)
+                .build();
+        CursorPage<OrderProjectionResponse> page = CursorPage.<OrderProjectionResponse>builder()
+                .items(List.of(order))
+                .build();
+
+        when(orderService.getOrderProjectionsByUserId("user-123", null, null, "orderId,status")).thenReturn(page);
+
+        // When/Then
+        mockMvc.perform(get("/api/v1/orders/user/user-123").param("fields", "orderId,status"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.items[0].orderId").value("order-123"))
+                .andExpect(jsonPath("$.data.items[0].status").value("CONFIRMED"))
+                .andExpect(jsonPath("$.data.items[0].shippingAddress").doesNotExist())
+                .andExpect(jsonPath("$.data.items[0].items").doesNotExist());
+    }
+
+    @Test
+    void streamOrderEvents_shouldOpenAsyncStream() throws Exception {
+        // Given
+        when(orderStatusStreams.subscribe(eq("order-123"), any())).thenReturn(new SseEmitter());
+
+        // When/Then
+        mockMvc.perform(get("/api/v1/orders/order-123/events").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+    }
+
+    @Test
+    void streamOrderEvents_shouldReturnNotFoundForUnknownOrder() throws Exception {
+        // Given
+        when(orderService.getOrderStatus("missing")).thenThrow(new OrderService.OrderNotFoundException("Order not found: missing"));
+        when(orderStatusStreams.subscribe(eq("missing"), any())).thenAnswer(invocation -> {
+            invocation.<Supplier<OrderStatus>>getArgument(1).get();
+            return new SseEmitter();
+        });
+
+        // When/Then
+        mockMvc.perform(get("/api/v1/orders/missing/events"))
+                .andExpect(status().isNotFound());
+    }
+}
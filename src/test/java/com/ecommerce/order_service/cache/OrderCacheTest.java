@@ -0,0 +1,163 @@
+package com.ecommerce.order_service.cache;
+
+import com.ecommerce.order_service.api.dto.OrderResponse;
+import com.ecommerce.order_service.domain.entity.OrderStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for OrderCache.
+ */
+@ExtendWith(MockitoExtension.class)
+class OrderCacheTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private OrderCache orderCache;
+
+    @BeforeEach
+    void setUp() {
+        orderCache = new OrderCache(redisTemplate, objectMapper, meterRegistry);
+        ReflectionTestUtils.setField(orderCache, "enabled", true);
+        ReflectionTestUtils.setField(orderCache, "ttlMs", 60000L);
+        ReflectionTestUtils.setField(orderCache, "localMaximumSize", 100L);
+        ReflectionTestUtils.setField(orderCache, "localTtlMs", 5000L);
+        ReflectionTestUtils.setField(orderCache, "invalidationChannel", "orders.cache.invalidation");
+        ReflectionTestUtils.setField(orderCache, "noFillMs", 2000L);
+        orderCache.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void get_shouldServeFromRedisAndThenFromLocalTier() throws Exception {
+        // Given
+        OrderResponse order = OrderResponse.builder().orderId("order-1").status(OrderStatus.CONFIRMED).version(3L).build();
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.get("order:order-1", "payload")).thenReturn(objectMapper.writeValueAsString(order));
+
+        // When
+        assertThat(orderCache.get("order-1")).contains(order);
+        assertThat(orderCache.get("order-1")).contains(order);
+
+        // Then
+        verify(hashOperations, times(1)).get(anyString(), any());
+        assertThat(meterRegistry.get("cache.gets").tags("tier", "l2", "result", "hit").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("cache.gets").tags("tier", "l1", "result", "hit").functionCounter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void put_shouldKeepNewerVersionInLocalTier() {
+        // Given
+        orderCache.put(OrderResponse.builder().orderId("order-1").version(5L).build());
+
+        // When
+        orderCache.put(OrderResponse.builder().orderId("order-1").version(4L).build());
+
+        // Then
+        assertThat(orderCache.get("order-1")).hasValueSatisfying(order -> assertThat(order.getVersion()).isEqualTo(5L));
+    }
+
+    @Test
+    void get_shouldTreatRedisFailureAsMiss() {
+        // Given
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.get(anyString(), any())).thenThrow(new RedisConnectionFailureException("down"));
+
+        // When / Then
+        assertThat(orderCache.get("order-1")).isEmpty();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void put_shouldWriteStampedWithVersion() {
+        // Given
+        OrderResponse order = OrderResponse.builder().orderId("order-1").version(4L).build();
+
+        // When
+        orderCache.put(order);
+
+        // Then
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("order:order-1")),
+                eq("4"), anyString(), eq("60000"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void evictAfterCommit_shouldEvictOnlyOnceTransactionCommits() {
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        orderCache.evictAfterCommit("order-1");
+
+        // Then
+        verifyNoInteractions(redisTemplate);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("order:order-1")), eq("2000"));
+        verify(redisTemplate).convertAndSend("orders.cache.invalidation", "order-1");
+    }
+
+    @Test
+    void put_shouldNotRefillLocalTierRightAfterEviction() {
+        // Given
+        OrderResponse stale = OrderResponse.builder().orderId("order-1").version(1L).build();
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+
+        // When
+        orderCache.evict("order-1");
+        orderCache.put(stale);
+
+        // Then
+        assertThat(orderCache.get("order-1")).isEmpty();
+    }
+
+    @Test
+    void evictLocal_shouldDropOrderFromLocalTierOnly() {
+        // Given
+        orderCache.put(OrderResponse.builder().orderId("order-1").version(1L).build());
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+
+        // When
+        orderCache.evictLocal("order-1");
+
+        // Then
+        assertThat(orderCache.get("order-1")).isEmpty();
+        verify(redisTemplate, never()).delete(anyString());
+    }
+}
@@ -0,0 +1,71 @@
+package com.ecommerce.order_service.domain.codec;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for PayloadCodec.
+ */
+class PayloadCodecTest {
+
+    private static final String LARGE_JSON = "{\"orderId\":\"ORD-1\",\"lines\":["
+            + "{\"productId\":\"PROD-1\",\"quantity\":1,\"price\":10.00},".repeat(50)
+            + "{\"productId\":\"PROD-2\",\"quantity\":2,\"price\":20.00}]}";
+
+    @Test
+    void lz4_shouldRoundTripAndShrinkLargePayloads() {
+        // Given
+        PayloadCodec codec = new PayloadCodec("lz4", 256, 3);
+
+        // When
+        byte[] stored = codec.encode(LARGE_JSON);
+
+        // Then
+        assertThat(stored[0]).isEqualTo((byte) 1);
+        assertThat(stored.length).isLessThan(LARGE_JSON.length() / 2);
+        assertThat(codec.decodeToString(stored)).isEqualTo(LARGE_JSON);
+    }
+
+    @Test
+    void zstd_shouldRoundTripAndShrinkLargePayloads() {
+        // Given
+        PayloadCodec codec = new PayloadCodec("zstd", 256, 3);
+
+        // When
+        byte[] stored = codec.encode(LARGE_JSON);
+
+        // Then
+        assertThat(stored[0]).isEqualTo((byte) 2);
+        assertThat(stored.length).isLessThan(LARGE_JSON.length() / 2);
+        assertThat(codec.decodeToString(stored)).isEqualTo(LARGE_JSON);
+    }
+
+    @Test
+    void encode_shouldStoreSmallPayloadsRaw() {
+        // Given
+        PayloadCodec codec = new PayloadCodec("lz4", 256, 3);
+
+        // When
+        byte[] stored = codec.encode("{\"a\":1}");
+
+        // Then
+        assertThat(stored[0]).isEqualTo((byte) 0);
+        assertThat(codec.decodeToString(stored)).isEqualTo("{\"a\":1}");
+    }
+
+    @Test
+    void decode_shouldPassThroughLegacyJson() {
+        // Given
+        PayloadCodec codec = new PayloadCodec("lz4", 256, 3);
+        byte[] legacy = "{\"a\":1}".getBytes(StandardCharsets.UTF_8);
+
+        // When / Then
+        assertThat(codec.decode(legacy)).isSameAs(legacy);
+        assertThatThrownBy(() -> codec.decode(new byte[]{9, 1, 2}))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
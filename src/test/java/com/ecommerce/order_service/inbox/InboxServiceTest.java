@@ -0,0 +1,121 @@
+package com.ecommerce.order_service.inbox;
+
+import com.ecommerce.order_service.domain.repository.ProcessedMessageRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InboxServiceTest {
+
+    @Mock
+    private ProcessedMessageRepository processedMessageRepository;
+
+    @InjectMocks
+    private InboxService inboxService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(inboxService, "expectedInsertions", 1000);
+        ReflectionTestUtils.setField(inboxService, "falsePositiveRate", 0.01);
+        ReflectionTestUtils.setField(inboxService, "rotationIntervalMs", 3_600_000L);
+        ReflectionTestUtils.setField(inboxService, "retentionDays", 7);
+        ReflectionTestUtils.setField(inboxService, "cleanupBatchSize", 2);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void isDuplicate_shouldSkipLookupForUnseenMessage() {
+        // Given
+        when(processedMessageRepository.findRecentMessageIds(anyLong(), anyInt())).thenReturn(List.of());
+        inboxService.init();
+
+        // When
+        boolean duplicate = inboxService.isDuplicate("PaymentSucceeded:saga-1");
+
+        // Then
+        assertThat(duplicate).isFalse();
+        verify(processedMessageRepository, never()).existsById(anyString());
+    }
+
+    @Test
+    void isDuplicate_shouldConfirmIdsSeededFromRecentInboxEntries() {
+        // Given
+        when(processedMessageRepository.findRecentMessageIds(anyLong(), anyInt()))
+                .thenReturn(List.of("PaymentSucceeded:saga-1"));
+        when(processedMessageRepository.existsById("PaymentSucceeded:saga-1")).thenReturn(true);
+        inboxService.init();
+
+        // When
+        boolean duplicate = inboxService.isDuplicate("PaymentSucceeded:saga-1");
+
+        // Then
+        assertThat(duplicate).isTrue();
+    }
+
+    @Test
+    void markProcessed_shouldAddIdToFilterOnlyAfterCommit() {
+        // Given
+        when(processedMessageRepository.findRecentMessageIds(anyLong(), anyInt())).thenReturn(List.of());
+        when(processedMessageRepository.insertIfAbsent("PaymentFailed:saga-2")).thenReturn(1);
+        when(processedMessageRepository.existsById("PaymentFailed:saga-2")).thenReturn(true);
+        inboxService.init();
+
+        // When
+        boolean recorded = inboxService.markProcessed("PaymentFailed:saga-2");
+        boolean duplicateBeforeCommit = inboxService.isDuplicate("PaymentFailed:saga-2");
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        // Then
+        assertThat(recorded).isTrue();
+        assertThat(duplicateBeforeCommit).isFalse();
+        assertThat(inboxService.isDuplicate("PaymentFailed:saga-2")).isTrue();
+    }
+
+    @Test
+    void markProcessed_shouldRejectMessageAlreadyInInbox() {
+        // Given
+        when(processedMessageRepository.findRecentMessageIds(anyLong(), anyInt())).thenReturn(List.of());
+        when(processedMessageRepository.insertIfAbsent("PaymentFailed:saga-2")).thenReturn(0);
+        inboxService.init();
+
+        // When
+        boolean recorded = inboxService.markProcessed("PaymentFailed:saga-2");
+
+        // Then
+        assertThat(recorded).isFalse();
+        assertThat(TransactionSynchronizationManager.getSynchronizations()).isEmpty();
+    }
+
+    @Test
+    void cleanupProcessedMessages_shouldDeleteInChunksUntilNoneLeft() {
+        // Given
+        when(processedMessageRepository.deleteOlderThan(7, 2)).thenReturn(2, 2, 1);
+
+        // When
+        inboxService.cleanupProcessedMessages();
+
+        // Then
+        verify(processedMessageRepository, times(3)).deleteOlderThan(7, 2);
+    }
+}
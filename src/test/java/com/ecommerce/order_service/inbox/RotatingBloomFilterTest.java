@@ -0,0 +1,59 @@
+package com.ecommerce.order_service.inbox;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RotatingBloomFilterTest {
+
+    @Test
+    void mightContain_shouldFindEveryAddedIdAndFewUnseenIds() {
+        // Given
+        RotatingBloomFilter filter = new RotatingBloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("PaymentSucceeded:saga-" + i);
+        }
+
+        // When
+        int falsePositives = 0;
+        for (int i = 10_000; i < 20_000; i++) {
+            if (filter.mightContain("PaymentSucceeded:saga-" + i)) {
+                falsePositives++;
+            }
+        }
+
+        // Then
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filter.mightContain("PaymentSucceeded:saga-" + i)).isTrue();
+        }
+        // Both generations are consulted, so allow twice the per-generation target
+        assertThat(falsePositives).isLessThan(200);
+    }
+
+    @Test
+    void rotate_shouldRememberIdsForOneRotationAndForgetThemAfterTwo() {
+        // Given
+        RotatingBloomFilter filter = new RotatingBloomFilter(1_000, 0.01);
+        filter.put("PaymentFailed:saga-1");
+
+        // When
+        filter.rotate();
+        boolean afterOneRotation = filter.mightContain("PaymentFailed:saga-1");
+        filter.rotate();
+        boolean afterTwoRotations = filter.mightContain("PaymentFailed:saga-1");
+
+        // Then
+        assertThat(afterOneRotation).isTrue();
+        assertThat(afterTwoRotations).isFalse();
+    }
+
+    @Test
+    void constructor_shouldSizeFilterForTargetFalsePositiveRate() {
+        // When
+        RotatingBloomFilter filter = new RotatingBloomFilter(1_000_000, 0.01);
+
+        // Then: about 9.6 bits and 7 hashes per id
+        assertThat(filter.getBitCount()).isBetween(9_500_000, 9_700_000);
+        assertThat(filter.getHashCount()).isEqualTo(7);
+    }
+}
@@ -0,0 +1,133 @@
+package com.ecommerce.order_service.integration;
+
+import com.ecommerce.order_service.api.dto.BatchCreateOrderResponse;
+import com.ecommerce.order_service.api.dto.BatchOrderRequest;
+import com.ecommerce.order_service.api.dto.CreateOrderRequest;
+import com.ecommerce.order_service.api.dto.OrderItemRequest;
+import com.ecommerce.order_service.service.OrderBatchService;
+import com.ecommerce.order_service.service.OrderService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.KafkaContainer;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput of bulk order creation against one placeOrder call per order, on MySQL.
+ * Both paths run at the service layer, so the gain measured here excludes the HTTP overhead a batch
+ * request also saves. Runs with {@code ./mvnw verify -Dit.test=OrderBatchBenchmarkIT}; excluded from unit test runs.
+ */
+@Slf4j
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.com.ecommerce.order_service=INFO"
+})
+@Testcontainers(disabledWithoutDocker = true)
+class OrderBatchBenchmarkIT {
+
+    private static final int WARM_UP_ORDERS = 200;
+    private static final int ORDERS = 2000;
+
+    static final MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0.33")
+            .withDatabaseName("order_service_db")
+            .withUsername("root")
+            .withPassword("root")
+            .withUrlParam("rewriteBatchedStatements", "true");
+
+    static final KafkaContainer kafka = new KafkaContainer(DockerImageName.parse("confluentinc/cp-kafka:7.5.0"));
+
+    static final GenericContainer<?> redis = new GenericContainer<>(DockerImageName.parse("redis:7.2-alpine"))
+            .withExposedPorts(6379);
+
+    @DynamicPropertySource
+    static void registerProperties(DynamicPropertyRegistry registry) {
+        mysql.start();
+        kafka.start();
+        redis.start();
+
+        registry.add("spring.datasource.url", mysql::getJdbcUrl);
+        registry.add("spring.datasource.username", mysql::getUsername);
+        registry.add("spring.datasource.password", mysql::getPassword);
+        registry.add("spring.kafka.bootstrap-servers", kafka::getBootstrapServers);
+        registry.add("spring.data.redis.host", redis::getHost);
+        registry.add("spring.data.redis.port", () -> redis.getMappedPort(6379));
+        registry.add("spring.flyway.enabled", () -> true);
+    }
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderBatchService orderBatchService;
+
+    @Test
+    void batchCreate_shouldOutperformSingleCreates() {
+        // Given
+        placeOneByOne(orders(WARM_UP_ORDERS));
+        orderBatchService.placeOrders(orders(WARM_UP_ORDERS), "benchmark-warm-up");
+
+        List<BatchOrderRequest> singles = orders(ORDERS);
+        List<BatchOrderRequest> batch = orders(ORDERS);
+
+        // When
+        long singleNanos = placeOneByOne(singles);
+
+        long start = System.nanoTime();
+        BatchCreateOrderResponse response = orderBatchService.placeOrders(batch, "benchmark-batch");
+        long batchNanos = System.nanoTime() - start;
+
+        // Then
+        double singleRate = ORDERS / (singleNanos / 1e9);
+        double batchRate = ORDERS / (batchNanos / 1e9);
+        log.info("Single creates: {} orders/s, batch create: {} orders/s ({}x)",
+                Math.round(singleRate), Math.round(batchRate), Math.round(batchRate / singleRate * 10) / 10.0);
+
+        assertThat(response.getCreated()).isEqualTo(ORDERS);
+        assertThat(batchRate).isGreaterThan(singleRate);
+    }
+
+    private long placeOneByOne(List<BatchOrderRequest> orders) {
+        long start = System.nanoTime();
+        for (BatchOrderRequest order : orders) {
+            orderService.placeOrder(order.getOrder(), order.getIdempotencyKey(), "benchmark-single");
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static List<BatchOrderRequest> orders(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> BatchOrderRequest.builder()
+                        .idempotencyKey(UUID.randomUUID().toString())
+                        .order(CreateOrderRequest.builder()
+                                .userId("bench-user-" + (i % 50))
+                                .shippingAddress("1 Benchmark St")
+                                .items(List.of(
+                                        item("prod-1", 1, "19.99"),
+                                        item("prod-2", 2, "5.00")))
+                                .build())
+                        .build())
+                .toList();
+    }
+
+    private static OrderItemRequest item(String productId, int quantity, String unitPrice) {
+        return OrderItemRequest.builder()
+                .productId(productId)
+                .productName("Product " + productId)
+                .quantity(quantity)
+                .unitPrice(new BigDecimal(unitPrice))
+                .build();
+    }
+}
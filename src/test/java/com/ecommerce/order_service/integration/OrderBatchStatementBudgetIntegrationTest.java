@@ -0,0 +1,109 @@
+package com.ecommerce.order_service.integration;
+
+import com.ecommerce.order_service.api.dto.BatchOrderRequest;
+import com.ecommerce.order_service.api.dto.BatchOrderResult;
+import com.ecommerce.order_service.api.dto.CreateOrderRequest;
+import com.ecommerce.order_service.api.dto.OrderItemRequest;
+import com.ecommerce.order_service.service.OrderService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.KafkaContainer;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Statement budget of placing a chunk of orders, counted with Hibernate statistics.
+ * Unbatched, a chunk of 100 orders prepares about 700 statements (order, two lines, saga, two outbox events and
+ * an order ID lookup per order). A query between the saves flushes the pending inserts one by one again and
+ * goes over the budget here.
+ */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+class OrderBatchStatementBudgetIntegrationTest {
+
+    private static final int ORDERS = 100;
+    private static final int STATEMENT_BUDGET = 60;
+
+    static final MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0.33")
+            .withDatabaseName("order_service_db")
+            .withUsername("root")
+            .withPassword("root")
+            .withUrlParam("rewriteBatchedStatements", "true");
+
+    static final KafkaContainer kafka = new KafkaContainer(DockerImageName.parse("confluentinc/cp-kafka:7.5.0"));
+
+    @DynamicPropertySource
+    static void registerProperties(DynamicPropertyRegistry registry) {
+        mysql.start();
+        kafka.start();
+
+        registry.add("spring.datasource.url", mysql::getJdbcUrl);
+        registry.add("spring.datasource.username", mysql::getUsername);
+        registry.add("spring.datasource.password", mysql::getPassword);
+        registry.add("spring.kafka.bootstrap-servers", kafka::getBootstrapServers);
+        registry.add("spring.flyway.enabled", () -> true);
+        registry.add("spring.jpa.properties.hibernate.generate_statistics", () -> true);
+    }
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void placeOrders_shouldWriteChunkWithBatchedInserts() {
+        // Given
+        List<BatchOrderRequest> chunk = orders(ORDERS);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        List<BatchOrderResult> results = orderService.placeOrders(chunk, "statement-budget");
+
+        // Then
+        assertThat(results).hasSize(ORDERS)
+                .allSatisfy(result -> assertThat(result.getStatus()).isEqualTo(BatchOrderResult.Status.CREATED));
+        assertThat(statistics.getPrepareStatementCount())
+                .as("JDBC statements prepared for a chunk of %d orders", ORDERS)
+                .isLessThanOrEqualTo(STATEMENT_BUDGET);
+    }
+
+    private static List<BatchOrderRequest> orders(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> BatchOrderRequest.builder()
+                        .idempotencyKey(UUID.randomUUID().toString())
+                        .order(CreateOrderRequest.builder()
+                                .userId("budget-user-" + (i % 10))
+                                .shippingAddress("1 Budget St")
+                                .items(List.of(
+                                        item("prod-1", 1, "19.99"),
+                                        item("prod-2", 2, "5.00")))
+                                .build())
+                        .build())
+                .toList();
+    }
+
+    private static OrderItemRequest item(String productId, int quantity, String unitPrice) {
+        return OrderItemRequest.builder()
+                .productId(productId)
+                .productName("Product " + productId)
+                .quantity(quantity)
+                .unitPrice(new BigDecimal(unitPrice))
+                .build();
+    }
+}
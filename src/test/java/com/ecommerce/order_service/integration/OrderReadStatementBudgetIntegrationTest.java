@@ -0,0 +1,146 @@
+package com.ecommerce.order_service.integration;
+
+import com.ecommerce.order_service.api.dto.CursorPage;
+import com.ecommerce.order_service.api.dto.OrderProjectionResponse;
+import com.ecommerce.order_service.api.dto.OrderResponse;
+import com.ecommerce.order_service.domain.entity.Order;
+import com.ecommerce.order_service.domain.entity.OrderLine;
+import com.ecommerce.order_service.domain.entity.OrderStatus;
+import com.ecommerce.order_service.domain.repository.OrderRepository;
+import com.ecommerce.order_service.service.OrderService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.KafkaContainer;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Statement budgets of the order read paths, counted with Hibernate statistics.
+ * A read that starts loading order lines per order (N+1) goes over its budget and fails here.
+ */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+class OrderReadStatementBudgetIntegrationTest {
+
+    private static final int ORDERS = 12;
+    private static final int LINES_PER_ORDER = 3;
+
+    static final MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0.33")
+            .withDatabaseName("order_service_db")
+            .withUsername("root")
+            .withPassword("root");
+
+    static final KafkaContainer kafka = new KafkaContainer(DockerImageName.parse("confluentinc/cp-kafka:7.5.0"));
+
+    @DynamicPropertySource
+    static void registerProperties(DynamicPropertyRegistry registry) {
+        mysql.start();
+        kafka.start();
+
+        registry.add("spring.datasource.url", mysql::getJdbcUrl);
+        registry.add("spring.datasource.username", mysql::getUsername);
+        registry.add("spring.datasource.password", mysql::getPassword);
+        registry.add("spring.kafka.bootstrap-servers", kafka::getBootstrapServers);
+        registry.add("spring.flyway.enabled", () -> true);
+        registry.add("spring.jpa.properties.hibernate.generate_statistics", () -> true);
+    }
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private String userId;
+    private String orderId;
+
+    @BeforeEach
+    void setUp() {
+        userId = "budget-" + UUID.randomUUID();
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = Order.builder()
+                    .orderId(("B" + UUID.randomUUID().toString().replace("-", "")).substring(0, 20))
+                    .userId(userId)
+                    .status(OrderStatus.CONFIRMED)
+                    .totalAmount(new BigDecimal("30.00"))
+                    .shippingAddress("1 Budget St")
+                    .build();
+            for (int j = 0; j < LINES_PER_ORDER; j++) {
+                order.addOrderLine(OrderLine.builder()
+                        .productId("prod-" + j)
+                        .productName("Product " + j)
+                        .quantity(1)
+                        .unitPrice(new BigDecimal("10.00"))
+                        .build());
+            }
+            orders.add(order);
+        }
+        orderRepository.saveAll(orders);
+        orderId = orders.get(0).getOrderId();
+    }
+
+    @Test
+    void getOrderById_shouldLoadOrderAndLinesInOneStatement() {
+        OrderResponse order = withinStatementBudget(1, () -> orderService.getOrderById(orderId));
+
+        assertThat(order.getItems()).hasSize(LINES_PER_ORDER);
+    }
+
+    @Test
+    void getOrdersByUserId_shouldLoadEachPageInTwoStatements() {
+        CursorPage<OrderResponse> first = withinStatementBudget(2, () -> orderService.getOrdersByUserId(userId, null, 5));
+        CursorPage<OrderResponse> second = withinStatementBudget(2,
+                () -> orderService.getOrdersByUserId(userId, first.getNextCursor(), 5));
+
+        assertThat(first.getItems()).hasSize(5).allSatisfy(order -> assertThat(order.getItems()).hasSize(LINES_PER_ORDER));
+        assertThat(second.getItems()).hasSize(5).allSatisfy(order -> assertThat(order.getItems()).hasSize(LINES_PER_ORDER));
+    }
+
+    @Test
+    void getOrderProjectionsByUserId_shouldSelectPageInOneStatementAndItemsInOneMore() {
+        CursorPage<OrderProjectionResponse> summary = withinStatementBudget(1,
+                () -> orderService.getOrderProjectionsByUserId(userId, null, 5, "orderId,status,totalAmount"));
+        CursorPage<OrderProjectionResponse> withItems = withinStatementBudget(2,
+                () -> orderService.getOrderProjectionsByUserId(userId, null, 5, "orderId,items"));
+
+        assertThat(summary.getItems()).hasSize(5)
+                .allSatisfy(order -> assertThat(order.getShippingAddress()).isNull());
+        assertThat(withItems.getItems()).hasSize(5)
+                .allSatisfy(order -> assertThat(order.getItems()).hasSize(LINES_PER_ORDER));
+    }
+
+    /**
+     * Run a read and fail if it prepares more than {@code budget} JDBC statements.
+     */
+    private <T> T withinStatementBudget(int budget, Supplier<T> read) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        T result = read.get();
+
+        assertThat(statistics.getPrepareStatementCount())
+                .as("JDBC statements prepared by the read")
+                .isLessThanOrEqualTo(budget);
+        return result;
+    }
+}
@@ -103,7 +103,7 @@ class OrderServiceIntegrationTest {
         Assertions.assertNotNull(resp.getSagaId());
 
         // Ensure outbox has OrderCreated event
-        List<OutboxEvent> events = outboxEventRepository.findByPublishedFalseOrderByCreatedAtAsc();
+        List<OutboxEvent> events = outboxEventRepository.findAllByOrderByCreatedAtAsc();
         boolean hasOrderCreated = events.stream().anyMatch(e -> "OrderCreated".equals(e.getEventType())
                 && resp.getOrderId().equals(e.getAggregateId()));
         Assertions.assertTrue(hasOrderCreated, "Outbox should contain OrderCreated event");
@@ -131,7 +131,7 @@ class OrderServiceIntegrationTest {
 
         // Wait for consumer to process and orchestrator to update order
         Awaitility.await().atMost(Duration.ofSeconds(30)).pollInterval(Duration.ofSeconds(1)).until(() -> {
-            Order order = orderRepository.findById(resp.getOrderId()).orElse(null);
+            Order order = orderRepository.findByOrderId(resp.getOrderId()).orElse(null);
             return order != null && OrderStatus.CONFIRMED.equals(order.getStatus());
         });
 
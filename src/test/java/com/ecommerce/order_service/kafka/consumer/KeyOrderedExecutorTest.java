@@ -0,0 +1,59 @@
+package com.ecommerce.order_service.kafka.consumer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for KeyOrderedExecutor.
+ */
+class KeyOrderedExecutorTest {
+
+    @Test
+    void execute_shouldRunTasksOfOneKeyInSubmissionOrder() throws Exception {
+        // Given
+        Map<String, List<Integer>> seen = new ConcurrentHashMap<>();
+        CountDownLatch done = new CountDownLatch(400);
+
+        // When
+        try (KeyOrderedExecutor executor = new KeyOrderedExecutor("test-worker", 4)) {
+            for (int i = 0; i < 100; i++) {
+                for (String key : List.of("order-1", "order-2", "order-3", "order-4")) {
+                    int sequence = i;
+                    executor.execute(key, () -> {
+                        seen.computeIfAbsent(key, k -> new CopyOnWriteArrayList<>()).add(sequence);
+                        done.countDown();
+                    });
+                }
+            }
+            assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        }
+
+        // Then
+        assertThat(seen).hasSize(4);
+        seen.values().forEach(sequence -> assertThat(sequence).isSorted().hasSize(100));
+    }
+
+    @Test
+    void laneOf_shouldMapKeysToStableLanes() {
+        try (KeyOrderedExecutor executor = new KeyOrderedExecutor("test-worker", 8)) {
+            assertThat(executor.laneOf("order-1")).isEqualTo(executor.laneOf("order-1"));
+            assertThat(executor.laneOf("order-1")).isBetween(0, 7);
+            assertThat(executor.laneOf(null)).isZero();
+        }
+    }
+
+    @Test
+    void constructor_shouldRejectEmptyPool() {
+        assertThatThrownBy(() -> new KeyOrderedExecutor("test-worker", 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,106 @@
+package com.ecommerce.order_service.kafka.consumer;
+
+import com.ecommerce.order_service.inbox.InboxService;
+import com.ecommerce.order_service.kafka.event.PaymentSucceededEvent;
+import com.ecommerce.order_service.saga.OrderSagaOrchestrator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ParallelPaymentEventConsumerTest {
+
+    @Mock
+    private OrderSagaOrchestrator sagaOrchestrator;
+
+    @Mock
+    private ConsumerRecordRecoverer deadLetterRecoverer;
+
+    @Mock
+    private InboxService inboxService;
+
+    @Mock
+    private PaymentConsumerBackpressure backpressure;
+
+    @Mock
+    private Acknowledgment acknowledgment;
+
+    private ParallelPaymentEventConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        consumer = new ParallelPaymentEventConsumer(sagaOrchestrator,
+                new PaymentEventReader(new ObjectMapper()), deadLetterRecoverer, inboxService, backpressure);
+        ReflectionTestUtils.setField(consumer, "workers", 4);
+        ReflectionTestUtils.setField(consumer, "maxInFlight", 10);
+        ReflectionTestUtils.setField(consumer, "maxAttempts", 2);
+        ReflectionTestUtils.setField(consumer, "retryBackoffMs", 1L);
+        consumer.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        consumer.shutdown();
+    }
+
+    @Test
+    void handlePaymentEvent_shouldApplyOnWorkerAndAcknowledgeAfterwards() {
+        // When
+        consumer.handlePaymentEvent(record("PaymentSucceeded",
+                "{\"sagaId\":\"saga-1\",\"orderId\":\"order-1\",\"paymentId\":\"pay-1\"}"), acknowledgment);
+
+        // Then
+        verify(sagaOrchestrator, timeout(5000)).handlePaymentSuccess(any(PaymentSucceededEvent.class));
+        verify(acknowledgment, timeout(5000)).acknowledge();
+    }
+
+    @Test
+    void handlePaymentEvent_shouldDeadLetterUnreadableRecordAndAcknowledgeIt() {
+        // Given
+        ConsumerRecord<String, byte[]> record = record("PaymentSucceeded", "not-json");
+
+        // When
+        consumer.handlePaymentEvent(record, acknowledgment);
+
+        // Then
+        verify(deadLetterRecoverer).accept(eq(record), any());
+        verify(acknowledgment).acknowledge();
+        verifyNoInteractions(sagaOrchestrator);
+    }
+
+    @Test
+    void handlePaymentEvent_shouldDeadLetterAfterRetriesAreExhausted() {
+        // Given
+        ConsumerRecord<String, byte[]> record = record("PaymentFailed", "{\"sagaId\":\"saga-1\",\"orderId\":\"order-1\"}");
+        doThrow(new RuntimeException("Database unavailable")).when(sagaOrchestrator).handlePaymentFailure(any());
+
+        // When
+        consumer.handlePaymentEvent(record, acknowledgment);
+
+        // Then
+        verify(deadLetterRecoverer, timeout(5000)).accept(eq(record), any());
+        verify(acknowledgment, timeout(5000)).acknowledge();
+        verify(sagaOrchestrator, times(2)).handlePaymentFailure(any());
+    }
+
+    private static ConsumerRecord<String, byte[]> record(String eventType, String value) {
+        ConsumerRecord<String, byte[]> record = new ConsumerRecord<>("payments.events", 0, 0L, "order-1",
+                value.getBytes(StandardCharsets.UTF_8));
+        record.headers().add("eventType", eventType.getBytes(StandardCharsets.UTF_8));
+        return record;
+    }
+}
@@ -0,0 +1,125 @@
+package com.ecommerce.order_service.kafka.consumer;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for PaymentConsumerBackpressure.
+ */
+@ExtendWith(MockitoExtension.class)
+class PaymentConsumerBackpressureTest {
+
+    private static final TopicPartition PARTITION = new TopicPartition("payments.events", 0);
+
+    @Mock
+    private KafkaListenerEndpointRegistry listenerRegistry;
+
+    @Mock
+    private HikariDataSource dataSource;
+
+    @Mock
+    private HikariPoolMXBean pool;
+
+    @Mock
+    private MessageListenerContainer container;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private PaymentConsumerBackpressure backpressure;
+
+    @BeforeEach
+    void setUp() {
+        backpressure = new PaymentConsumerBackpressure(listenerRegistry, dataSource, meterRegistry);
+        ReflectionTestUtils.setField(backpressure, "paymentsEventsTopic", "payments.events");
+        ReflectionTestUtils.setField(backpressure, "enabled", true);
+        ReflectionTestUtils.setField(backpressure, "pausePendingThreads", 5);
+        ReflectionTestUtils.setField(backpressure, "resumePendingThreads", 0);
+        ReflectionTestUtils.setField(backpressure, "pauseLatencyMs", 2000L);
+        ReflectionTestUtils.setField(backpressure, "resumeLatencyMs", 500L);
+        ReflectionTestUtils.setField(backpressure, "resumeAfterChecks", 2);
+        backpressure.init();
+
+        when(listenerRegistry.getListenerContainer(PaymentConsumerBackpressure.LISTENER_ID)).thenReturn(container);
+        when(container.isRunning()).thenReturn(true);
+        lenient().when(container.getAssignedPartitions()).thenReturn(List.of(PARTITION));
+        when(dataSource.getHikariPoolMXBean()).thenReturn(pool);
+    }
+
+    @Test
+    void check_shouldPausePartitionsWhenThreadsQueueOnThePool() {
+        // Given
+        when(pool.getThreadsAwaitingConnection()).thenReturn(8);
+
+        // When
+        backpressure.check();
+
+        // Then
+        verify(container).pausePartition(PARTITION);
+        assertThat(backpressure.isPaused()).isTrue();
+        assertThat(meterRegistry.get("kafka.consumer.backpressure.pauses").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void check_shouldPausePartitionsWhenHandlerLatencyIsHigh() {
+        // Given
+        when(pool.getThreadsAwaitingConnection()).thenReturn(0);
+        backpressure.recordLatency(6_000_000_000L, 2);
+
+        // When
+        backpressure.check();
+
+        // Then
+        verify(container).pausePartition(PARTITION);
+        assertThat(backpressure.isPaused()).isTrue();
+    }
+
+    @Test
+    void check_shouldResumeOnlyAfterConsecutiveHealthyChecks() {
+        // Given
+        when(pool.getThreadsAwaitingConnection()).thenReturn(8, 0, 2, 0, 0);
+        when(container.isPartitionPauseRequested(PARTITION)).thenReturn(false, true);
+
+        // When
+        backpressure.check(); // saturated: pause
+        backpressure.check(); // healthy 1
+        backpressure.check(); // below the pause threshold but above the resume threshold: streak reset
+        backpressure.check(); // healthy 1
+        assertThat(backpressure.isPaused()).isTrue();
+        backpressure.check(); // healthy 2: resume
+
+        // Then
+        verify(container, times(1)).pausePartition(PARTITION);
+        verify(container, times(1)).resumePartition(PARTITION);
+        assertThat(backpressure.isPaused()).isFalse();
+    }
+
+    @Test
+    void check_shouldLeaveHealthyListenerRunning() {
+        // Given
+        when(pool.getThreadsAwaitingConnection()).thenReturn(1);
+        backpressure.recordLatency(20_000_000L, 1);
+
+        // When
+        backpressure.check();
+
+        // Then
+        verify(container, never()).pausePartition(any());
+        assertThat(backpressure.isPaused()).isFalse();
+    }
+}
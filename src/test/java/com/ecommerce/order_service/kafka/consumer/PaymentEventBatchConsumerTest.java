@@ -0,0 +1,104 @@
+package com.ecommerce.order_service.kafka.consumer;
+
+import com.ecommerce.order_service.kafka.event.PaymentFailedEvent;
+import com.ecommerce.order_service.kafka.event.PaymentSucceededEvent;
+import com.ecommerce.order_service.inbox.InboxService;
+import com.ecommerce.order_service.saga.OrderSagaOrchestrator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentEventBatchConsumerTest {
+
+    @Mock
+    private OrderSagaOrchestrator sagaOrchestrator;
+
+    @Mock
+    private InboxService inboxService;
+
+    @Mock
+    private PaymentConsumerBackpressure backpressure;
+
+    private PaymentEventBatchConsumer batchConsumer;
+
+    @BeforeEach
+    void setUp() {
+        batchConsumer = new PaymentEventBatchConsumer(sagaOrchestrator, new PaymentEventReader(new ObjectMapper()),
+                inboxService, backpressure);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void handlePaymentEvents_shouldApplyWholePollInOneCall() {
+        // Given
+        List<ConsumerRecord<String, byte[]>> records = List.of(
+                record(0, "PaymentSucceeded", "{\"sagaId\":\"saga-1\",\"orderId\":\"order-1\",\"paymentId\":\"pay-1\"}"),
+                record(1, "PaymentFailed", "{\"sagaId\":\"saga-2\",\"orderId\":\"order-2\",\"reason\":\"Declined\"}"),
+                record(2, "PaymentRefunded", "{}"));
+
+        // When
+        batchConsumer.handlePaymentEvents(records);
+
+        // Then
+        ArgumentCaptor<List<?>> events = ArgumentCaptor.forClass(List.class);
+        verify(sagaOrchestrator).applyPaymentResults(events.capture());
+        assertThat(events.getValue()).hasSize(2);
+        assertThat(events.getValue().get(0)).isInstanceOf(PaymentSucceededEvent.class);
+        assertThat(events.getValue().get(1)).isInstanceOf(PaymentFailedEvent.class);
+        verify(sagaOrchestrator, never()).handlePaymentSuccess(any());
+    }
+
+    @Test
+    void handlePaymentEvents_shouldApplyRecordsBeforePoisonAndFailOnlyThePoison() {
+        // Given
+        List<ConsumerRecord<String, byte[]>> records = List.of(
+                record(0, "PaymentSucceeded", "{\"sagaId\":\"saga-1\",\"orderId\":\"order-1\",\"paymentId\":\"pay-1\"}"),
+                record(1, "PaymentSucceeded", "not-json"),
+                record(2, "PaymentFailed", "{\"sagaId\":\"saga-2\",\"orderId\":\"order-2\"}"));
+
+        // When/Then
+        assertThatThrownBy(() -> batchConsumer.handlePaymentEvents(records))
+                .isInstanceOf(BatchListenerFailedException.class)
+                .satisfies(e -> assertThat(((BatchListenerFailedException) e).getIndex()).isEqualTo(1));
+        verify(sagaOrchestrator).applyPaymentResults(argThat(events -> events.size() == 1));
+    }
+
+    @Test
+    void handlePaymentEvents_shouldFallBackToOneTransactionPerEventWhenBulkFails() {
+        // Given
+        List<ConsumerRecord<String, byte[]>> records = List.of(
+                record(0, "PaymentSucceeded", "{\"sagaId\":\"saga-1\",\"orderId\":\"order-1\",\"paymentId\":\"pay-1\"}"),
+                record(1, "PaymentFailed", "{\"sagaId\":\"saga-2\",\"orderId\":\"order-2\"}"));
+        when(sagaOrchestrator.applyPaymentResults(anyList())).thenThrow(new RuntimeException("Deadlock"));
+        doThrow(new RuntimeException("Broken")).when(sagaOrchestrator).handlePaymentFailure(any());
+
+        // When/Then
+        assertThatThrownBy(() -> batchConsumer.handlePaymentEvents(records))
+                .isInstanceOf(BatchListenerFailedException.class)
+                .satisfies(e -> assertThat(((BatchListenerFailedException) e).getIndex()).isEqualTo(1));
+        verify(sagaOrchestrator).handlePaymentSuccess(any(PaymentSucceededEvent.class));
+    }
+
+    private static ConsumerRecord<String, byte[]> record(long offset, String eventType, String value) {
+        ConsumerRecord<String, byte[]> record = new ConsumerRecord<>("payments.events", 0, offset, "key",
+                value.getBytes(StandardCharsets.UTF_8));
+        record.headers().add("eventType", eventType.getBytes(StandardCharsets.UTF_8));
+        return record;
+    }
+}
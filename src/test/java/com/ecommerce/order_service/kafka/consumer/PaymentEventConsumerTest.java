@@ -1,11 +1,14 @@
 package com.ecommerce.order_service.kafka.consumer;
 
+import com.ecommerce.order_service.inbox.InboxService;
 import com.ecommerce.order_service.kafka.event.PaymentFailedEvent;
 import com.ecommerce.order_service.kafka.event.PaymentSucceededEvent;
 import com.ecommerce.order_service.saga.OrderSagaOrchestrator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -13,6 +16,8 @@ import java.time.LocalDateTime;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class PaymentEventConsumerTest {
@@ -20,11 +25,25 @@ class PaymentEventConsumerTest {
     @Mock
     private OrderSagaOrchestrator sagaOrchestrator;
 
-    @InjectMocks
+    @Mock
+    private InboxService inboxService;
+
+    @Mock
+    private PaymentConsumerBackpressure backpressure;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
     private PaymentEventConsumer paymentEventConsumer;
 
+    @BeforeEach
+    void setUp() {
+        paymentEventConsumer = new PaymentEventConsumer(
+                new PaymentEventProcessor(sagaOrchestrator, new PaymentEventReader(objectMapper), inboxService),
+                backpressure);
+    }
+
     @Test
-    void handlePaymentEvent_shouldProcessPaymentSucceeded() {
+    void handlePaymentEvent_shouldProcessPaymentSucceeded() throws Exception {
         // Given
         PaymentSucceededEvent event = PaymentSucceededEvent.builder()
                 .sagaId("saga-1")
@@ -35,14 +54,14 @@ class PaymentEventConsumerTest {
                 .build();
 
         // When
-        paymentEventConsumer.handlePaymentEvent(event, "PaymentSucceeded", "key-1");
+        paymentEventConsumer.handlePaymentEvent(objectMapper.writeValueAsBytes(event), "PaymentSucceeded", "key-1");
 
         // Then
         verify(sagaOrchestrator).handlePaymentSuccess(any(PaymentSucceededEvent.class));
     }
 
     @Test
-    void handlePaymentEvent_shouldProcessPaymentFailed() {
+    void handlePaymentEvent_shouldProcessPaymentFailed() throws Exception {
         // Given
         PaymentFailedEvent event = PaymentFailedEvent.builder()
                 .sagaId("saga-1")
@@ -53,9 +72,26 @@ class PaymentEventConsumerTest {
                 .build();
 
         // When
-        paymentEventConsumer.handlePaymentEvent(event, "PaymentFailed", "key-1");
+        paymentEventConsumer.handlePaymentEvent(objectMapper.writeValueAsBytes(event), "PaymentFailed", "key-1");
 
         // Then
         verify(sagaOrchestrator).handlePaymentFailure(any(PaymentFailedEvent.class));
     }
+
+    @Test
+    void handlePaymentEvent_shouldSkipAlreadyProcessedEvent() throws Exception {
+        // Given
+        PaymentSucceededEvent event = PaymentSucceededEvent.builder()
+                .sagaId("saga-1")
+                .orderId("order-1")
+                .paymentId("pay-1")
+                .build();
+        when(inboxService.isDuplicate("PaymentSucceeded:saga-1")).thenReturn(true);
+
+        // When
+        paymentEventConsumer.handlePaymentEvent(objectMapper.writeValueAsBytes(event), "PaymentSucceeded", "key-1");
+
+        // Then
+        verifyNoInteractions(sagaOrchestrator);
+    }
 }
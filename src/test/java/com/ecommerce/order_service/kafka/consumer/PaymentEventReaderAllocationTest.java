@@ -0,0 +1,100 @@
+package com.ecommerce.order_service.kafka.consumer;
+
+import com.ecommerce.order_service.kafka.event.PaymentSucceededEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Allocation benchmark for payment event deserialization: compares the former path (String value,
+ * generic Map payload, convertValue into the event) with typed readers parsing the raw bytes.
+ */
+@Slf4j
+class PaymentEventReaderAllocationTest {
+
+    private static final int WARMUP = 20_000;
+    private static final int MESSAGES = 50_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final PaymentEventReader eventReader = new PaymentEventReader(objectMapper);
+
+    private ConsumerRecord<String, byte[]> record;
+    private com.sun.management.ThreadMXBean threadBean;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        PaymentSucceededEvent event = PaymentSucceededEvent.builder()
+                .paymentId("pay-8f14e45f-ceea-467f-a0e6-1c4c4d6e0e2b")
+                .orderId("ORD-20261017-000001")
+                .userId("user-42")
+                .correlationId("corr-6512bd43-d9ca-4fd1-8a1c-0c1b6d0c7f3e")
+                .sagaId("saga-c20ad4d7-6fe9-4759-aa27-a0c99bff6710")
+                .timestamp(LocalDateTime.of(2026, 10, 17, 12, 0))
+                .build();
+        record = new ConsumerRecord<>("payments.events", 0, 0L, event.getOrderId(),
+                objectMapper.writeValueAsBytes(event));
+        record.headers().add("eventType", PaymentEventReader.PAYMENT_SUCCEEDED.getBytes(StandardCharsets.UTF_8));
+
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    @Test
+    void typedReader_shouldAllocateLessPerMessageThanStringAndMapConversion() throws Exception {
+        // Given
+        measure(WARMUP, this::readViaStringAndMap);
+        measure(WARMUP, this::readTyped);
+
+        // When
+        long legacyBytes = measure(MESSAGES, this::readViaStringAndMap) / MESSAGES;
+        long typedBytes = measure(MESSAGES, this::readTyped) / MESSAGES;
+
+        // Then
+        log.info("Payment event deserialization: {} B/msg via String+Map, {} B/msg via typed reader ({}% less)",
+                legacyBytes, typedBytes, 100 - typedBytes * 100 / legacyBytes);
+        assertThat(typedBytes).isLessThan(legacyBytes);
+    }
+
+    private Object readViaStringAndMap() throws Exception {
+        String value = new String(record.value(), StandardCharsets.UTF_8);
+        Map<?, ?> payload = objectMapper.readValue(value, Map.class);
+        return objectMapper.convertValue(payload, PaymentSucceededEvent.class);
+    }
+
+    private Object readTyped() throws Exception {
+        return eventReader.read(record);
+    }
+
+    private long measure(int messages, Deserialization deserialization) throws Exception {
+        long threadId = Thread.currentThread().threadId();
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        Object sink = null;
+        for (int i = 0; i < messages; i++) {
+            sink = deserialization.read();
+        }
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+        assertThat(sink).isInstanceOf(PaymentSucceededEvent.class);
+        return allocated;
+    }
+
+    @FunctionalInterface
+    private interface Deserialization {
+        Object read() throws Exception;
+    }
+}
@@ -0,0 +1,51 @@
+package com.ecommerce.order_service.kafka.consumer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RetryTierMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RetryTierMetrics retryTierMetrics = new RetryTierMetrics(meterRegistry);
+
+    @Test
+    void tierOf_shouldDeriveTierFromTopicName() {
+        assertThat(RetryTierMetrics.tierOf("payments.events")).isEqualTo("main");
+        assertThat(RetryTierMetrics.tierOf("payments.events.retry-10s")).isEqualTo("retry-10s");
+        assertThat(RetryTierMetrics.tierOf("payments.events.DLQ")).isEqualTo("dlq");
+        assertThat(RetryTierMetrics.baseTopicOf("payments.events.retry-60s")).isEqualTo("payments.events");
+        assertThat(RetryTierMetrics.baseTopicOf("payments.events.DLQ")).isEqualTo("payments.events");
+    }
+
+    @Test
+    void onSuccess_shouldCountRecordsForwardedPerTier() {
+        // When
+        retryTierMetrics.onSuccess(new ProducerRecord<>("payments.events.retry-1s", "order-1", new byte[0]), null);
+        retryTierMetrics.onSuccess(new ProducerRecord<>("payments.events.retry-1s", "order-2", new byte[0]), null);
+        retryTierMetrics.onSuccess(new ProducerRecord<>("payments.events.DLQ", "order-3", new byte[0]), null);
+
+        // Then
+        assertThat(meterRegistry.get("kafka.retry.forwarded").tag("tier", "retry-1s").counter().count()).isEqualTo(2.0);
+        assertThat(meterRegistry.get("kafka.retry.forwarded").tag("tier", "dlq").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void successAndFailure_shouldCountConsumedRecordsPerTierAndOutcome() {
+        // Given
+        ConsumerRecord<String, byte[]> retried = new ConsumerRecord<>("payments.events.retry-10s", 0, 5L, "order-1", new byte[0]);
+
+        // When
+        retryTierMetrics.failure(retried, new IllegalStateException("boom"), null);
+        retryTierMetrics.success(retried, null);
+
+        // Then
+        assertThat(meterRegistry.get("kafka.retry.consumed").tags("tier", "retry-10s", "outcome", "failure")
+                .counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("kafka.retry.consumed").tags("tier", "retry-10s", "outcome", "success")
+                .counter().count()).isEqualTo(1.0);
+    }
+}
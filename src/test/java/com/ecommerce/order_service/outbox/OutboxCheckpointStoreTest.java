@@ -0,0 +1,130 @@
+package com.ecommerce.order_service.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for OutboxCheckpointStore.
+ */
+@ExtendWith(MockitoExtension.class)
+class OutboxCheckpointStoreTest {
+
+    private static final String TOPIC = "order-service.outbox-checkpoints";
+    private static final TopicPartition PARTITION = new TopicPartition(TOPIC, 0);
+
+    @Mock
+    private ConsumerFactory<String, byte[]> consumerFactory;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private KafkaOperations<String, byte[]> operations;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final MockConsumer<String, byte[]> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+
+    private OutboxCheckpointStore checkpointStore;
+
+    @BeforeEach
+    void setUp() {
+        checkpointStore = new OutboxCheckpointStore(consumerFactory, outboxService, objectMapper);
+        ReflectionTestUtils.setField(checkpointStore, "checkpointTopic", TOPIC);
+        ReflectionTestUtils.setField(checkpointStore, "readTimeoutMs", 5000L);
+    }
+
+    @Test
+    void append_shouldSendCheckpointWithHighWaterMarkKeyedByRelay() throws Exception {
+        // When
+        checkpointStore.append(operations, "node-a", List.of(3L, 9L, 5L));
+
+        // Then
+        verify(operations).send(eq(TOPIC), eq("node-a"), argThat(value -> {
+            try {
+                OutboxCheckpoint checkpoint = objectMapper.readValue(value, OutboxCheckpoint.class);
+                return checkpoint.highWaterMark() == 9L && checkpoint.eventIds().equals(List.of(3L, 9L, 5L));
+            } catch (Exception e) {
+                return false;
+            }
+        }));
+    }
+
+    @Test
+    void readCheckpoints_shouldKeepLatestCheckpointPerRelay() throws Exception {
+        // Given
+        givenCheckpointRecords(
+                record(0, "node-a", checkpoint("node-a", 1L, 2L)),
+                record(1, "node-b", checkpoint("node-b", 3L)),
+                record(2, "node-a", checkpoint("node-a", 7L, 8L)),
+                record(3, "node-b", null));
+
+        // When
+        Map<String, OutboxCheckpoint> checkpoints = checkpointStore.readCheckpoints();
+
+        // Then
+        assertThat(checkpoints).containsOnlyKeys("node-a");
+        assertThat(checkpoints.get("node-a").eventIds()).containsExactly(7L, 8L);
+    }
+
+    @Test
+    void reconcile_shouldArchiveEventsListedInCommittedCheckpoints() throws Exception {
+        // Given
+        givenCheckpointRecords(
+                record(0, "node-a", checkpoint("node-a", 7L, 8L)),
+                record(1, "node-b", checkpoint("node-b", 4L)));
+        when(outboxService.archivePublished(anyCollection())).thenReturn(2);
+
+        // When
+        int archived = checkpointStore.reconcile();
+
+        // Then
+        assertThat(archived).isEqualTo(2);
+        verify(outboxService).archivePublished(argThat(ids -> ids.containsAll(List.of(7L, 8L, 4L)) && ids.size() == 3));
+    }
+
+    @SafeVarargs
+    private void givenCheckpointRecords(ConsumerRecord<String, byte[]>... records) {
+        when(consumerFactory.createConsumer(isNull(), eq("outbox-checkpoint-reader"), isNull(), any()))
+                .thenReturn(consumer);
+        consumer.updatePartitions(TOPIC, List.of(new PartitionInfo(TOPIC, 0, null, null, null)));
+        consumer.updateBeginningOffsets(Map.of(PARTITION, 0L));
+        consumer.updateEndOffsets(Map.of(PARTITION, (long) records.length));
+        consumer.schedulePollTask(() -> {
+            for (ConsumerRecord<String, byte[]> record : records) {
+                consumer.addRecord(record);
+            }
+        });
+    }
+
+    private static ConsumerRecord<String, byte[]> record(long offset, String key, byte[] value) {
+        return new ConsumerRecord<>(TOPIC, 0, offset, key, value);
+    }
+
+    private byte[] checkpoint(String relayId, Long... ids) throws Exception {
+        List<Long> eventIds = List.of(ids);
+        long highWaterMark = eventIds.stream().mapToLong(Long::longValue).max().orElse(0L);
+        return objectMapper.writeValueAsBytes(new OutboxCheckpoint(relayId, highWaterMark, eventIds, 0L));
+    }
+}
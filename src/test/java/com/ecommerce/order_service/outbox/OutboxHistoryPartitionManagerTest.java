@@ -0,0 +1,135 @@
+package com.ecommerce.order_service.outbox;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxHistoryPartitionManagerTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 3, 10);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private OutboxHistoryPartitionManager partitionManager;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(partitionManager, "partitionsAhead", 1);
+    }
+
+    @Test
+    void toDays_shouldMatchMysql() {
+        // SELECT TO_DAYS('2025-03-10') = 739685
+        assertThat(OutboxHistoryPartitionManager.toDays(TODAY)).isEqualTo(739685L);
+    }
+
+    @Test
+    void ensurePartitions_shouldOnlyCreateMissingDays() {
+        // Given: today's partition already exists
+        givenPartitions(List.of(
+                partition("p20250310", TODAY.plusDays(1)),
+                new OutboxHistoryPartitionManager.Partition("p_future", Long.MAX_VALUE)));
+
+        // When
+        partitionManager.ensurePartitions(TODAY);
+
+        // Then
+        verify(jdbcTemplate).execute("ALTER TABLE outbox_events_history REORGANIZE PARTITION p_future INTO " +
+                "(PARTITION p20250311 VALUES LESS THAN (739687), PARTITION p_future VALUES LESS THAN MAXVALUE)");
+        verify(jdbcTemplate, times(1)).execute(anyString());
+    }
+
+    @Test
+    void ensurePartitions_shouldSkipPartitionCreatedConcurrentlyByAnotherNode() {
+        // Given: another node splits p20250310 off between our read and our ALTER
+        when(jdbcTemplate.query(anyString(), partitionMapper()))
+                .thenReturn(List.of(new OutboxHistoryPartitionManager.Partition("p_future", Long.MAX_VALUE)))
+                .thenReturn(List.of(
+                        partition("p20250310", TODAY.plusDays(1)),
+                        new OutboxHistoryPartitionManager.Partition("p_future", Long.MAX_VALUE)));
+        doThrow(new BadSqlGrammarException("ALTER", "ALTER", new SQLException("Duplicate partition name p20250310")))
+                .when(jdbcTemplate).execute(contains("PARTITION p20250310 "));
+
+        // When
+        partitionManager.ensurePartitions(TODAY);
+
+        // Then: tomorrow's partition is still created
+        verify(jdbcTemplate).execute(contains("PARTITION p20250311 "));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void maintainPartitions_shouldDoNothingWhileAnotherNodeHoldsTheLock() throws Exception {
+        // Given
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(connection.prepareStatement("SELECT GET_LOCK(?, 0)")).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getInt(1)).thenReturn(0);
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenAnswer(invocation ->
+                ((ConnectionCallback<Integer>) invocation.getArgument(0)).doInConnection(connection));
+
+        // When
+        int dropped = partitionManager.maintainPartitions(TODAY, 7);
+
+        // Then
+        assertThat(dropped).isEqualTo(-1);
+        verify(jdbcTemplate, never()).execute(anyString());
+        verify(jdbcTemplate, never()).query(anyString(), any(RowMapper.class));
+    }
+
+    @Test
+    void dropPartitionsOlderThan_shouldDropExpiredPartitionsInOneStatement() {
+        // Given
+        givenPartitions(List.of(
+                partition("p20250301", LocalDate.of(2025, 3, 2)),
+                partition("p20250302", LocalDate.of(2025, 3, 3)),
+                partition("p20250303", LocalDate.of(2025, 3, 4)),
+                new OutboxHistoryPartitionManager.Partition("p_future", Long.MAX_VALUE)));
+
+        // When
+        int dropped = partitionManager.dropPartitionsOlderThan(TODAY, 7);
+
+        // Then: events published on 2025-03-03 are still within the 7 day window
+        assertThat(dropped).isEqualTo(2);
+        verify(jdbcTemplate).execute("ALTER TABLE outbox_events_history DROP PARTITION p20250301, p20250302");
+    }
+
+    private void givenPartitions(List<OutboxHistoryPartitionManager.Partition> partitions) {
+        when(jdbcTemplate.query(anyString(), partitionMapper())).thenReturn(partitions);
+    }
+
+    private static RowMapper<OutboxHistoryPartitionManager.Partition> partitionMapper() {
+        return any();
+    }
+
+    private static OutboxHistoryPartitionManager.Partition partition(String name, LocalDate upperBoundDay) {
+        return new OutboxHistoryPartitionManager.Partition(name, OutboxHistoryPartitionManager.toDays(upperBoundDay));
+    }
+}
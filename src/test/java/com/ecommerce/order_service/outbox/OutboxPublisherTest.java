@@ -1,17 +1,40 @@
 package com.ecommerce.order_service.outbox;
 
+import com.ecommerce.order_service.domain.codec.PayloadCodec;
 import com.ecommerce.order_service.domain.entity.OutboxEvent;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.core.KafkaOperations;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -21,51 +44,409 @@ class OutboxPublisherTest {
     private OutboxService outboxService;
 
     @Mock
-    private KafkaTemplate<String, Object> kafkaTemplate;
+    private KafkaTemplate<String, byte[]> outboxKafkaTemplate;
+
+    @Spy
+    private PayloadCodec payloadCodec = new PayloadCodec("lz4", 256, 3);
+
+    @Mock
+    private OutboxShardLeaseManager shardLeaseManager;
+
+    @Mock
+    private OutboxCheckpointStore checkpointStore;
 
     @Mock
-    private ObjectMapper objectMapper;
+    private KafkaOperations<String, byte[]> transactionOperations;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
 
     @InjectMocks
     private OutboxPublisher outboxPublisher;
 
+    private final AtomicReference<List<Long>> publishedIds = new AtomicReference<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(outboxPublisher, "batchSize", 100);
+        ReflectionTestUtils.setField(outboxPublisher, "maxInFlight", 10);
+        ReflectionTestUtils.setField(outboxPublisher, "ackTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(outboxPublisher, "minPollIntervalMs", 50L);
+        ReflectionTestUtils.setField(outboxPublisher, "maxPollIntervalMs", 5000L);
+        ReflectionTestUtils.setField(outboxPublisher, "wakeUpChannel", "outbox.relay.wake-up");
+        outboxPublisher.init();
+    }
+
     @Test
-    void publishEvents_shouldPublishAndMarkAsPublished() throws Exception {
+    void publishEvents_shouldPublishAndMarkAsPublished() {
         // Given
         OutboxEvent event = new OutboxEvent();
         event.setId(1L);
         event.setEventType("OrderCreated");
         event.setAggregateType("Order");
         event.setAggregateId("order-1");
-        event.setPayload("{}");
+        event.setPayload(payloadCodec.encode("{}"));
+
+        givenClaimedBatch(List.of(event));
+        when(outboxKafkaTemplate.send(any(org.springframework.messaging.Message.class)))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        // When
+        outboxPublisher.publishEvents();
+
+        // Then
+        verify(outboxKafkaTemplate).send(any(org.springframework.messaging.Message.class));
+        assertThat(publishedIds.get()).containsExactly(1L);
+    }
+
+    @Test
+    void publishEvents_shouldOnlyMarkAcknowledgedEvents() {
+        // Given
+        OutboxEvent acked = OutboxEvent.builder().id(1L).eventType("OrderCreated")
+                .aggregateType("Order").aggregateId("order-1").payload(payloadCodec.encode("{}")).build();
+        OutboxEvent rejected = OutboxEvent.builder().id(2L).eventType("OrderCreated")
+                .aggregateType("Order").aggregateId("order-2").payload(payloadCodec.encode("{}")).build();
+
+        givenClaimedBatch(List.of(acked, rejected));
+        when(outboxKafkaTemplate.send(any(org.springframework.messaging.Message.class)))
+                .thenReturn(CompletableFuture.completedFuture(null))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Not enough replicas")));
+
+        // When
+        outboxPublisher.publishEvents();
 
-        when(outboxService.getUnpublishedEvents()).thenReturn(List.of(event));
-        when(objectMapper.readValue(anyString(), eq(Object.class))).thenReturn(new Object());
+        // Then
+        verify(outboxKafkaTemplate, times(2)).send(any(org.springframework.messaging.Message.class));
+        assertThat(publishedIds.get()).containsExactly(1L);
+    }
+
+    @Test
+    void publishEvents_shouldNotArchiveLaterEventsOfAggregateWhoseEarlierEventFailed() {
+        // Given
+        OutboxEvent failed = event(1L, "order-1");
+        OutboxEvent laterOfFailedAggregate = event(2L, "order-1");
+        OutboxEvent otherAggregate = event(3L, "order-2");
+
+        givenClaimedBatch(List.of(failed, laterOfFailedAggregate, otherAggregate));
+        when(outboxKafkaTemplate.send(any(org.springframework.messaging.Message.class)))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Record too large")))
+                .thenReturn(CompletableFuture.completedFuture(null))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        // When
+        outboxPublisher.publishEvents();
+
+        // Then
+        assertThat(publishedIds.get()).containsExactly(3L);
+    }
+
+    @Test
+    void publishEvents_shouldNotSendLaterEventsOfAggregateAfterSendFails() {
+        // Given
+        givenClaimedBatch(List.of(event(1L, "order-1"), event(2L, "order-1"), event(3L, "order-2")));
+        when(outboxKafkaTemplate.send(any(org.springframework.messaging.Message.class)))
+                .thenThrow(new RuntimeException("Serialization failed"))
+                .thenReturn(CompletableFuture.completedFuture(null));
 
         // When
         outboxPublisher.publishEvents();
 
         // Then
-        verify(kafkaTemplate).send(any(org.springframework.messaging.Message.class));
-        verify(outboxService).markAsPublished(1L);
+        verify(outboxKafkaTemplate, times(2)).send(any(org.springframework.messaging.Message.class));
+        assertThat(publishedIds.get()).containsExactly(3L);
     }
 
     @Test
-    void publishEvents_shouldNotMarkAsPublishedOnFailure() throws Exception {
+    void publishEvents_shouldNotMarkAsPublishedOnFailure() {
         // Given
         OutboxEvent event = new OutboxEvent();
         event.setId(1L);
         event.setEventType("OrderCreated");
+        event.setPayload(payloadCodec.encode("{}"));
+
+        givenClaimedBatch(List.of(event));
+        when(outboxKafkaTemplate.send(any(org.springframework.messaging.Message.class)))
+                .thenThrow(new RuntimeException("Broker unavailable"));
+
+        // When
+        outboxPublisher.publishEvents();
+
+        // Then
+        assertThat(publishedIds.get()).isEmpty();
+    }
+
+    @Test
+    void publishEvents_shouldKeepDrainingWhileBatchesAreFullEvenIfSomeEventsFail() {
+        // Given
+        ReflectionTestUtils.setField(outboxPublisher, "batchSize", 2);
+        givenClaimedBatches(List.of(
+                List.of(event(1L, "order-1"), event(2L, "order-2")),
+                List.of(event(3L, "order-3"), event(4L, "order-4")),
+                List.of()));
+        when(outboxKafkaTemplate.send(any(org.springframework.messaging.Message.class)))
+                .thenReturn(CompletableFuture.completedFuture(null))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Not enough replicas")))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        // When
+        int published = outboxPublisher.publishEvents();
+
+        // Then
+        assertThat(published).isEqualTo(3);
+        verify(outboxService, times(3)).publishBatch(eq(2), any());
+    }
+
+    @Test
+    void publishEvents_shouldStopDrainingWhenFullBatchPublishesNothing() {
+        // Given
+        ReflectionTestUtils.setField(outboxPublisher, "batchSize", 1);
+        givenClaimedBatch(List.of(event(1L, "order-1")));
+        when(outboxKafkaTemplate.send(any(org.springframework.messaging.Message.class)))
+                .thenThrow(new RuntimeException("Broker unavailable"));
+
+        // When
+        int published = outboxPublisher.publishEvents();
+
+        // Then
+        assertThat(published).isZero();
+        verify(outboxService, times(1)).publishBatch(eq(1), any());
+    }
+
+    @Test
+    void publishEvents_shouldOnlyClaimOwnedBucketsWhenSharded() {
+        // Given
+        when(shardLeaseManager.isEnabled()).thenReturn(true);
+        when(shardLeaseManager.getOwnedBuckets()).thenReturn(Set.of(3, 7));
+        when(outboxService.publishBatch(eq(100), eq(Set.of(3, 7)), any())).thenReturn(0);
+
+        // When
+        outboxPublisher.publishEvents();
+
+        // Then
+        verify(outboxService).publishBatch(eq(100), eq(Set.of(3, 7)), any());
+        verify(outboxService, never()).publishBatch(anyInt(), any());
+    }
+
+    @Test
+    void publishEvents_shouldSkipWhenShardedNodeOwnsNoBuckets() {
+        // Given
+        when(shardLeaseManager.isEnabled()).thenReturn(true);
+        when(shardLeaseManager.getOwnedBuckets()).thenReturn(Set.of());
+
+        // When
+        int claimed = outboxPublisher.publishEvents();
 
-        when(outboxService.getUnpublishedEvents()).thenReturn(List.of(event));
-        when(objectMapper.readValue(anyString(), eq(Object.class)))
-                .thenThrow(new RuntimeException("Serialization error"));
+        // Then
+        assertThat(claimed).isZero();
+        verifyNoInteractions(outboxService);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void publishEvents_shouldSendBatchAndCheckpointInOneTransaction() {
+        // Given
+        ReflectionTestUtils.setField(outboxPublisher, "transactional", true);
+        when(shardLeaseManager.getNodeId()).thenReturn("node-a");
+        OutboxEvent first = OutboxEvent.builder().id(1L).eventType("OrderCreated")
+                .aggregateType("Order").aggregateId("order-1").payload(payloadCodec.encode("{}")).build();
+        OutboxEvent second = OutboxEvent.builder().id(4L).eventType("PaymentRequested")
+                .aggregateType("Order").aggregateId("order-2").payload(payloadCodec.encode("{}")).build();
+
+        givenClaimedBatch(List.of(first, second));
+        when(outboxKafkaTemplate.executeInTransaction(any())).thenAnswer(invocation ->
+                ((KafkaOperations.OperationsCallback<String, byte[], Object>) invocation.getArgument(0))
+                        .doInOperations(transactionOperations));
+
+        // When
+        outboxPublisher.publishEvents();
+        outboxPublisher.publishEvents();
+
+        // Then
+        verify(checkpointStore).reconcile();
+        verify(transactionOperations, times(4)).send(any(org.springframework.messaging.Message.class));
+        verify(checkpointStore, times(2)).append(transactionOperations, "node-a", List.of(1L, 4L));
+        verify(outboxKafkaTemplate, never()).send(any(org.springframework.messaging.Message.class));
+        assertThat(publishedIds.get()).containsExactly(1L, 4L);
+    }
+
+    @Test
+    void publishEvents_shouldKeepBatchPendingWhenTransactionAborts() {
+        // Given
+        ReflectionTestUtils.setField(outboxPublisher, "transactional", true);
+        OutboxEvent event = OutboxEvent.builder().id(1L).eventType("OrderCreated")
+                .aggregateType("Order").aggregateId("order-1").payload(payloadCodec.encode("{}")).build();
+
+        givenClaimedBatch(List.of(event));
+        when(outboxKafkaTemplate.executeInTransaction(any()))
+                .thenThrow(new KafkaException("Transaction aborted"));
+
+        // When
+        outboxPublisher.publishEvents();
+
+        // Then
+        verify(outboxKafkaTemplate, times(2)).executeInTransaction(any());
+        verify(outboxService, never()).parkFailed(anyLong(), anyString());
+        assertThat(publishedIds.get()).isEmpty();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void publishEvents_shouldParkRecordKafkaRejectsAndPublishRestOfAbortedBatch() {
+        // Given
+        ReflectionTestUtils.setField(outboxPublisher, "transactional", true);
+        when(shardLeaseManager.getNodeId()).thenReturn("node-a");
+        givenClaimedBatch(List.of(event(1L, "order-1"), event(2L, "order-2"), event(3L, "order-3")));
+
+        KafkaException tooLarge = new KafkaException("Transaction aborted", new RecordTooLargeException("too large"));
+        Answer<Object> commit = invocation ->
+                ((KafkaOperations.OperationsCallback<String, byte[], Object>) invocation.getArgument(0))
+                        .doInOperations(transactionOperations);
+        when(outboxKafkaTemplate.executeInTransaction(any()))
+                .thenThrow(tooLarge)
+                .thenAnswer(commit)
+                .thenThrow(tooLarge)
+                .thenAnswer(commit);
+
+        // When
+        int published = outboxPublisher.publishEvents();
+
+        // Then
+        assertThat(published).isEqualTo(2);
+        assertThat(publishedIds.get()).containsExactly(1L, 3L);
+        verify(outboxService).parkFailed(eq(2L), contains("RecordTooLargeException"));
+        verify(checkpointStore).append(transactionOperations, "node-a", List.of(1L));
+        verify(checkpointStore).append(transactionOperations, "node-a", List.of(1L, 3L));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void publishEvents_shouldReconcileEveryFallbackTransactionCommittedBeforeCrash() {
+        // Given
+        ReflectionTestUtils.setField(outboxPublisher, "transactional", true);
+        when(shardLeaseManager.getNodeId()).thenReturn("node-a");
+        givenClaimedBatches(List.of(
+                List.of(event(1L, "order-1"), event(2L, "order-2"), event(3L, "order-3")),
+                List.of()));
+
+        Map<String, List<Long>> latestCheckpoints = new HashMap<>();
+        doAnswer(invocation -> latestCheckpoints.put(invocation.getArgument(1), invocation.getArgument(2)))
+                .when(checkpointStore).append(any(), anyString(), anyList());
+        when(checkpointStore.reconcile()).thenAnswer(invocation -> outboxService.archivePublished(
+                latestCheckpoints.values().stream().flatMap(List::stream).toList()));
+
+        Answer<Object> commit = invocation ->
+                ((KafkaOperations.OperationsCallback<String, byte[], Object>) invocation.getArgument(0))
+                        .doInOperations(transactionOperations);
+        when(outboxKafkaTemplate.executeInTransaction(any()))
+                .thenThrow(new KafkaException("Transaction aborted"))
+                .thenAnswer(commit)
+                .thenAnswer(commit)
+                .thenThrow(new Error("Relay node killed"));
+
+        // When
+        assertThatThrownBy(() -> outboxPublisher.publishEvents()).hasMessage("Relay node killed");
+        // The restarted relay reconciles before it claims again
+        ReflectionTestUtils.setField(outboxPublisher, "reconciledBuckets", null);
+        outboxPublisher.publishEvents();
+
+        // Then
+        verify(outboxService).archivePublished(List.of(1L, 2L));
+    }
+
+    @Test
+    void publishEvents_shouldReconcileAgainAfterPublishingFails() {
+        // Given
+        ReflectionTestUtils.setField(outboxPublisher, "transactional", true);
+        when(outboxService.publishBatch(anyInt(), any()))
+                .thenThrow(new IllegalStateException("Archiving failed"))
+                .thenReturn(0);
 
         // When
+        assertThatThrownBy(() -> outboxPublisher.publishEvents()).isInstanceOf(IllegalStateException.class);
         outboxPublisher.publishEvents();
 
         // Then
-        verify(kafkaTemplate, never()).send(any(org.springframework.messaging.Message.class));
-        verify(outboxService, never()).markAsPublished(anyLong());
+        verify(checkpointStore, times(2)).reconcile();
+    }
+
+    @Test
+    void publishEvents_shouldNotPublishUntilCheckpointsAreReconciled() {
+        // Given
+        ReflectionTestUtils.setField(outboxPublisher, "transactional", true);
+        when(checkpointStore.reconcile()).thenThrow(new IllegalStateException("Broker unavailable"));
+
+        // When
+        int claimed = outboxPublisher.publishEvents();
+
+        // Then
+        assertThat(claimed).isZero();
+        verifyNoInteractions(outboxService);
+    }
+
+    @Test
+    void onOutboxEventSaved_shouldAnnounceBucketsLeasedByOtherNodesOnce() {
+        // Given
+        when(shardLeaseManager.isEnabled()).thenReturn(true);
+        when(shardLeaseManager.getOwnedBuckets()).thenReturn(Set.of(1));
+        when(shardLeaseManager.bucketOf("order-1")).thenReturn(1);
+        when(shardLeaseManager.bucketOf("order-2")).thenReturn(5);
+
+        // When
+        outboxPublisher.onOutboxEventSaved(new OutboxEventSaved("Order", "order-1", "OrderCreated"));
+        outboxPublisher.onOutboxEventSaved(new OutboxEventSaved("Order", "order-2", "OrderCreated"));
+        outboxPublisher.onOutboxEventSaved(new OutboxEventSaved("Order", "order-2", "PaymentRequested"));
+        outboxPublisher.announceRemoteBuckets();
+        outboxPublisher.announceRemoteBuckets();
+
+        // Then
+        verify(redisTemplate, times(1)).convertAndSend("outbox.relay.wake-up", "5");
+    }
+
+    @Test
+    void onWakeUpMessage_shouldWakeRelayOnlyForOwnedBuckets() {
+        // Given
+        when(shardLeaseManager.getOwnedBuckets()).thenReturn(Set.of(3, 7));
+        Semaphore wakeUps = (Semaphore) ReflectionTestUtils.getField(outboxPublisher, "wakeUps");
+
+        // When/Then
+        outboxPublisher.onWakeUpMessage("1,2");
+        assertThat(wakeUps.availablePermits()).isZero();
+        outboxPublisher.onWakeUpMessage("2,7");
+        assertThat(wakeUps.availablePermits()).isEqualTo(1);
+    }
+
+    @Test
+    void nextPollInterval_shouldBackOffWhenIdleAndTightenWhileDraining() {
+        assertThat(outboxPublisher.nextPollInterval(50, 0)).isEqualTo(100);
+        assertThat(outboxPublisher.nextPollInterval(4000, 0)).isEqualTo(5000);
+        assertThat(outboxPublisher.nextPollInterval(5000, 0)).isEqualTo(5000);
+        assertThat(outboxPublisher.nextPollInterval(5000, 12)).isEqualTo(50);
+    }
+
+    private OutboxEvent event(long id, String aggregateId) {
+        return OutboxEvent.builder().id(id).eventType("OrderCreated")
+                .aggregateType("Order").aggregateId(aggregateId).payload(payloadCodec.encode("{}")).build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenClaimedBatch(List<OutboxEvent> batch) {
+        when(outboxService.publishBatch(anyInt(), any())).thenAnswer(invocation -> {
+            Function<List<OutboxEvent>, List<Long>> publisher = invocation.getArgument(1);
+            publishedIds.set(publisher.apply(batch));
+            return batch.size();
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenClaimedBatches(List<List<OutboxEvent>> batches) {
+        Iterator<List<OutboxEvent>> claims = batches.iterator();
+        when(outboxService.publishBatch(anyInt(), any())).thenAnswer(invocation -> {
+            List<OutboxEvent> batch = claims.next();
+            if (!batch.isEmpty()) {
+                Function<List<OutboxEvent>, List<Long>> publisher = invocation.getArgument(1);
+                publisher.apply(batch);
+            }
+            return batch.size();
+        });
     }
 }
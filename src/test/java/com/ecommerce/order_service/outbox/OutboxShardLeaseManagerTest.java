@@ -0,0 +1,104 @@
+package com.ecommerce.order_service.outbox;
+
+import com.ecommerce.order_service.domain.repository.OutboxRelayLeaseRepository;
+import com.ecommerce.order_service.domain.repository.OutboxRelayNodeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxShardLeaseManagerTest {
+
+    private static final String NODE_ID = "node-a";
+
+    @Mock
+    private OutboxRelayLeaseRepository leaseRepository;
+
+    @Mock
+    private OutboxRelayNodeRepository nodeRepository;
+
+    @InjectMocks
+    private OutboxShardLeaseManager leaseManager;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(leaseManager, "enabled", true);
+        ReflectionTestUtils.setField(leaseManager, "bucketCount", 8);
+        ReflectionTestUtils.setField(leaseManager, "leaseTtlMs", 15000L);
+        ReflectionTestUtils.setField(leaseManager, "configuredNodeId", NODE_ID);
+        leaseManager.init();
+    }
+
+    @Test
+    void bucketOf_shouldMatchMysqlCrc32() {
+        // SELECT CRC32('ORD-1234567890') = 347746358
+        assertThat(OutboxShardLeaseManager.bucketOf("ORD-1234567890", 64)).isEqualTo((int) (347746358L % 64));
+    }
+
+    @Test
+    void init_shouldRequireConfiguredNodeIdInTransactionalMode() {
+        // Given
+        ReflectionTestUtils.setField(leaseManager, "configuredNodeId", "");
+        ReflectionTestUtils.setField(leaseManager, "transactional", true);
+
+        // When/Then
+        assertThatThrownBy(() -> leaseManager.init())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("outbox.relay.node-id");
+    }
+
+    @Test
+    void heartbeat_shouldAcquireFairShareOfBuckets() {
+        // Given
+        when(nodeRepository.countLiveNodes(15000L)).thenReturn(2L);
+        when(leaseRepository.findLeasedBuckets(NODE_ID)).thenReturn(List.of()).thenReturn(List.of(0, 1, 2, 3));
+        when(leaseRepository.acquireFreeLeases(NODE_ID, 15000L, 4)).thenReturn(4);
+
+        // When
+        leaseManager.heartbeat();
+
+        // Then
+        verify(leaseRepository, times(8)).insertIfAbsent(anyInt());
+        verify(nodeRepository).heartbeat(NODE_ID);
+        assertThat(leaseManager.getOwnedBuckets()).containsExactlyInAnyOrder(0, 1, 2, 3);
+    }
+
+    @Test
+    void heartbeat_shouldReleaseSurplusWhenNodesJoin() {
+        // Given
+        when(nodeRepository.countLiveNodes(15000L)).thenReturn(4L);
+        when(leaseRepository.findLeasedBuckets(NODE_ID)).thenReturn(List.of(0, 1, 2, 3));
+
+        // When
+        leaseManager.heartbeat();
+
+        // Then
+        verify(leaseRepository).releaseLeases(NODE_ID, List.of(2, 3));
+        verify(leaseRepository, never()).acquireFreeLeases(anyString(), anyLong(), anyInt());
+        assertThat(leaseManager.getOwnedBuckets()).containsExactlyInAnyOrder(0, 1);
+    }
+
+    @Test
+    void heartbeat_shouldDoNothingWhenShardingDisabled() {
+        // Given
+        ReflectionTestUtils.setField(leaseManager, "enabled", false);
+
+        // When
+        leaseManager.heartbeat();
+
+        // Then
+        verifyNoInteractions(leaseRepository, nodeRepository);
+        assertThat(leaseManager.getOwnedBuckets()).isEmpty();
+    }
+}
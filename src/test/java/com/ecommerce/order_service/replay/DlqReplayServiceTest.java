@@ -0,0 +1,244 @@
+package com.ecommerce.order_service.replay;
+
+import com.ecommerce.order_service.domain.entity.DlqReplayJob;
+import com.ecommerce.order_service.domain.entity.DlqReplayStatus;
+import com.ecommerce.order_service.domain.repository.DlqReplayJobRepository;
+import com.ecommerce.order_service.kafka.consumer.PaymentEventProcessor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for DlqReplayService.
+ */
+@ExtendWith(MockitoExtension.class)
+class DlqReplayServiceTest {
+
+    private static final String TOPIC = "payments.events.DLQ";
+    private static final TopicPartition PARTITION = new TopicPartition(TOPIC, 0);
+
+    @Mock
+    private DlqReplayJobRepository jobRepository;
+
+    @Mock
+    private ConsumerFactory<String, byte[]> consumerFactory;
+
+    @Mock
+    private PaymentEventProcessor eventProcessor;
+
+    private final MockConsumer<String, byte[]> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+
+    private DlqReplayService replayService;
+
+    @BeforeEach
+    void setUp() {
+        replayService = new DlqReplayService(jobRepository, consumerFactory, eventProcessor, new ObjectMapper());
+        ReflectionTestUtils.setField(replayService, "checkpointInterval", 2);
+        ReflectionTestUtils.setField(replayService, "pollTimeoutMs", 10L);
+        ReflectionTestUtils.setField(replayService, "leaseTtlMs", 30000L);
+        ReflectionTestUtils.setField(replayService, "maxConcurrentJobs", 2);
+    }
+
+    @Test
+    void run_shouldReplayMatchingRecordsUpToEndOffsetsAndComplete() throws Exception {
+        // Given
+        givenDlqRecords(List.of(
+                record(0, "PaymentSucceeded", "a"),
+                record(1, "PaymentFailed", "b"),
+                record(2, "PaymentSucceeded", "c"),
+                record(3, "PaymentSucceeded", "dead-lettered after the job started")));
+        consumer.updateBeginningOffsets(Map.of(PARTITION, 0L));
+        consumer.updateEndOffsets(Map.of(PARTITION, 3L));
+        when(eventProcessor.process(eq("PaymentSucceeded"), any())).thenReturn(true);
+        DlqReplayJob job = job(null, null);
+        job.setEventType("PaymentSucceeded");
+
+        // When
+        replayService.run(job, new AtomicBoolean());
+
+        // Then
+        verify(eventProcessor).process("PaymentSucceeded", "a".getBytes(StandardCharsets.UTF_8));
+        verify(eventProcessor).process("PaymentSucceeded", "c".getBytes(StandardCharsets.UTF_8));
+        verifyNoMoreInteractions(eventProcessor);
+        assertThat(job.getStatus()).isEqualTo(DlqReplayStatus.COMPLETED);
+        assertThat(job.getTotalRecords()).isEqualTo(3);
+        assertThat(job.getScannedRecords()).isEqualTo(3);
+        assertThat(job.getReplayedRecords()).isEqualTo(2);
+        assertThat(job.getSkippedRecords()).isEqualTo(1);
+        assertThat(job.getPositions()).containsEntry(0, 3L);
+        assertThat(job.getCompletedAt()).isNotNull();
+    }
+
+    @Test
+    void run_shouldResumeFromCheckpointedPosition() throws Exception {
+        // Given
+        givenDlqRecords(List.of(
+                record(0, "PaymentSucceeded", "a"),
+                record(1, "PaymentSucceeded", "b"),
+                record(2, "PaymentSucceeded", "c")));
+        when(eventProcessor.process(anyString(), any())).thenReturn(true);
+        DlqReplayJob job = job(new HashMap<>(Map.of(0, 2L)), new HashMap<>(Map.of(0, 3L)));
+
+        // When
+        replayService.run(job, new AtomicBoolean());
+
+        // Then
+        verify(eventProcessor).process("PaymentSucceeded", "c".getBytes(StandardCharsets.UTF_8));
+        verifyNoMoreInteractions(eventProcessor);
+        assertThat(job.getStatus()).isEqualTo(DlqReplayStatus.COMPLETED);
+    }
+
+    @Test
+    void run_shouldCountFailedRecordsAndContinue() throws Exception {
+        // Given
+        givenDlqRecords(List.of(
+                record(0, "PaymentSucceeded", "broken"),
+                record(1, "PaymentSucceeded", "b")));
+        when(eventProcessor.process(eq("PaymentSucceeded"), any()))
+                .thenThrow(new IOException("Unreadable payload"))
+                .thenReturn(true);
+        DlqReplayJob job = job(new HashMap<>(Map.of(0, 0L)), new HashMap<>(Map.of(0, 2L)));
+
+        // When
+        replayService.run(job, new AtomicBoolean());
+
+        // Then
+        assertThat(job.getStatus()).isEqualTo(DlqReplayStatus.COMPLETED);
+        assertThat(job.getFailedRecords()).isEqualTo(1);
+        assertThat(job.getReplayedRecords()).isEqualTo(1);
+        assertThat(job.getLastError()).contains("0@0").contains("Unreadable payload");
+    }
+
+    @Test
+    void run_shouldPauseAndKeepCheckpointWhenStopped() throws Exception {
+        // Given
+        givenDlqRecords(List.of(record(0, "PaymentSucceeded", "a")));
+        DlqReplayJob job = job(new HashMap<>(Map.of(0, 0L)), new HashMap<>(Map.of(0, 1L)));
+
+        // When
+        replayService.run(job, new AtomicBoolean(true));
+
+        // Then
+        verify(eventProcessor, never()).process(anyString(), any());
+        assertThat(job.getStatus()).isEqualTo(DlqReplayStatus.PAUSED);
+        assertThat(job.getPositions()).containsEntry(0, 0L);
+        verify(jobRepository).saveCheckpoint(eq(job), anyString(), eq("{\"0\":0}"), eq("{\"0\":1}"));
+    }
+
+    @Test
+    void resume_shouldRejectCompletedJob() {
+        // Given
+        DlqReplayJob job = job(Map.of(0, 1L), Map.of(0, 1L));
+        job.setStatus(DlqReplayStatus.COMPLETED);
+        when(jobRepository.findById("job-1")).thenReturn(Optional.of(job));
+
+        // When / Then
+        assertThatThrownBy(() -> replayService.resume("job-1"))
+                .isInstanceOf(DlqReplayService.ReplayJobStateException.class);
+    }
+
+    @Test
+    void run_shouldStopWithoutCheckpointWhenLeaseIsLost() {
+        // Given
+        ReflectionTestUtils.setField(replayService, "leaseTtlMs", 0L);
+        givenDlqRecords(List.of(record(0, "PaymentSucceeded", "a")));
+        when(jobRepository.renewLease(eq("job-1"), anyString(), eq(0L))).thenReturn(0);
+        DlqReplayJob job = job(new HashMap<>(Map.of(0, 0L)), new HashMap<>(Map.of(0, 1L)));
+
+        // When
+        replayService.run(job, new AtomicBoolean());
+
+        // Then
+        verifyNoInteractions(eventProcessor);
+        verify(jobRepository, never()).saveCheckpoint(any(DlqReplayJob.class), anyString(), any(), any());
+        assertThat(job.getStatus()).isEqualTo(DlqReplayStatus.RUNNING);
+    }
+
+    @Test
+    void run_shouldStopWhenCheckpointIsRejected() throws Exception {
+        // Given
+        givenDlqRecords(List.of(
+                record(0, "PaymentSucceeded", "a"),
+                record(1, "PaymentSucceeded", "b"),
+                record(2, "PaymentSucceeded", "c")));
+        when(eventProcessor.process(anyString(), any())).thenReturn(true);
+        doReturn(0).when(jobRepository).saveCheckpoint(any(DlqReplayJob.class), anyString(), any(), any());
+        DlqReplayJob job = job(new HashMap<>(Map.of(0, 0L)), new HashMap<>(Map.of(0, 3L)));
+
+        // When
+        replayService.run(job, new AtomicBoolean());
+
+        // Then
+        verify(eventProcessor, times(2)).process(anyString(), any());
+        verify(jobRepository).saveCheckpoint(any(DlqReplayJob.class), anyString(), any(), any());
+        assertThat(job.getStatus()).isEqualTo(DlqReplayStatus.RUNNING);
+    }
+
+    @Test
+    void resume_shouldRejectJobClaimedByAnotherInstance() {
+        // Given
+        DlqReplayJob job = job(Map.of(0, 0L), Map.of(0, 1L));
+        when(jobRepository.findById("job-1")).thenReturn(Optional.of(job));
+        when(jobRepository.claim(eq("job-1"), anyString(), anyLong())).thenReturn(0);
+
+        // When / Then
+        for (int attempt = 0; attempt < 2; attempt++) {
+            assertThatThrownBy(() -> replayService.resume("job-1"))
+                    .isInstanceOf(DlqReplayService.ReplayJobStateException.class)
+                    .hasMessageContaining("another instance");
+        }
+        verifyNoInteractions(consumerFactory);
+    }
+
+    private void givenDlqRecords(List<ConsumerRecord<String, byte[]>> records) {
+        consumer.updatePartitions(TOPIC, List.of(new PartitionInfo(TOPIC, 0, null, null, null)));
+        consumer.schedulePollTask(() -> records.forEach(consumer::addRecord));
+        when(consumerFactory.createConsumer(isNull(), anyString(), isNull(), any())).thenReturn(consumer);
+        lenient().when(jobRepository.saveCheckpoint(any(DlqReplayJob.class), anyString(), any(), any())).thenReturn(1);
+    }
+
+    private static DlqReplayJob job(Map<Integer, Long> positions, Map<Integer, Long> endOffsets) {
+        return DlqReplayJob.builder()
+                .jobId("job-1")
+                .topic(TOPIC)
+                .ratePerSecond(1000)
+                .status(DlqReplayStatus.RUNNING)
+                .positions(positions)
+                .endOffsets(endOffsets)
+                .build();
+    }
+
+    private static ConsumerRecord<String, byte[]> record(long offset, String eventType, String payload) {
+        ConsumerRecord<String, byte[]> record =
+                new ConsumerRecord<>(TOPIC, 0, offset, "saga-" + offset, payload.getBytes(StandardCharsets.UTF_8));
+        record.headers().add("eventType", eventType.getBytes(StandardCharsets.UTF_8));
+        return record;
+    }
+}
@@ -1,15 +1,18 @@
 package com.ecommerce.order_service.saga;
 
+import com.ecommerce.order_service.domain.entity.Order;
 import com.ecommerce.order_service.domain.entity.OrderSaga;
 import com.ecommerce.order_service.domain.entity.OrderStatus;
 import com.ecommerce.order_service.domain.entity.SagaState;
 import com.ecommerce.order_service.domain.repository.OrderSagaRepository;
+import com.ecommerce.order_service.inbox.InboxService;
 import com.ecommerce.order_service.kafka.event.NotificationRequestedCommand;
 import com.ecommerce.order_service.kafka.event.PaymentFailedEvent;
 import com.ecommerce.order_service.kafka.event.PaymentRequestCommand;
 import com.ecommerce.order_service.kafka.event.PaymentSucceededEvent;
 import com.ecommerce.order_service.outbox.OutboxService;
 import com.ecommerce.order_service.service.OrderService;
+import com.ecommerce.order_service.stream.OrderStatusStreams;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -21,10 +24,14 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.Optional;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -40,6 +47,12 @@ class OrderSagaOrchestratorTest {
     @Mock
     private OutboxService outboxService;
 
+    @Mock
+    private InboxService inboxService;
+
+    @Mock
+    private OrderStatusStreams orderStatusStreams;
+
     @Mock
     private ObjectMapper objectMapper;
 
@@ -65,16 +78,15 @@ class OrderSagaOrchestratorTest {
     @Test
     void startPaymentRequest_shouldUpdateStateAndPublishCommand() {
         // Given
-        when(sagaRepository.findById(SAGA_ID)).thenReturn(Optional.of(saga));
+        givenSagaTransition(SagaState.STARTED, SagaState.PAYMENT_REQUESTED, 1);
         BigDecimal amount = new BigDecimal("100.00");
 
         // When
         sagaOrchestrator.startPaymentRequest(SAGA_ID, ORDER_ID, USER_ID, amount, CORRELATION_ID);
 
         // Then
-        verify(sagaRepository).save(saga);
-        assertThat(saga.getState()).isEqualTo(SagaState.PAYMENT_REQUESTED);
-        verify(orderService).updateOrderStatus(ORDER_ID, OrderStatus.PAYMENT_REQUESTED);
+        verify(sagaRepository, never()).findById(any());
+        verify(orderService).transitionOrderStatus(ORDER_ID, EnumSet.of(OrderStatus.PENDING), OrderStatus.PAYMENT_REQUESTED);
 
         ArgumentCaptor<PaymentRequestCommand> captor = ArgumentCaptor.forClass(PaymentRequestCommand.class);
         verify(outboxService).saveEvent(eq("Order"), eq(ORDER_ID), eq("PaymentRequested"), captor.capture());
@@ -88,6 +100,7 @@ class OrderSagaOrchestratorTest {
     @Test
     void handlePaymentSuccess_shouldConfirmOrderAndPublishNotification() {
         // Given
+        when(inboxService.markProcessed(anyString())).thenReturn(true);
         PaymentSucceededEvent event = PaymentSucceededEvent.builder()
                 .sagaId(SAGA_ID)
                 .orderId(ORDER_ID)
@@ -97,17 +110,16 @@ class OrderSagaOrchestratorTest {
                 .timestamp(LocalDateTime.now())
                 .build();
 
-        when(sagaRepository.findById(SAGA_ID)).thenReturn(Optional.of(saga));
+        givenSagaTransition(SagaState.PAYMENT_REQUESTED, SagaState.COMPLETED, 1);
+        when(orderService.transitionOrderStatus(eq(ORDER_ID), anyCollection(), eq(OrderStatus.CONFIRMED), eq("pay-123")))
+                .thenReturn(true);
 
         // When
         sagaOrchestrator.handlePaymentSuccess(event);
 
         // Then
-        verify(sagaRepository, times(2)).save(saga); // Once for PAYMENT_SUCCEEDED, once for COMPLETED
-        assertThat(saga.getState()).isEqualTo(SagaState.COMPLETED);
-
-        verify(orderService).updateOrderStatus(ORDER_ID, OrderStatus.CONFIRMED);
-        verify(orderService).updateOrderPaymentId(ORDER_ID, "pay-123");
+        verify(sagaRepository, never()).findById(any());
+        verify(sagaRepository, never()).save(any());
 
         // Verify OrderConfirmed event
         verify(outboxService).saveEvent(eq("Order"), eq(ORDER_ID), eq("OrderConfirmed"), any());
@@ -118,12 +130,13 @@ class OrderSagaOrchestratorTest {
 
         NotificationRequestedCommand notifCommand = notifCaptor.getValue();
         assertThat(notifCommand.getOrderId()).isEqualTo(ORDER_ID);
-        assertThat(notifCommand.getNotificationType()).isEqualTo("ORDER_CONFIRMED");
+        assertThat(notifCommand.getNotificationType()).isEqualTo("ORDER_CONFIRMED");        verify(orderStatusStreams).publishAfterCommit(ORDER_ID, OrderStatus.CONFIRMED);
     }
 
     @Test
     void handlePaymentFailure_shouldCompensateOrder() {
         // Given
+        when(inboxService.markProcessed(anyString())).thenReturn(true);
         PaymentFailedEvent event = PaymentFailedEvent.builder()
                 .sagaId(SAGA_ID)
                 .orderId(ORDER_ID)
@@ -132,16 +145,110 @@ class OrderSagaOrchestratorTest {
                 .timestamp(LocalDateTime.now())
                 .build();
 
-        when(sagaRepository.findById(SAGA_ID)).thenReturn(Optional.of(saga));
+        givenSagaTransition(SagaState.PAYMENT_REQUESTED, SagaState.COMPENSATED, 1);
+        when(orderService.transitionOrderStatus(eq(ORDER_ID), anyCollection(), eq(OrderStatus.CANCELLED)))
+                .thenReturn(true);
+
+        // When
+        sagaOrchestrator.handlePaymentFailure(event);
+
+        // Then
+        verify(sagaRepository, never()).save(any());
+        verify(outboxService).saveEvent(eq("Order"), eq(ORDER_ID), eq("OrderCancelled"), any());        verify(orderStatusStreams).publishAfterCommit(ORDER_ID, OrderStatus.CANCELLED);
+    }
+
+    @Test
+    void handlePaymentSuccess_shouldIgnoreDuplicateEvent() {
+        // Given
+        when(inboxService.markProcessed(anyString())).thenReturn(true);
+        PaymentSucceededEvent event = PaymentSucceededEvent.builder()
+                .sagaId(SAGA_ID)
+                .orderId(ORDER_ID)
+                .paymentId("pay-123")
+                .build();
+        givenSagaTransition(SagaState.PAYMENT_REQUESTED, SagaState.COMPLETED, 0);
+
+        // When
+        sagaOrchestrator.handlePaymentSuccess(event);
+
+        // Then
+        verifyNoInteractions(orderService, outboxService);
+    }
+
+    @Test
+    void handlePaymentSuccess_shouldFailSagaWhenOrderIsNoLongerAwaitingPayment() {
+        // Given
+        when(inboxService.markProcessed(anyString())).thenReturn(true);
+        PaymentSucceededEvent event = PaymentSucceededEvent.builder()
+                .sagaId(SAGA_ID)
+                .orderId(ORDER_ID)
+                .paymentId("pay-123")
+                .build();
+        givenSagaTransition(SagaState.PAYMENT_REQUESTED, SagaState.COMPLETED, 1);
+        when(orderService.transitionOrderStatus(eq(ORDER_ID), anyCollection(), eq(OrderStatus.CONFIRMED), eq("pay-123")))
+                .thenReturn(false);
+
+        // When
+        sagaOrchestrator.handlePaymentSuccess(event);
+
+        // Then
+        verify(sagaRepository).transitionState(eq(SAGA_ID), anyCollection(), eq(SagaState.FAILED), any());
+        verify(orderService).transitionOrderStatus(eq(ORDER_ID), anyCollection(), eq(OrderStatus.FAILED));
+        verifyNoInteractions(outboxService);
+    }
+
+    @Test
+    void applyPaymentResults_shouldApplyBatchWithBulkStatementsAndSkipDuplicates() {
+        // Given
+        when(inboxService.markProcessed(anyString())).thenReturn(true);
+        PaymentSucceededEvent succeeded = PaymentSucceededEvent.builder()
+                .sagaId("saga-1").orderId("order-1").paymentId("pay-1").build();
+        PaymentSucceededEvent redelivered = PaymentSucceededEvent.builder()
+                .sagaId("saga-1").orderId("order-1").paymentId("pay-1").build();
+        PaymentFailedEvent failed = PaymentFailedEvent.builder()
+                .sagaId("saga-2").orderId("order-2").reason("Declined").build();
+        PaymentFailedEvent stale = PaymentFailedEvent.builder()
+                .sagaId("saga-3").orderId("order-3").reason("Declined").build();
+
+        Order order1 = Order.builder().orderId("order-1").status(OrderStatus.PAYMENT_REQUESTED).build();
+        Order order2 = Order.builder().orderId("order-2").status(OrderStatus.PAYMENT_REQUESTED).build();
+        when(sagaRepository.lockInState(anyCollection(), eq("PAYMENT_REQUESTED"))).thenReturn(List.of("saga-1", "saga-2"));
+        when(orderService.lockOrders(anyCollection())).thenReturn(Map.of("order-1", order1, "order-2", order2));
+
+        // When
+        int applied = sagaOrchestrator.applyPaymentResults(List.of(succeeded, redelivered, failed, stale));
+
+        // Then
+        assertThat(applied).isEqualTo(2);
+        assertThat(order1.getStatus()).isEqualTo(OrderStatus.CONFIRMED);
+        assertThat(order1.getPaymentId()).isEqualTo("pay-1");
+        assertThat(order2.getStatus()).isEqualTo(OrderStatus.CANCELLED);
+        verify(sagaRepository).transitionStates(eq(List.of("saga-1")), anyCollection(), eq(SagaState.COMPLETED), any());
+        verify(sagaRepository).transitionStates(eq(List.of("saga-2")), anyCollection(), eq(SagaState.COMPENSATED), any());
+        verify(outboxService).saveEvent(eq("Order"), eq("order-1"), eq("OrderConfirmed"), any());
+        verify(outboxService).saveEvent(eq("Order"), eq("order-2"), eq("OrderCancelled"), any());
+        verify(outboxService, never()).saveEvent(anyString(), eq("order-3"), anyString(), any());
+    }
+
+    @Test
+    void handlePaymentFailure_shouldSkipEventAlreadyRecordedInInbox() {
+        // Given
+        PaymentFailedEvent event = PaymentFailedEvent.builder()
+                .sagaId(SAGA_ID)
+                .orderId(ORDER_ID)
+                .reason("Insufficient funds")
+                .build();
+        when(inboxService.markProcessed("PaymentFailed:" + SAGA_ID)).thenReturn(false);
 
         // When
         sagaOrchestrator.handlePaymentFailure(event);
 
         // Then
-        verify(sagaRepository, times(2)).save(saga); // Once for PAYMENT_FAILED, once for COMPENSATED
-        assertThat(saga.getState()).isEqualTo(SagaState.COMPENSATED);
+        verifyNoInteractions(sagaRepository, orderService, outboxService);
+    }
 
-        verify(orderService).updateOrderStatus(ORDER_ID, OrderStatus.CANCELLED);
-        verify(outboxService).saveEvent(eq("Order"), eq(ORDER_ID), eq("OrderCancelled"), any());
+    private void givenSagaTransition(SagaState from, SagaState to, int updated) {
+        when(sagaRepository.transitionState(eq(SAGA_ID), eq(EnumSet.of(from)), eq(to), any(LocalDateTime.class)))
+                .thenReturn(updated);
     }
 }
@@ -0,0 +1,122 @@
+package com.ecommerce.order_service.service;
+
+import com.ecommerce.order_service.api.dto.BatchCreateOrderResponse;
+import com.ecommerce.order_service.api.dto.BatchOrderRequest;
+import com.ecommerce.order_service.api.dto.BatchOrderResult;
+import com.ecommerce.order_service.api.dto.CreateOrderRequest;
+import com.ecommerce.order_service.api.dto.OrderResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for OrderBatchService.
+ */
+@ExtendWith(MockitoExtension.class)
+class OrderBatchServiceTest {
+
+    private static final String CORRELATION_ID = "correlation-123";
+
+    @Mock
+    private OrderService orderService;
+
+    @InjectMocks
+    private OrderBatchService orderBatchService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(orderBatchService, "chunkSize", 2);
+    }
+
+    @Test
+    void placeOrders_shouldPlaceChunksInSeparateTransactionsAndIndexResults() {
+        // Given
+        List<BatchOrderRequest> orders = orders(5);
+        when(orderService.placeOrders(anyList(), eq(CORRELATION_ID))).thenAnswer(invocation ->
+                created(invocation.<List<BatchOrderRequest>>getArgument(0).size()));
+
+        // When
+        BatchCreateOrderResponse response = orderBatchService.placeOrders(orders, CORRELATION_ID);
+
+        // Then
+        verify(orderService).placeOrders(orders.subList(0, 2), CORRELATION_ID);
+        verify(orderService).placeOrders(orders.subList(2, 4), CORRELATION_ID);
+        verify(orderService).placeOrders(orders.subList(4, 5), CORRELATION_ID);
+        assertThat(response.getCreated()).isEqualTo(5);
+        assertThat(response.getResults()).extracting(BatchOrderResult::getIndex).containsExactly(0, 1, 2, 3, 4);
+    }
+
+    @Test
+    void placeOrders_shouldRetryFailedChunkOneOrderAtATime() {
+        // Given
+        List<BatchOrderRequest> orders = orders(2);
+        when(orderService.placeOrders(orders, CORRELATION_ID))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"));
+        when(orderService.placeOrders(List.of(orders.get(0)), CORRELATION_ID)).thenReturn(created(1));
+        when(orderService.placeOrders(List.of(orders.get(1)), CORRELATION_ID))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        // When
+        BatchCreateOrderResponse response = orderBatchService.placeOrders(orders, CORRELATION_ID);
+
+        // Then
+        assertThat(response.getCreated()).isEqualTo(1);
+        assertThat(response.getFailed()).isEqualTo(1);
+        BatchOrderResult failed = response.getResults().get(1);
+        assertThat(failed.getIndex()).isEqualTo(1);
+        assertThat(failed.getStatus()).isEqualTo(BatchOrderResult.Status.FAILED);
+        assertThat(failed.getIdempotencyKey()).isEqualTo("key-1");
+    }
+
+    @Test
+    void placeOrders_shouldReportStoredResponseWhenKeyWasStoredConcurrently() {
+        // Given
+        List<BatchOrderRequest> orders = orders(1);
+        OrderResponse stored = OrderResponse.builder().orderId("ORD-1234567890").build();
+        when(orderService.placeOrders(orders, CORRELATION_ID))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"));
+        when(orderService.findIdempotentResponse("key-0")).thenReturn(Optional.of(stored));
+
+        // When
+        BatchCreateOrderResponse response = orderBatchService.placeOrders(orders, CORRELATION_ID);
+
+        // Then
+        assertThat(response.getDuplicates()).isEqualTo(1);
+        assertThat(response.getFailed()).isZero();
+        BatchOrderResult duplicate = response.getResults().get(0);
+        assertThat(duplicate.getStatus()).isEqualTo(BatchOrderResult.Status.DUPLICATE);
+        assertThat(duplicate.getOrder()).isSameAs(stored);
+    }
+
+    private static List<BatchOrderRequest> orders(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> BatchOrderRequest.builder()
+                        .idempotencyKey("key-" + i)
+                        .order(CreateOrderRequest.builder().userId("user-" + i).build())
+                        .build())
+                .toList();
+    }
+
+    private static List<BatchOrderResult> created(int count) {
+        List<BatchOrderResult> results = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            results.add(BatchOrderResult.builder().index(i).status(BatchOrderResult.Status.CREATED).build());
+        }
+        return results;
+    }
+}
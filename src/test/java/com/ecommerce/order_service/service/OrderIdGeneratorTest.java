@@ -9,10 +9,13 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.Mockito.*;
 
 /**
@@ -73,6 +76,22 @@ class OrderIdGeneratorTest {
         verify(orderRepository, times(10)).findByOrderId(anyString());
     }
 
+    @Test
+    void generateOrderIds_shouldCheckWholeChunkInOneQueryAndReplaceCollisions() {
+        // Given - one candidate of the first attempt is taken
+        when(orderRepository.findExistingOrderIds(anyCollection()))
+                .thenAnswer(invocation -> List.of(invocation.<Collection<String>>getArgument(0).iterator().next()))
+                .thenReturn(List.of());
+
+        // When
+        List<String> orderIds = orderIdGenerator.generateOrderIds(50);
+
+        // Then
+        assertThat(orderIds).hasSize(50).doesNotHaveDuplicates().allMatch(id -> id.matches("ORD-\\d{10}"));
+        verify(orderRepository, times(2)).findExistingOrderIds(anyCollection());
+        verify(orderRepository, never()).findByOrderId(anyString());
+    }
+
     @Test
     void generateOrderId_shouldGenerateUniqueIds() {
         // Given
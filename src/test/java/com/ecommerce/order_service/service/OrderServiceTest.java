@@ -1,32 +1,52 @@
 package com.ecommerce.order_service.service;
 
+import com.ecommerce.order_service.api.dto.BatchOrderRequest;
+import com.ecommerce.order_service.api.dto.BatchOrderResult;
 import com.ecommerce.order_service.api.dto.CreateOrderRequest;
+import com.ecommerce.order_service.api.dto.CursorPage;
 import com.ecommerce.order_service.api.dto.OrderItemRequest;
+import com.ecommerce.order_service.api.dto.OrderItemResponse;
+import com.ecommerce.order_service.api.dto.OrderProjectionResponse;
 import com.ecommerce.order_service.api.dto.OrderResponse;
 import com.ecommerce.order_service.api.mapper.OrderMapper;
+import com.ecommerce.order_service.cache.OrderCache;
+import com.ecommerce.order_service.domain.entity.IdempotencyKey;
 import com.ecommerce.order_service.domain.entity.Order;
 import com.ecommerce.order_service.domain.entity.OrderLine;
+import com.ecommerce.order_service.domain.entity.OrderSaga;
 import com.ecommerce.order_service.domain.entity.OrderStatus;
+import com.ecommerce.order_service.domain.entity.SagaState;
 import com.ecommerce.order_service.domain.repository.IdempotencyKeyRepository;
+import com.ecommerce.order_service.domain.repository.OrderField;
+import com.ecommerce.order_service.domain.repository.OrderProjectionRepository;
 import com.ecommerce.order_service.domain.repository.OrderRepository;
 import com.ecommerce.order_service.domain.repository.OrderSagaRepository;
+import com.ecommerce.order_service.kafka.event.OrderCreatedEvent;
+import com.ecommerce.order_service.kafka.event.PaymentRequestCommand;
 import com.ecommerce.order_service.outbox.OutboxService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -38,6 +58,9 @@ class OrderServiceTest {
     @Mock
     private OrderRepository orderRepository;
 
+    @Mock
+    private OrderProjectionRepository orderProjectionRepository;
+
     @Mock
     private OrderSagaRepository sagaRepository;
 
@@ -56,6 +79,9 @@ class OrderServiceTest {
     @Mock
     private OrderIdGenerator orderIdGenerator;
 
+    @Mock
+    private OrderCache orderCache;
+
     @InjectMocks
     private OrderService orderService;
 
@@ -107,24 +133,108 @@ class OrderServiceTest {
         verify(outboxService).saveEvent(anyString(), anyString(), anyString(), any());
     }
 
+    @Test
+    void placeOrder_shouldWriteSagaAndBothEventsInPaymentRequestedState() throws Exception {
+        // Given
+        when(orderIdGenerator.generateOrderId()).thenReturn("ORD-1234567890");
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(objectMapper.writeValueAsString(any())).thenReturn("{}");
+        when(orderMapper.toResponse(any(Order.class))).thenReturn(new OrderResponse());
+        when(orderMapper.toOrderLineList(anyList())).thenReturn(List.of(new OrderLine()));
+
+        // When
+        OrderResponse response = orderService.placeOrder(createOrderRequest, null, "correlation-123");
+
+        // Then
+        ArgumentCaptor<Order> savedOrder = ArgumentCaptor.forClass(Order.class);
+        verify(orderRepository).save(savedOrder.capture());
+        assertThat(savedOrder.getValue().getStatus()).isEqualTo(OrderStatus.PAYMENT_REQUESTED);
+
+        ArgumentCaptor<OrderSaga> savedSaga = ArgumentCaptor.forClass(OrderSaga.class);
+        verify(sagaRepository).save(savedSaga.capture());
+        assertThat(savedSaga.getValue().getState()).isEqualTo(SagaState.PAYMENT_REQUESTED);
+        assertThat(response.getSagaId()).isEqualTo(savedSaga.getValue().getSagaId());
+
+        verify(outboxService).saveEvent(eq("Order"), eq("ORD-1234567890"), eq("OrderCreated"), any(OrderCreatedEvent.class));
+        verify(outboxService).saveEvent(eq("Order"), eq("ORD-1234567890"), eq("PaymentRequested"), any(PaymentRequestCommand.class));
+        verify(orderRepository, never()).findByOrderId(anyString());
+        verifyNoInteractions(idempotencyKeyRepository);
+    }
+
+    @Test
+    void placeOrders_shouldLookUpKeysOnceAndReturnStoredResponsesForDuplicates() throws Exception {
+        // Given
+        IdempotencyKey storedKey = IdempotencyKey.builder()
+                .idempotencyKey("key-2")
+                .responsePayload("{stored}")
+                .expiresAt(LocalDateTime.now().plusHours(1))
+                .build();
+        OrderResponse storedResponse = OrderResponse.builder().orderId("ORD-STORED").build();
+        when(idempotencyKeyRepository.findAllById(anyCollection())).thenReturn(List.of(storedKey));
+        when(objectMapper.readValue("{stored}", OrderResponse.class)).thenReturn(storedResponse);
+        when(orderIdGenerator.generateOrderIds(3)).thenReturn(List.of("ORD-1234567890", "ORD-2", "ORD-3"));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(objectMapper.writeValueAsString(any())).thenReturn("{}");
+        when(orderMapper.toResponse(any(Order.class))).thenReturn(OrderResponse.builder().orderId("ORD-1234567890").build());
+        when(orderMapper.toOrderLineList(anyList())).thenReturn(List.of(new OrderLine()));
+
+        List<BatchOrderRequest> chunk = List.of(
+                BatchOrderRequest.builder().idempotencyKey("key-1").order(createOrderRequest).build(),
+                BatchOrderRequest.builder().idempotencyKey("key-1").order(createOrderRequest).build(),
+                BatchOrderRequest.builder().idempotencyKey("key-2").order(createOrderRequest).build());
+
+        // When
+        List<BatchOrderResult> results = orderService.placeOrders(chunk, "correlation-123");
+
+        // Then
+        assertThat(results).extracting(BatchOrderResult::getStatus).containsExactly(
+                BatchOrderResult.Status.CREATED, BatchOrderResult.Status.DUPLICATE, BatchOrderResult.Status.DUPLICATE);
+        assertThat(results.get(1).getOrder().getOrderId()).isEqualTo("ORD-1234567890");
+        assertThat(results.get(2).getOrder()).isSameAs(storedResponse);
+
+        verify(idempotencyKeyRepository, times(1)).findAllById(anyCollection());
+        verify(idempotencyKeyRepository, never()).findById(anyString());
+        verify(orderIdGenerator, never()).generateOrderId();
+        verify(orderRepository, times(1)).save(any(Order.class));
+        verify(idempotencyKeyRepository).saveAll(argThat(keys ->
+                keys instanceof List<?> list && list.size() == 1 && ((IdempotencyKey) list.get(0)).getIdempotencyKey().equals("key-1")));
+    }
+
     @Test
     void getOrderById_shouldReturnOrder() {
         // Given
-        when(orderRepository.findByOrderId("order-123")).thenReturn(Optional.of(order));
-        when(orderMapper.toResponse(order)).thenReturn(new OrderResponse());
+        OrderResponse loaded = new OrderResponse();
+        when(orderCache.get("order-123")).thenReturn(Optional.empty());
+        when(orderRepository.findWithLinesByOrderId("order-123")).thenReturn(Optional.of(order));
+        when(orderMapper.toResponse(order)).thenReturn(loaded);
 
         // When
         OrderResponse response = orderService.getOrderById("order-123");
 
         // Then
-        assertThat(response).isNotNull();
-        verify(orderRepository).findByOrderId("order-123");
+        assertThat(response).isSameAs(loaded);
+        verify(orderRepository).findWithLinesByOrderId("order-123");
+        verify(orderCache).put(loaded);
+    }
+
+    @Test
+    void getOrderById_shouldServeCachedOrderWithoutQuery() {
+        // Given
+        OrderResponse cached = OrderResponse.builder().orderId("order-123").version(2L).build();
+        when(orderCache.get("order-123")).thenReturn(Optional.of(cached));
+
+        // When
+        OrderResponse response = orderService.getOrderById("order-123");
+
+        // Then
+        assertThat(response).isSameAs(cached);
+        verifyNoInteractions(orderRepository);
     }
 
     @Test
     void getOrderById_shouldThrowExceptionWhenNotFound() {
         // Given
-        when(orderRepository.findByOrderId("order-123")).thenReturn(Optional.empty());
+        when(orderRepository.findWithLinesByOrderId("order-123")).thenReturn(Optional.empty());
 
         // When/Then
         assertThatThrownBy(() -> orderService.getOrderById("order-123"))
@@ -132,6 +242,43 @@ class OrderServiceTest {
                 .hasMessageContaining("Order not found");
     }
 
+    @Test
+    void getOrderVersion_shouldUseVersionQueryEvenWhenCached() {
+        // Given
+        when(orderRepository.findVersionByOrderId("order-123")).thenReturn(Optional.of(6L));
+
+        // When
+        long version = orderService.getOrderVersion("order-123");
+
+        // Then
+        assertThat(version).isEqualTo(6L);
+        verify(orderRepository, never()).findWithLinesByOrderId(anyString());
+        verifyNoInteractions(orderCache);
+    }
+
+    @Test
+    void getOrderStatus_shouldUseStatusQueryEvenWhenCached() {
+        // Given
+        when(orderRepository.findStatusByOrderId("order-123")).thenReturn(Optional.of(OrderStatus.CONFIRMED));
+
+        // When
+        OrderStatus status = orderService.getOrderStatus("order-123");
+
+        // Then
+        assertThat(status).isEqualTo(OrderStatus.CONFIRMED);
+        verifyNoInteractions(orderCache);
+    }
+
+    @Test
+    void getOrderStatus_shouldThrowForUnknownOrder() {
+        // Given
+        when(orderRepository.findStatusByOrderId("missing")).thenReturn(Optional.empty());
+
+        // When / Then
+        assertThatThrownBy(() -> orderService.getOrderStatus("missing"))
+                .isInstanceOf(OrderService.OrderNotFoundException.class);
+    }
+
     @Test
     void updateOrderStatus_shouldUpdateSuccessfully() {
         // Given
@@ -144,5 +291,92 @@ class OrderServiceTest {
         // Then
         verify(orderRepository).save(any(Order.class));
         assertThat(order.getStatus()).isEqualTo(OrderStatus.CONFIRMED);
+        verify(orderCache).evictAfterCommit("order-123");
+    }
+
+    @Test
+    void getOrdersByUserId_shouldReturnFirstPageWithCursorToLastItem() {
+        // Given
+        ReflectionTestUtils.setField(orderService, "defaultPageSize", 2);
+        ReflectionTestUtils.setField(orderService, "maxPageSize", 100);
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 10, 0);
+        List<Order> orders = List.of(historyOrder(3L, createdAt), historyOrder(2L, createdAt), historyOrder(1L, createdAt));
+        when(orderRepository.findHistoryPage("user-123", Limit.of(3))).thenReturn(orders);
+        when(orderMapper.toResponse(any(Order.class))).thenReturn(new OrderResponse());
+
+        // When
+        CursorPage<OrderResponse> page = orderService.getOrdersByUserId("user-123", null, null);
+
+        // Then
+        assertThat(page.getItems()).hasSize(2);
+        assertThat(page.isHasMore()).isTrue();
+        verify(orderRepository).fetchOrderLines(List.of(3L, 2L));
+        assertThat(OrderCursor.decode(page.getNextCursor())).isEqualTo(new OrderCursor(createdAt, 2L));
+    }
+
+    @Test
+    void getOrdersByUserId_shouldContinueAfterCursorAndEndOnLastPage() {
+        // Given
+        ReflectionTestUtils.setField(orderService, "maxPageSize", 100);
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 10, 0);
+        String cursor = new OrderCursor(createdAt, 2L).encode();
+        when(orderRepository.findHistoryPageAfter("user-123", createdAt, 2L, Limit.of(11)))
+                .thenReturn(List.of(historyOrder(1L, createdAt)));
+        when(orderMapper.toResponse(any(Order.class))).thenReturn(new OrderResponse());
+
+        // When
+        CursorPage<OrderResponse> page = orderService.getOrdersByUserId("user-123", cursor, 10);
+
+        // Then
+        assertThat(page.getItems()).hasSize(1);
+        assertThat(page.isHasMore()).isFalse();
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void getOrdersByUserId_shouldRejectMalformedCursor() {
+        // When/Then
+        assertThatThrownBy(() -> orderService.getOrdersByUserId("user-123", "not-a-cursor", 10))
+                .isInstanceOf(OrderService.InvalidCursorException.class);
+    }
+
+    @Test
+    void getOrderProjectionsByUserId_shouldSelectOnlyRequestedFieldsAndAttachItems() {
+        // Given
+        ReflectionTestUtils.setField(orderService, "maxPageSize", 100);
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 10, 0);
+        OrderProjectionResponse projection = OrderProjectionResponse.builder().orderId("order-7").build();
+        when(orderProjectionRepository.findHistoryPage("user-123", null, null,
+                EnumSet.of(OrderField.ORDER_ID, OrderField.STATUS, OrderField.ITEMS), 6))
+                .thenReturn(List.of(new OrderProjectionRepository.ProjectedOrder(7L, createdAt, projection)));
+        OrderItemResponse item = OrderItemResponse.builder().productId("product-1").build();
+        when(orderProjectionRepository.findItems(List.of(7L))).thenReturn(Map.of(7L, List.of(item)));
+
+        // When
+        CursorPage<OrderProjectionResponse> page =
+                orderService.getOrderProjectionsByUserId("user-123", null, 5, "orderId, status,items");
+
+        // Then
+        assertThat(page.getItems()).containsExactly(projection);
+        assertThat(projection.getItems()).containsExactly(item);
+        assertThat(page.isHasMore()).isFalse();
+        verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    void getOrderProjectionsByUserId_shouldRejectUnknownField() {
+        // When/Then
+        assertThatThrownBy(() -> orderService.getOrderProjectionsByUserId("user-123", null, 5, "orderId,secret"))
+                .isInstanceOf(OrderService.InvalidFieldsException.class)
+                .hasMessageContaining("secret");
+    }
+
+    private static Order historyOrder(Long id, LocalDateTime createdAt) {
+        return Order.builder()
+                .id(id)
+                .orderId("order-" + id)
+                .userId("user-123")
+                .createdAt(createdAt)
+                .build();
     }
 }
@@ -0,0 +1,147 @@
+package com.ecommerce.order_service.stream;
+
+import com.ecommerce.order_service.api.dto.OrderStatusEvent;
+import com.ecommerce.order_service.domain.entity.OrderStatus;
+import com.ecommerce.order_service.service.OrderService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for OrderStatusStreams.
+ */
+@ExtendWith(MockitoExtension.class)
+class OrderStatusStreamsTest {
+
+    private static final String ORDER_ID = "order-123";
+    private static final String CHANNEL = "orders.status";
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private OrderStatusStreams orderStatusStreams;
+
+    @BeforeEach
+    void setUp() {
+        orderStatusStreams = new OrderStatusStreams(redisTemplate, objectMapper, meterRegistry);
+        ReflectionTestUtils.setField(orderStatusStreams, "timeoutMs", 60000L);
+        ReflectionTestUtils.setField(orderStatusStreams, "channel", CHANNEL);
+        orderStatusStreams.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void subscribe_shouldKeepStreamOpenUntilOrderReachesFinalStatus() {
+        // Given
+        orderStatusStreams.subscribe(ORDER_ID, () -> OrderStatus.PAYMENT_REQUESTED);
+
+        // When
+        orderStatusStreams.deliver(event(OrderStatus.CONFIRMED));
+
+        // Then
+        assertThat(orderStatusStreams.subscriberCount(ORDER_ID)).isZero();
+        assertThat(meterRegistry.get("orders.events.subscribers").gauge().value()).isZero();
+    }
+
+    @Test
+    void subscribe_shouldCloseStreamRightAwayForOrderInFinalStatus() {
+        // When
+        orderStatusStreams.subscribe(ORDER_ID, () -> OrderStatus.CANCELLED);
+
+        // Then
+        assertThat(orderStatusStreams.subscriberCount(ORDER_ID)).isZero();
+    }
+
+    @Test
+    void subscribe_shouldReleaseStreamWhenOrderIsNotFound() {
+        // When/Then
+        assertThatThrownBy(() -> orderStatusStreams.subscribe(ORDER_ID, () -> {
+            throw new OrderService.OrderNotFoundException("Order not found: " + ORDER_ID);
+        })).isInstanceOf(OrderService.OrderNotFoundException.class);
+        assertThat(orderStatusStreams.subscriberCount(ORDER_ID)).isZero();
+    }
+
+    @Test
+    void publishAfterCommit_shouldPublishOnChannelOnlyAfterCommit() throws Exception {
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        orderStatusStreams.publishAfterCommit(ORDER_ID, OrderStatus.CONFIRMED);
+
+        // Then
+        verify(redisTemplate, never()).convertAndSend(anyString(), anyString());
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).convertAndSend(eq(CHANNEL), message.capture());
+        OrderStatusEvent published = objectMapper.readValue(message.getValue(), OrderStatusEvent.class);
+        assertThat(published.getOrderId()).isEqualTo(ORDER_ID);
+        assertThat(published.getStatus()).isEqualTo(OrderStatus.CONFIRMED);
+    }
+
+    @Test
+    void publishAfterCommit_shouldNotifyLocalStreamsWhenRedisIsUnavailable() {
+        // Given
+        orderStatusStreams.subscribe(ORDER_ID, () -> OrderStatus.PAYMENT_REQUESTED);
+        when(redisTemplate.convertAndSend(eq(CHANNEL), anyString()))
+                .thenThrow(new RedisConnectionFailureException("down"));
+
+        // When
+        orderStatusStreams.publishAfterCommit(ORDER_ID, OrderStatus.FAILED);
+
+        // Then
+        assertThat(orderStatusStreams.subscriberCount(ORDER_ID)).isZero();
+    }
+
+    @Test
+    void onMessage_shouldDeliverOnlyToStreamsOfThatOrder() throws Exception {
+        // Given
+        orderStatusStreams.subscribe(ORDER_ID, () -> OrderStatus.PAYMENT_REQUESTED);
+        orderStatusStreams.subscribe("order-456", () -> OrderStatus.PAYMENT_REQUESTED);
+
+        // When
+        orderStatusStreams.onMessage(objectMapper.writeValueAsString(event(OrderStatus.CANCELLED)));
+
+        // Then
+        assertThat(orderStatusStreams.subscriberCount(ORDER_ID)).isZero();
+        assertThat(orderStatusStreams.subscriberCount("order-456")).isEqualTo(1);
+    }
+
+    private static OrderStatusEvent event(OrderStatus status) {
+        return OrderStatusEvent.builder()
+                .orderId(ORDER_ID)
+                .status(status)
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+}